@@ -1,5 +1,6 @@
 from fastapi import FastAPI, HTTPException
 from fastapi.middleware.cors import CORSMiddleware
+from fastapi.responses import StreamingResponse
 from pydantic import BaseModel, Field
 from datetime import datetime, timedelta
 from openai import OpenAI
@@ -589,10 +590,9 @@ def get_portfolio_news_endpoint(request: PortfolioNewsRequest):
     # Return up to 3 news items
     return {"headlines": all_news[:3], "portfolio_id": portfolio_id}
 
-@app.post("/generate-insight", response_model=InvestmentInsight)
-def generate_insight(request: InsightRequest):
+def build_insight_messages(request: InsightRequest) -> list[dict]:
     """
-    Generate qualitative investment insights and recommendations
+    Build the chat messages for the qualitative analysis of a portfolio
     """
     # Fetch market news
     market_headlines = get_market_news(limit=5)
@@ -752,9 +752,7 @@ CRITICAL: For Goal Alignment and Diversification adjustments, you MUST include t
 IMPORTANT: You MUST use the exact format above. Do not use bold formatting, bullet points, or any other variations. Follow the template exactly as shown.
 """
 
-    response = openai_client.chat.completions.create(
-        model="gpt-4",
-        messages=[
+    return [
             {"role": "system", "content": """You are an expert financial advisor providing comprehensive, detailed qualitative portfolio analysis and investment insights. 
 
 Your role is to:
@@ -794,19 +792,17 @@ Avoid:
 
 Be comprehensive, specific, actionable, and insightful. Help the investor understand their portfolio deeply and make informed decisions."""},
             {"role": "user", "content": qualitative_prompt}
-        ],
-        temperature=0.3,  # Allow some creativity for insights
-        max_tokens=4000  # Allow for comprehensive responses
-    )
-
-    message_content = response.choices[0].message.content if response.choices[0].message.content is not None else ""
-    ai_text = message_content.strip()
+    ]
 
+def build_insight_response(ai_text: str, holdings: list[str]) -> InvestmentInsight:
+    """
+    Turn the raw AI text into the structured insight returned to the backend
+    """
     # Parse the AI response for qualitative insights
     structured_insight = parse_qualitative_response(ai_text)
 
     # Generate a meaningful summary from the AI response
-    summary = generate_insight_summary(ai_text, request.holdings)
+    summary = generate_insight_summary(ai_text, holdings)
 
     return InvestmentInsight(
         summary=summary,
@@ -814,3 +810,44 @@ Be comprehensive, specific, actionable, and insightful. Help the investor unders
         createdAt=datetime.now().strftime("%Y-%m-%dT%H:%M:%S"),
         structuredInsight=structured_insight
     )
+
+@app.post("/generate-insight", response_model=InvestmentInsight)
+def generate_insight(request: InsightRequest):
+    """
+    Generate qualitative investment insights and recommendations
+    """
+    response = openai_client.chat.completions.create(
+        model="gpt-4",
+        messages=build_insight_messages(request),
+        temperature=0.3,  # Allow some creativity for insights
+        max_tokens=4000  # Allow for comprehensive responses
+    )
+
+    message_content = response.choices[0].message.content if response.choices[0].message.content is not None else ""
+    return build_insight_response(message_content.strip(), request.holdings)
+
+@app.post("/generate-insight/stream")
+def generate_insight_stream(request: InsightRequest):
+    """
+    Stream the AI text as server-sent events while it is generated.
+    Emits "token" events with {"text": ...} and a final "complete" event with the full insight.
+    """
+    def event_stream():
+        stream = openai_client.chat.completions.create(
+            model="gpt-4",
+            messages=build_insight_messages(request),
+            temperature=0.3,
+            max_tokens=4000,
+            stream=True
+        )
+        chunks = []
+        for chunk in stream:
+            delta = chunk.choices[0].delta.content if chunk.choices else None
+            if delta:
+                chunks.append(delta)
+                yield f"event: token\ndata: {json.dumps({'text': delta})}\n\n"
+
+        insight = build_insight_response("".join(chunks).strip(), request.holdings)
+        yield f"event: complete\ndata: {insight.model_dump_json()}\n\n"
+
+    return StreamingResponse(event_stream(), media_type="text/event-stream")
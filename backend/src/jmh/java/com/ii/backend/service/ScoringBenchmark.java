@@ -0,0 +1,164 @@
+package com.ii.backend.service;
+
+import com.ii.backend.model.AssetRecommendation;
+import com.ii.backend.model.Client;
+import com.ii.backend.model.Holding;
+import com.ii.backend.model.Portfolio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot-path benchmarks for portfolio scoring and prompt construction.
+ *
+ * Run with {@code ./mvnw -Pjmh verify}; results go to target/jmh-result.json.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScoringBenchmark {
+
+    private static final String[] STOCK_SECTORS = {
+            "Technology", "Healthcare", "Financial Services", "Consumer Discretionary", "Consumer Staples",
+            "Energy", "Industrials", "Utilities", "Materials", "Communication Services"};
+    private static final String[] FUND_SECTORS = {
+            "Diversified", "Fixed Income", "International", "Real Estate", "Commodities",
+            "Small Cap", "Large Cap Blend", "Dividend Income", "Emerging Markets", "Global Bonds"};
+    private static final String[] TICKERS = {
+            "AAPL", "MSFT", "GOOGL", "AMZN", "TSLA", "KO", "JNJ", "JPM", "XOM", "PG",
+            "SPY", "VTI", "QQQ", "BND", "AGG", "TLT", "VXUS", "EFA", "EEM", "VNQ"};
+    private static final String[] CATEGORIES = {
+            "International", "Bond", "Dividend", "Real Estate", "Commodity",
+            "Small Cap", "Technology", "Healthcare", "Financial"};
+    private static final String[] PRIORITIES = {"HIGH", "MEDIUM", "LOW"};
+
+    public enum Mix { STOCKS, ETFS, MIXED }
+
+    @Param({"10", "100", "1000", "10000"})
+    public int holdingCount;
+
+    @Param({"STOCKS", "ETFS", "MIXED"})
+    public Mix mix;
+
+    private List<Holding> holdings;
+    private Client client;
+    private Portfolio portfolio;
+    private PortfolioAnalytics analytics;
+    private ScoringEngine.PortfolioVector vector;
+    private List<AssetRecommendation> recommendations;
+    private String[] originalPriorities;
+    private String[] sectorNames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // The recommendation validator logs every priority change; keep that out of the measurements
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        Random random = new Random(42);
+        holdings = new ArrayList<>(holdingCount);
+        for (int i = 0; i < holdingCount; i++) {
+            boolean fund = mix == Mix.ETFS || (mix == Mix.MIXED && random.nextBoolean());
+            String[] sectors = fund ? FUND_SECTORS : STOCK_SECTORS;
+            holdings.add(new Holding(
+                    TICKERS[random.nextInt(TICKERS.length)] + (i < TICKERS.length ? "" : String.valueOf(i)),
+                    1 + random.nextInt(2000),
+                    BigDecimal.valueOf(100 + random.nextInt(50_000), 2),
+                    sectors[random.nextInt(sectors.length)],
+                    fund ? (random.nextInt(4) == 0 ? "Mutual Fund" : "ETF") : "Stock",
+                    random.nextInt(10) == 0 ? null : (5 + random.nextInt(200)) / 100.0,
+                    random.nextInt(5) == 0 ? null : random.nextInt(500) / 100.0,
+                    null));
+        }
+
+        client = new Client("Benchmark Client", "bench@example.com", "Moderate", "Retirement income", 20,
+                BigDecimal.valueOf(25_000), null);
+        portfolio = new Portfolio("Benchmark Portfolio", null, "Brokerage", client);
+        analytics = PortfolioAnalytics.of(holdings);
+        vector = ScoringEngine.PortfolioVector.of(holdings);
+
+        recommendations = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES.length * PRIORITIES.length; i++) {
+            AssetRecommendation recommendation = new AssetRecommendation();
+            recommendation.ticker = "REC" + i;
+            recommendation.category = CATEGORIES[i % CATEGORIES.length];
+            recommendation.priority = PRIORITIES[i / CATEGORIES.length];
+            recommendations.add(recommendation);
+        }
+        originalPriorities = recommendations.stream().map(r -> r.priority).toArray(String[]::new);
+        sectorNames = holdings.stream().map(Holding::getSector).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public PortfolioAnalytics analyticsSnapshot() {
+        return PortfolioAnalytics.of(holdings);
+    }
+
+    @Benchmark
+    public int riskScore() {
+        return InvestmentInsightService.calculateRiskScore(analytics, client.getRiskTolerance());
+    }
+
+    @Benchmark
+    public int diversificationScore() {
+        return InvestmentInsightService.calculateDiversificationScore(analytics);
+    }
+
+    @Benchmark
+    public int goalAlignmentScore() {
+        return InvestmentInsightService.calculateGoalAlignmentScore(analytics, client);
+    }
+
+    @Benchmark
+    public ScoringEngine.PortfolioVector engineVector() {
+        return ScoringEngine.PortfolioVector.of(holdings);
+    }
+
+    @Benchmark
+    public void engineScores(Blackhole blackhole) {
+        blackhole.consume(ScoringEngine.riskScore(vector, client.getRiskTolerance()));
+        blackhole.consume(ScoringEngine.diversificationScore(vector));
+        blackhole.consume(ScoringEngine.goalAlignmentScore(vector, client.getRiskTolerance(), client.getAnnualIncomeGoal()));
+    }
+
+    @Benchmark
+    public List<AssetRecommendation> validateRecommendationPriorities() {
+        for (int i = 0; i < originalPriorities.length; i++) {
+            recommendations.get(i).priority = originalPriorities[i];
+        }
+        InvestmentInsightService.validateAssetRecommendationPriorities(recommendations, analytics, client, ScoringTrace.disabled());
+        return recommendations;
+    }
+
+    @Benchmark
+    public void assetClassFromSector(Blackhole blackhole) {
+        for (String sector : sectorNames) {
+            blackhole.consume(PortfolioAnalytics.assetClassFromSector(sector));
+        }
+    }
+
+    @Benchmark
+    public String portfolioPrompt() {
+        return InvestmentInsightService.buildPortfolioPrompt(analytics, client, portfolio);
+    }
+}
@@ -0,0 +1,31 @@
+package com.ii.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Scheduler for the blocking parts of insight jobs (repository reads, scoring, persistence).
+     * Kept separate from Tomcat's request threads so generation load cannot starve regular reads.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler insightScheduler(@Value("${insights.jobs.thread-cap:8}") int threadCap,
+                                      @Value("${insights.jobs.queue-cap:1000}") int queueCap) {
+        return Schedulers.newBoundedElastic(threadCap, queueCap, "insight-jobs");
+    }
+
+    /**
+     * Scheduler for BCrypt password checks. A few threads with a short queue cap the CPU a login
+     * storm can take; checks beyond the queue are rejected instead of piling up.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler passwordHashScheduler(@Value("${auth.bcrypt.threads:2}") int threads,
+                                           @Value("${auth.bcrypt.queue-per-thread:32}") int queuePerThread) {
+        return Schedulers.newBoundedElastic(threads, queuePerThread, "password-hash");
+    }
+}
@@ -0,0 +1,54 @@
+package com.ii.backend.config;
+
+import com.ii.backend.service.SessionTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Authenticates API requests from the session token alone (signature, expiry, revocation set).
+ * The token comes from the Authorization header. The portfolio insight stream also accepts
+ * the access_token parameter, because EventSource cannot set headers; nowhere else, so tokens
+ * do not end up in URLs and access logs for ordinary calls. Requests without a valid token
+ * continue unauthenticated and are rejected by the authorization rules in SecurityConfig.
+ */
+public class SessionTokenFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final Pattern QUERY_TOKEN_PATH = Pattern.compile("/api/insights/generate-portfolio/\\d+/stream");
+
+    private final SessionTokenService tokenService;
+
+    public SessionTokenFilter(SessionTokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        tokenService.verify(resolveToken(request)).ifPresent(session -> {
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(new UsernamePasswordAuthenticationToken(session.getAdvisorId(), null, List.of()));
+            SecurityContextHolder.setContext(context);
+        });
+        chain.doFilter(request, response);
+    }
+
+    public static String resolveToken(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            return header.substring(BEARER_PREFIX.length()).trim();
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return QUERY_TOKEN_PATH.matcher(path).matches() ? request.getParameter("access_token") : null;
+    }
+}
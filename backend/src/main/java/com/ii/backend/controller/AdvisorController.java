@@ -2,6 +2,12 @@ package com.ii.backend.controller;
 
 import com.ii.backend.model.Advisor;
 import com.ii.backend.repository.AdvisorRepository;
+import com.ii.backend.repository.KeysetPage;
+import com.ii.backend.service.AdvisorDashboardService;
+import com.ii.backend.service.ReferenceDataCache;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -11,9 +17,14 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:4200")
 public class AdvisorController {
     private final AdvisorRepository advisorRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final AdvisorDashboardService dashboardService;
 
-    public AdvisorController(AdvisorRepository advisorRepository) {
+    public AdvisorController(AdvisorRepository advisorRepository, ReferenceDataCache referenceDataCache,
+                             AdvisorDashboardService dashboardService) {
         this.advisorRepository = advisorRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.dashboardService = dashboardService;
     }
 
     @GetMapping("/health")
@@ -22,12 +33,28 @@ public class AdvisorController {
     }
 
     @GetMapping
-    public List<Advisor> getAllAdvisors() {
-        return advisorRepository.findAll();
+    public KeysetPage<Advisor> getAllAdvisors(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        Specification<Advisor> all = (root, query, cb) -> cb.conjunction();
+        Window<Advisor> window = advisorRepository.findBy(all, query -> query
+                .sortBy(Sort.by("id"))
+                .limit(KeysetPage.limit(limit))
+                .scroll(KeysetPage.after(cursor)));
+        return KeysetPage.of(window, Advisor::getId, includeTotal ? advisorRepository.count() : null);
+    }
+
+    // One row per client: portfolio count, market value, latest insight scores and whether it is stale
+    @GetMapping("/{advisorId}/dashboard")
+    public List<AdvisorDashboardService.ClientDashboard> getDashboard(@PathVariable Long advisorId) {
+        return dashboardService.getDashboard(advisorId);
     }
 
     @PostMapping
     public Advisor createAdvisor(@RequestBody Advisor advisor) {
-        return advisorRepository.save(advisor);
+        Advisor saved = advisorRepository.save(advisor);
+        referenceDataCache.evictAdvisor(saved.getId());
+        return saved;
     }
 }
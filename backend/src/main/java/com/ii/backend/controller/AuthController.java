@@ -1,11 +1,14 @@
 package com.ii.backend.controller;
 
+import com.ii.backend.config.SessionTokenFilter;
 import com.ii.backend.model.Advisor;
 import com.ii.backend.model.Client;
 import com.ii.backend.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.Map;
@@ -19,13 +22,18 @@ public class AuthController {
     private AuthService authService;
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
-        try {
-            AuthService.LoginResponse response = authService.authenticateAdvisor(loginRequest.getUsername(), loginRequest.getPassword());
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            return ResponseEntity.status(401).body(Map.of("error", e.getMessage()));
-        }
+    public Mono<ResponseEntity<?>> login(@RequestBody LoginRequest loginRequest) {
+        return authService.authenticateAdvisor(loginRequest.getUsername(), loginRequest.getPassword())
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(AuthService.LoginThrottledException.class, e ->
+                        Mono.just(ResponseEntity.status(503).header("Retry-After", "1").body(Map.of("error", e.getMessage()))))
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(401).body(Map.of("error", e.getMessage()))));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(HttpServletRequest request) {
+        authService.logout(SessionTokenFilter.resolveToken(request));
+        return ResponseEntity.ok().build();
     }
 
     @GetMapping("/advisor/{advisorId}/clients")
@@ -1,15 +1,18 @@
 package com.ii.backend.controller;
 
 import com.ii.backend.repository.HoldingRepository;
-import com.ii.backend.repository.PortfolioRepository;
-import com.ii.backend.repository.ClientRepository;
-import com.ii.backend.repository.AdvisorRepository;
-import com.ii.backend.repository.InvestmentInsightRepository;
+import com.ii.backend.repository.KeysetPage;
+import com.ii.backend.service.DataPurgeService;
+import com.ii.backend.service.PortfolioAggregateService;
+import com.ii.backend.service.ReferenceDataCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/cleanup")
@@ -20,36 +23,40 @@ public class CleanupController {
     private HoldingRepository holdingRepository;
 
     @Autowired
-    private PortfolioRepository portfolioRepository;
+    private PortfolioAggregateService portfolioAggregateService;
 
     @Autowired
-    private ClientRepository clientRepository;
+    private DataPurgeService dataPurgeService;
 
     @Autowired
-    private AdvisorRepository advisorRepository;
-
-    @Autowired
-    private InvestmentInsightRepository investmentInsightRepository;
+    private ReferenceDataCache referenceDataCache;
 
     @GetMapping("/holdings")
-    public ResponseEntity<List<Object[]>> getAllHoldings() {
-        // This will show all holdings with their portfolio info
-        List<Object[]> holdings = holdingRepository.findAll().stream()
+    public ResponseEntity<KeysetPage<Object[]>> getAllHoldings(
+            @RequestParam(required = false) Long portfolioId,
+            @RequestParam(required = false) String ticker,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        // Holdings with their portfolio info, one keyset page at a time
+        Specification<com.ii.backend.model.Holding> filter = HoldingRepository.matching(portfolioId, ticker);
+        Window<Object[]> window = holdingRepository.findBy(filter, query -> query
+                        .sortBy(Sort.by("id"))
+                        .limit(KeysetPage.limit(limit))
+                        .scroll(KeysetPage.after(cursor)))
                 .map(holding -> new Object[]{
                         holding.getId(),
                         holding.getTicker(),
                         holding.getShares(),
                         holding.getPricePerShare(),
                         holding.getPortfolio() != null ? holding.getPortfolio().getId() : "NULL"
-                })
-                .toList();
-        return ResponseEntity.ok(holdings);
+                });
+        return ResponseEntity.ok(KeysetPage.of(window, row -> (Long) row[0], includeTotal ? holdingRepository.count(filter) : null));
     }
 
     @DeleteMapping("/holdings/{id}")
     public ResponseEntity<String> deleteHolding(@PathVariable Long id) {
-        if (holdingRepository.existsById(id)) {
-            holdingRepository.deleteById(id);
+        if (portfolioAggregateService.deleteHolding(id)) {
             return ResponseEntity.ok("Holding with ID " + id + " deleted successfully");
         } else {
             return ResponseEntity.notFound().build();
@@ -58,10 +65,9 @@ public class CleanupController {
 
     @DeleteMapping("/holdings/portfolio/{portfolioId}")
     public ResponseEntity<String> deleteHoldingsByPortfolio(@PathVariable Long portfolioId) {
-        List<com.ii.backend.model.Holding> holdings = holdingRepository.findByPortfolioId(portfolioId);
-        if (!holdings.isEmpty()) {
-            holdingRepository.deleteAll(holdings);
-            return ResponseEntity.ok("Deleted " + holdings.size() + " holdings for portfolio " + portfolioId);
+        int deleted = portfolioAggregateService.deleteHoldingsByPortfolio(portfolioId);
+        if (deleted > 0) {
+            return ResponseEntity.ok("Deleted " + deleted + " holdings for portfolio " + portfolioId);
         } else {
             return ResponseEntity.ok("No holdings found for portfolio " + portfolioId);
         }
@@ -69,70 +75,84 @@ public class CleanupController {
 
     @DeleteMapping("/holdings/all")
     public ResponseEntity<String> deleteAllHoldings() {
-        long count = holdingRepository.count();
-        holdingRepository.deleteAll();
+        long count = dataPurgeService.truncate(DataPurgeService.Target.HOLDINGS).get("holdings");
         return ResponseEntity.ok("Deleted all " + count + " holdings");
     }
 
     @DeleteMapping("/portfolios/all")
     public ResponseEntity<String> deleteAllPortfolios() {
-        long count = portfolioRepository.count();
-        portfolioRepository.deleteAll();
+        long count = dataPurgeService.truncate(DataPurgeService.Target.PORTFOLIOS).get("portfolios");
         return ResponseEntity.ok("Deleted all " + count + " portfolios");
     }
 
     @DeleteMapping("/clients/all")
     public ResponseEntity<String> deleteAllClients() {
-        long count = clientRepository.count();
-        clientRepository.deleteAll();
+        int count = dataPurgeService.deleteAllClients();
         return ResponseEntity.ok("Deleted all " + count + " clients");
     }
 
     @DeleteMapping("/advisors/all")
     public ResponseEntity<String> deleteAllAdvisors() {
-        long count = advisorRepository.count();
-        advisorRepository.deleteAll();
+        int count = dataPurgeService.deleteAllAdvisors();
         return ResponseEntity.ok("Deleted all " + count + " advisors");
     }
 
     @DeleteMapping("/insights/all")
     public ResponseEntity<String> deleteAllInsights() {
-        long count = investmentInsightRepository.count();
-        investmentInsightRepository.deleteAll();
+        long count = dataPurgeService.truncate(DataPurgeService.Target.INSIGHTS).get("insights");
         return ResponseEntity.ok("Deleted all " + count + " investment insights");
     }
 
     @DeleteMapping("/everything")
     public ResponseEntity<String> deleteEverything() {
-        // Delete in order to respect foreign key constraints
-        long holdingsCount = holdingRepository.count();
-        long portfoliosCount = portfolioRepository.count();
-        long clientsCount = clientRepository.count();
-        long advisorsCount = advisorRepository.count();
-        long insightsCount = investmentInsightRepository.count();
-
-        holdingRepository.deleteAll();
-        portfolioRepository.deleteAll();
-        investmentInsightRepository.deleteAll();
-        clientRepository.deleteAll();
-        advisorRepository.deleteAll();
+        // One TRUNCATE over every table, so foreign key order does not matter
+        Map<String, Long> counts = dataPurgeService.truncate(DataPurgeService.Target.EVERYTHING);
 
         String message = String.format("Deleted all data: %d holdings, %d portfolios, %d clients, %d advisors, %d insights", 
-                holdingsCount, portfoliosCount, clientsCount, advisorsCount, insightsCount);
+                counts.get("holdings"), counts.get("portfolios"), counts.get("clients"), counts.get("advisors"), counts.get("insights"));
         
         return ResponseEntity.ok(message);
     }
 
+    /**
+     * Purges the target (HOLDINGS, PORTFOLIOS, INSIGHTS or EVERYTHING) in the background, one
+     * chunk of rows per transaction; poll GET /jobs/{jobId} for progress
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<DataPurgeService.PurgeJob> startPurgeJob(
+            @RequestParam DataPurgeService.Target target,
+            @RequestParam(required = false) Integer chunkSize) {
+        return ResponseEntity.accepted().body(dataPurgeService.startJob(target, chunkSize));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<DataPurgeService.PurgeJob> getPurgeJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(dataPurgeService.getJob(jobId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Second-level cache hit/miss counts for advisor and client reference data
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getReferenceCacheStats() {
+        return ResponseEntity.ok(referenceDataCache.getStats());
+    }
+
+    // Drop cached advisors, clients and reference queries, e.g. after editing them directly in SQL
+    @DeleteMapping("/cache")
+    public ResponseEntity<String> evictReferenceCache() {
+        referenceDataCache.evictAll();
+        return ResponseEntity.ok("Evicted cached advisors, clients and reference queries");
+    }
+
     @GetMapping("/status")
     public ResponseEntity<String> getDatabaseStatus() {
-        long holdingsCount = holdingRepository.count();
-        long portfoliosCount = portfolioRepository.count();
-        long clientsCount = clientRepository.count();
-        long advisorsCount = advisorRepository.count();
-        long insightsCount = investmentInsightRepository.count();
+        Map<String, Long> counts = dataPurgeService.countRows();
 
         String status = String.format("Database Status: %d holdings, %d portfolios, %d clients, %d advisors, %d insights", 
-                holdingsCount, portfoliosCount, clientsCount, advisorsCount, insightsCount);
+                counts.get("holdings"), counts.get("portfolios"), counts.get("clients"), counts.get("advisors"), counts.get("insights"));
         
         return ResponseEntity.ok(status);
     }
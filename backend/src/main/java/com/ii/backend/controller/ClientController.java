@@ -3,6 +3,12 @@ package com.ii.backend.controller;
 import com.ii.backend.model.Client;
 import com.ii.backend.repository.ClientRepository;
 import com.ii.backend.repository.AdvisorRepository;
+import com.ii.backend.repository.KeysetPage;
+import com.ii.backend.service.AdvisorDashboardService;
+import com.ii.backend.service.ReferenceDataCache;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -21,10 +27,27 @@ public class ClientController {
     @Autowired
     private AdvisorRepository advisorRepository;
 
-    // GET all clients
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private AdvisorDashboardService dashboardService;
+
+    // GET clients, one keyset page at a time (pass nextCursor back as cursor)
     @GetMapping
-    public List<Client> getAllClients() {
-        return clientRepository.findAll();
+    public KeysetPage<Client> getAllClients(
+            @RequestParam(required = false) Long advisorId,
+            @RequestParam(required = false) String riskTolerance,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        Specification<Client> filter = ClientRepository.matching(advisorId, riskTolerance, name);
+        Window<Client> window = clientRepository.findBy(filter.and(ClientRepository.fetchingAdvisor()), query -> query
+                .sortBy(Sort.by("id"))
+                .limit(KeysetPage.limit(limit))
+                .scroll(KeysetPage.after(cursor)));
+        return KeysetPage.of(window, Client::getId, includeTotal ? clientRepository.count(filter) : null);
     }
 
     // POST a new client
@@ -34,7 +57,10 @@ public class ClientController {
             advisorRepository.findById(client.getAdvisor().getId())
                     .ifPresent(client::setAdvisor);
         }
-        return clientRepository.save(client);
+        Client saved = clientRepository.save(client);
+        referenceDataCache.evictClient(saved.getId());
+        dashboardService.refreshClient(saved.getId());
+        return saved;
     }
 
     // PUT to update advisor assignment for a client
@@ -57,6 +83,8 @@ public class ClientController {
             Client client = clientOpt.get();
             client.setAdvisor(advisorOpt.get());
             Client savedClient = clientRepository.save(client);
+            referenceDataCache.evictClient(clientId);
+            dashboardService.refreshClient(clientId);
 
             return ResponseEntity.ok(savedClient);
         } catch (Exception e) {
@@ -67,7 +95,7 @@ public class ClientController {
     // GET client by ID
     @GetMapping("/{clientId}")
     public ResponseEntity<Client> getClientById(@PathVariable Long clientId) {
-        Optional<Client> client = clientRepository.findById(clientId);
+        Optional<Client> client = clientRepository.findWithAdvisorById(clientId);
         return client.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -4,10 +4,14 @@ import com.ii.backend.model.Holding;
 import com.ii.backend.model.Portfolio;
 import com.ii.backend.repository.HoldingRepository;
 import com.ii.backend.repository.PortfolioRepository;
+import com.ii.backend.service.HoldingImportService;
+import com.ii.backend.service.PortfolioAggregateService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -21,22 +25,45 @@ public class HoldingController {
     @Autowired
     private PortfolioRepository portfolioRepository;
 
+    @Autowired
+    private PortfolioAggregateService portfolioAggregateService;
+
+    @Autowired
+    private HoldingImportService holdingImportService;
+
     @GetMapping("/portfolio/{portfolioId}")
     public List<Holding> getHoldingsByPortfolio(@PathVariable Long portfolioId) {
-        return holdingRepository.findByPortfolioId(portfolioId);
+        return holdingRepository.findWithPortfolioByPortfolioId(portfolioId);
     }
 
     @PostMapping
     public ResponseEntity<?> createHolding(@RequestBody Holding holding) {
         if (holding.getPortfolio() != null && holding.getPortfolio().getId() != null) {
-            Portfolio portfolio = portfolioRepository.findById(holding.getPortfolio().getId()).orElse(null);
+            Portfolio portfolio = portfolioRepository.findWithClientById(holding.getPortfolio().getId()).orElse(null);
             if (portfolio == null) {
                 return ResponseEntity.badRequest().body("Portfolio not found.");
             }
             holding.setPortfolio(portfolio);
         }
 
-        Holding saved = holdingRepository.save(holding);
+        Holding saved = portfolioAggregateService.saveHolding(holding);
         return ResponseEntity.ok(saved);
     }
+
+    /**
+     * Bulk import of a CSV (header row required) or JSON-lines body, streamed in batches.
+     * Rows without a portfolioId column use the portfolioId query parameter.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importHoldings(InputStream body,
+                                            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                            @RequestParam(required = false) String format,
+                                            @RequestParam(required = false) Long portfolioId) {
+        try {
+            HoldingImportService.Format importFormat = HoldingImportService.resolveFormat(format, contentType);
+            return ResponseEntity.ok(holdingImportService.importHoldings(body, importFormat, portfolioId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 }
@@ -1,13 +1,32 @@
 package com.ii.backend.controller;
 
+import com.ii.backend.model.InsightRescoreCheckpoint;
+import com.ii.backend.model.InsightSummary;
 import com.ii.backend.model.InvestmentInsight;
 import com.ii.backend.repository.InvestmentInsightRepository;
+import com.ii.backend.repository.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import com.ii.backend.service.AdvisorDashboardService;
+import com.ii.backend.service.AiInsightClient;
+import com.ii.backend.service.DataPurgeService;
+import com.ii.backend.service.InsightBatchService;
+import com.ii.backend.service.InsightJobService;
+import com.ii.backend.service.InsightRescoringService;
+import com.ii.backend.service.InsightResponseCache;
 import com.ii.backend.service.InvestmentInsightService;
+import com.ii.backend.service.ScoreHistoryService;
+import com.ii.backend.service.ScoringTrace;
 import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Flux;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -22,15 +41,63 @@ public class InvestmentInsightController {
     @Autowired
     private InvestmentInsightService insightService;
 
+    @Autowired
+    private InsightJobService insightJobService;
+
+    @Autowired
+    private InsightBatchService insightBatchService;
+
+    @Autowired
+    private InsightRescoringService rescoringService;
+
+    @Autowired
+    private InsightResponseCache responseCache;
+
+    @Autowired
+    private AiInsightClient aiClient;
+
+    @Autowired
+    private AdvisorDashboardService dashboardService;
+
+    @Autowired
+    private DataPurgeService dataPurgeService;
+
+    @Autowired
+    private ScoreHistoryService scoreHistoryService;
+
+    /**
+     * Insight summaries, newest first, one keyset page at a time (pass nextCursor back as cursor).
+     * Ordered by id, which follows insertion order; createdAt comes from the AI service and is
+     * only filtered on. Full insights come from GET /{insightId}.
+     */
     @GetMapping
-    public List<InvestmentInsight> getAllInsights() {
-        return insightRepository.findAll();
+    public KeysetPage<InsightSummary> getAllInsights(
+            @RequestParam(required = false) Long advisorId,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) String portfolioName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer minRiskScore,
+            @RequestParam(required = false) Integer maxRiskScore,
+            @RequestParam(required = false) Integer minDiversificationScore,
+            @RequestParam(required = false) Integer maxDiversificationScore,
+            @RequestParam(required = false) Integer minGoalAlignment,
+            @RequestParam(required = false) Integer maxGoalAlignment,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        Specification<InvestmentInsight> filter = InvestmentInsightRepository.matching(advisorId, clientId, portfolioName, from, to,
+                minRiskScore, maxRiskScore, minDiversificationScore, maxDiversificationScore, minGoalAlignment, maxGoalAlignment);
+        return insightRepository.findSummaries(filter, cursor, KeysetPage.limit(limit), includeTotal);
     }
 
     @PostMapping
     public InvestmentInsight createInsight(@RequestBody InvestmentInsight insight) {
         insight.setCreatedAt(java.time.LocalDateTime.now());
-        return insightRepository.save(insight);
+        InvestmentInsight saved = insightRepository.save(insight);
+        scoreHistoryService.record(saved);
+        dashboardService.refreshClient(saved.getClient() != null ? saved.getClient().getId() : null);
+        return saved;
     }
 
     @PostMapping("/generate-manual")
@@ -55,31 +122,208 @@ public class InvestmentInsightController {
             return ResponseEntity.ok(insight);
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().body("Invalid client ID format: " + clientId);
+        } catch (AiInsightClient.AiServiceBusyException e) {
+            return ResponseEntity.status(503).header("Retry-After", "1").body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/generate-portfolio/{portfolioId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamInsightFromPortfolio(
+        @PathVariable Long portfolioId,
+        @RequestParam Long clientId
+    ) {
+        return insightService.streamInsightForPortfolio(portfolioId, clientId);
+    }
+
+    @PostMapping("/jobs/portfolio/{portfolioId}")
+    public ResponseEntity<?> submitPortfolioInsightJob(
+        @PathVariable Long portfolioId,
+        @RequestParam String clientId,
+        @RequestBody(required = false) Map<String, String> body
+    ) {
+        String preferences = body != null ? body.get("preferences") : null;
+        String callbackUrl = body != null ? body.get("callbackUrl") : null;
+        try {
+            Long clientIdLong = Long.parseLong(clientId);
+            InsightJobService.InsightJob job = insightJobService.submitPortfolioJob(portfolioId, preferences, clientIdLong, callbackUrl);
+            return ResponseEntity.accepted().body(job);
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body("Invalid client ID format: " + clientId);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<InsightJobService.InsightJob> getInsightJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(insightJobService.getJob(jobId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}/result")
+    public ResponseEntity<?> getInsightJobResult(@PathVariable String jobId) {
+        try {
+            InsightJobService.InsightJob job = insightJobService.getJob(jobId);
+            switch (job.getStatus()) {
+                case COMPLETED:
+                    return ResponseEntity.ok(insightJobService.getJobResult(job));
+                case FAILED:
+                    return ResponseEntity.internalServerError().body(job);
+                default:
+                    return ResponseEntity.accepted().body(job);
+            }
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/batch/advisor/{advisorId}")
+    public ResponseEntity<InsightBatchService.InsightBatch> submitAdvisorBatch(
+        @PathVariable Long advisorId,
+        @RequestParam(required = false) Integer parallelism,
+        @RequestBody(required = false) Map<String, String> body
+    ) {
+        String preferences = body != null ? body.get("preferences") : null;
+        return ResponseEntity.accepted().body(insightBatchService.submitAdvisorBatch(advisorId, preferences, parallelism));
+    }
+
+    @GetMapping("/batch/{batchId}")
+    public ResponseEntity<InsightBatchService.InsightBatch> getAdvisorBatch(@PathVariable String batchId) {
+        try {
+            return ResponseEntity.ok(insightBatchService.getBatch(batchId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/rescore")
+    public ResponseEntity<InsightRescoreCheckpoint> startRescore(@RequestParam(required = false) Integer chunkSize) {
+        return ResponseEntity.accepted().body(rescoringService.startJob(chunkSize));
+    }
+
+    @GetMapping("/rescore")
+    public List<InsightRescoreCheckpoint> getRescoreJobs() {
+        return rescoringService.getJobs();
+    }
+
+    @GetMapping("/rescore/{jobId}")
+    public ResponseEntity<InsightRescoreCheckpoint> getRescoreJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(rescoringService.getJob(jobId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/rescore/{jobId}/pause")
+    public ResponseEntity<InsightRescoreCheckpoint> pauseRescore(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.accepted().body(rescoringService.pauseJob(jobId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/rescore/{jobId}/resume")
+    public ResponseEntity<?> resumeRescore(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.accepted().body(rescoringService.resumeJob(jobId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/cache/stats")
+    public Map<String, Object> getResponseCacheStats() {
+        return responseCache.getStats();
+    }
+
+    @GetMapping("/ai-client/status")
+    public Map<String, Object> getAiClientStatus() {
+        return aiClient.getStatus();
+    }
+
+    @DeleteMapping("/cache")
+    public ResponseEntity<Void> clearResponseCache() {
+        responseCache.clear();
+        return ResponseEntity.ok().build();
+    }
+
     @GetMapping("/client/{clientId}")
-    public ResponseEntity<List<InvestmentInsight>> getInsightsByClient(@PathVariable Long clientId) {
+    public ResponseEntity<List<InsightSummary>> getInsightsByClient(@PathVariable Long clientId) {
         try {
-            List<InvestmentInsight> insights = insightService.getInsightsByClient(clientId);
+            List<InsightSummary> insights = insightService.getInsightsByClient(clientId);
             return ResponseEntity.ok(insights);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @GetMapping("/client/{clientId}/latest-by-portfolio")
+    public ResponseEntity<List<InsightSummary>> getLatestInsightsPerPortfolio(@PathVariable Long clientId) {
+        try {
+            return ResponseEntity.ok(insightService.getLatestInsightsPerPortfolio(clientId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/portfolio/{portfolioId}")
-    public ResponseEntity<List<InvestmentInsight>> getInsightsByPortfolio(@PathVariable Long portfolioId) {
+    public ResponseEntity<List<InsightSummary>> getInsightsByPortfolio(@PathVariable Long portfolioId) {
         try {
-            // Get the portfolio to find the client, then get insights for that client
+            // Insights stored against this portfolio only
             return insightService.getInsightsByPortfolio(portfolioId);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    /**
+     * Average risk, diversification and goal-alignment scores per day, week or month for one
+     * client, portfolio or advisor book (pass exactly one id). Dates are inclusive; by default
+     * the last year, with the granularity chosen from the range.
+     */
+    @GetMapping("/score-history")
+    public ResponseEntity<ScoreHistoryService.ScoreSeries> getScoreHistory(
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) Long portfolioId,
+            @RequestParam(required = false) Long advisorId,
+            @RequestParam(required = false) ScoreHistoryService.Granularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        int ids = (clientId != null ? 1 : 0) + (portfolioId != null ? 1 : 0) + (advisorId != null ? 1 : 0);
+        if (ids != 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        ScoreHistoryService.Scope scope = clientId != null ? ScoreHistoryService.Scope.CLIENT
+                : portfolioId != null ? ScoreHistoryService.Scope.PORTFOLIO
+                : ScoreHistoryService.Scope.ADVISOR;
+        Long scopeId = clientId != null ? clientId : portfolioId != null ? portfolioId : advisorId;
+        try {
+            return ResponseEntity.ok(scoreHistoryService.getSeries(scope, scopeId, granularity, from, to));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<InvestmentInsight>> searchInsightsByRecommendation(
+            @RequestParam(required = false) String ticker,
+            @RequestParam(required = false) String priority) {
+        try {
+            return ResponseEntity.ok(insightService.findInsightsByRecommendation(ticker, priority));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{insightId}")
     public ResponseEntity<InvestmentInsight> getInsightById(@PathVariable Long insightId) {
         try {
@@ -90,6 +334,14 @@ public class InvestmentInsightController {
         }
     }
 
+    // Latest sampled scoring trace (rules fired, deltas, inputs); 404 once it has left the in-memory buffer
+    @GetMapping("/{insightId}/scoring-trace")
+    public ResponseEntity<ScoringTrace> getScoringTrace(@PathVariable Long insightId) {
+        return insightService.getScoringTrace(insightId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/{insightId}")
     public ResponseEntity<Void> deleteInsight(@PathVariable Long insightId) {
         try {
@@ -103,7 +355,7 @@ public class InvestmentInsightController {
     @DeleteMapping("/all")
     public ResponseEntity<Void> deleteAllInsights() {
         try {
-            insightRepository.deleteAll();
+            dataPurgeService.truncate(DataPurgeService.Target.INSIGHTS);
             return ResponseEntity.ok().build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -5,9 +5,16 @@ import com.ii.backend.model.Holding;
 import com.ii.backend.repository.PortfolioRepository;
 import com.ii.backend.repository.ClientRepository;
 import com.ii.backend.repository.HoldingRepository;
+import com.ii.backend.repository.KeysetPage;
 import com.ii.backend.model.Client;
+import com.ii.backend.model.PortfolioAggregate;
+import com.ii.backend.service.AdvisorDashboardService;
+import com.ii.backend.service.PortfolioAggregateService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -27,9 +34,27 @@ public class PortfolioController {
     @Autowired
     private HoldingRepository holdingRepository;
 
+    @Autowired
+    private AdvisorDashboardService dashboardService;
+
+    @Autowired
+    private PortfolioAggregateService portfolioAggregateService;
+
+    // Keyset pages ordered by id; pass nextCursor back as cursor for the next page
     @GetMapping
-    public List<Portfolio> getAllPortfolios() {
-        return portfolioRepository.findAll();
+    public KeysetPage<Portfolio> getAllPortfolios(
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) Long advisorId,
+            @RequestParam(required = false) String accountType,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        Specification<Portfolio> filter = PortfolioRepository.matching(clientId, advisorId, accountType);
+        Window<Portfolio> window = portfolioRepository.findBy(filter.and(PortfolioRepository.fetchingClientAndAdvisor()), query -> query
+                .sortBy(Sort.by("id"))
+                .limit(KeysetPage.limit(limit))
+                .scroll(KeysetPage.after(cursor)));
+        return KeysetPage.of(window, Portfolio::getId, includeTotal ? portfolioRepository.count(filter) : null);
     }
 
     @GetMapping("/client/{clientId}")
@@ -46,7 +71,7 @@ public class PortfolioController {
 
     @GetMapping("/{portfolioId}")
     public ResponseEntity<Portfolio> getPortfolioById(@PathVariable Long portfolioId) {
-        Portfolio portfolio = portfolioRepository.findById(portfolioId).orElse(null);
+        Portfolio portfolio = portfolioRepository.findWithClientById(portfolioId).orElse(null);
         if (portfolio == null) {
             return ResponseEntity.notFound().build();
         }
@@ -55,15 +80,32 @@ public class PortfolioController {
 
     @GetMapping("/{portfolioId}/holdings")
     public ResponseEntity<List<Holding>> getHoldingsByPortfolio(@PathVariable Long portfolioId) {
-        List<Holding> holdings = holdingRepository.findByPortfolioId(portfolioId);
+        List<Holding> holdings = holdingRepository.findWithPortfolioByPortfolioId(portfolioId);
         return ResponseEntity.ok(holdings);
     }
 
+    @GetMapping("/{portfolioId}/aggregate")
+    public ResponseEntity<PortfolioAggregate> getPortfolioAggregate(@PathVariable Long portfolioId) {
+        try {
+            return ResponseEntity.ok(portfolioAggregateService.getAggregate(portfolioId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/{portfolioId}/aggregate/rebuild")
+    public ResponseEntity<PortfolioAggregate> rebuildPortfolioAggregate(@PathVariable Long portfolioId) {
+        if (!portfolioRepository.existsById(portfolioId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(portfolioAggregateService.rebuild(portfolioId));
+    }
+
     @PostMapping
     public ResponseEntity<?> createPortfolio(@RequestBody Portfolio portfolio) {
         // Optional: validate that client exists
         if (portfolio.getClient() != null && portfolio.getClient().getId() != null) {
-            Client client = clientRepository.findById(portfolio.getClient().getId()).orElse(null);
+            Client client = clientRepository.findWithAdvisorById(portfolio.getClient().getId()).orElse(null);
             if (client == null) {
                 return ResponseEntity.badRequest().body("Client not found.");
             }
@@ -71,6 +113,7 @@ public class PortfolioController {
         }
 
         Portfolio saved = portfolioRepository.save(portfolio);
+        dashboardService.refreshClient(saved.getClient() != null ? saved.getClient().getId() : null);
         return ResponseEntity.ok(saved);
     }
 }
@@ -1,10 +1,19 @@
 package com.ii.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Advisor.CACHE_REGION)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Advisor {
+    // Second-level cache region (configured in application.conf)
+    public static final String CACHE_REGION = "advisor";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -0,0 +1,43 @@
+package com.ii.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One asset the AI suggests adding, stored inside the insight's structuredData
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AssetRecommendation {
+    @JsonProperty("ticker")
+    public String ticker;
+
+    @JsonProperty("assetName")
+    public String assetName;
+
+    @JsonProperty("allocation")
+    public String allocation;
+
+    @JsonProperty("category")
+    public String category;
+
+    @JsonProperty("reasoning")
+    public String reasoning;
+
+    @JsonProperty("priority")
+    public String priority;
+
+    @JsonProperty("expectedImpact")
+    public String expectedImpact;
+
+    public AssetRecommendation() {}
+
+    AssetRecommendation(AssetRecommendation other) {
+        this.ticker = other.ticker;
+        this.assetName = other.assetName;
+        this.allocation = other.allocation;
+        this.category = other.category;
+        this.reasoning = other.reasoning;
+        this.priority = other.priority;
+        this.expectedImpact = other.expectedImpact;
+    }
+}
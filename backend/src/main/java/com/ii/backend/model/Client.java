@@ -1,11 +1,20 @@
 package com.ii.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 import java.util.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Client.CACHE_REGION)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Client {
+    // Second-level cache region (configured in application.conf)
+    public static final String CACHE_REGION = "client";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -17,7 +26,7 @@ public class Client {
     private Integer yearsUntilGoal; // Years until retirement or goal
     private BigDecimal annualIncomeGoal; // Target annual income from investments
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "advisor_id")
     private Advisor advisor;
 
@@ -0,0 +1,52 @@
+package com.ii.backend.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One precomputed dashboard row per client: portfolio count, market value of the holdings and
+ * the latest insight's scores. Written only by AdvisorDashboardService's upsert, which reruns
+ * for the affected clients on every portfolio, holding and insight write.
+ */
+@Entity
+@Immutable
+@Table(name = "client_dashboard_summary", indexes = @Index(name = "idx_dashboard_advisor_id", columnList = "advisor_id"))
+public class ClientDashboardSummary {
+    @Id
+    private Long clientId;
+
+    private Long advisorId;
+    private String clientName;
+    private String riskTolerance;
+    private int portfolioCount;
+
+    @Column(precision = 38, scale = 2)
+    private BigDecimal totalMarketValue;
+
+    private LocalDateTime holdingsChangedAt;
+    private Long latestInsightId;
+    private Integer latestRiskScore;
+    private Integer latestDiversificationScore;
+    private Integer latestGoalAlignment;
+    private LocalDateTime latestInsightAt;
+    private LocalDateTime refreshedAt;
+
+    public ClientDashboardSummary() {}
+
+    public Long getClientId() { return clientId; }
+    public Long getAdvisorId() { return advisorId; }
+    public String getClientName() { return clientName; }
+    public String getRiskTolerance() { return riskTolerance; }
+    public int getPortfolioCount() { return portfolioCount; }
+    public BigDecimal getTotalMarketValue() { return totalMarketValue; }
+    public LocalDateTime getHoldingsChangedAt() { return holdingsChangedAt; }
+    public Long getLatestInsightId() { return latestInsightId; }
+    public Integer getLatestRiskScore() { return latestRiskScore; }
+    public Integer getLatestDiversificationScore() { return latestDiversificationScore; }
+    public Integer getLatestGoalAlignment() { return latestGoalAlignment; }
+    public LocalDateTime getLatestInsightAt() { return latestInsightAt; }
+    public LocalDateTime getRefreshedAt() { return refreshedAt; }
+}
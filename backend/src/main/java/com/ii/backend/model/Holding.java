@@ -17,7 +17,7 @@ public class Holding {
     private Double beta; // Optional - measures volatility vs market
     private Double dividendYield; // Annual dividend yield as percentage
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "portfolio_id")
     private Portfolio portfolio;
 
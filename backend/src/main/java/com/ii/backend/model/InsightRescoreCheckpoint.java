@@ -0,0 +1,80 @@
+package com.ii.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "insight_rescore_checkpoint")
+public class InsightRescoreCheckpoint {
+
+    public enum Status { RUNNING, PAUSED, COMPLETED, FAILED }
+
+    @Id
+    @Column(length = 36)
+    private String jobId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Status status;
+
+    private Long lastInsightId; // Highest insight id already rescored; the next chunk starts after it
+    private Integer chunkSize;
+    private long processed;
+    private long updated;
+    private long skipped; // No matching portfolio, no holdings left, or holdings changed since the insight
+    private long failed;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+
+    public InsightRescoreCheckpoint() {}
+
+    public InsightRescoreCheckpoint(String jobId, int chunkSize) {
+        this.jobId = jobId;
+        this.chunkSize = chunkSize;
+        this.status = Status.RUNNING;
+        this.lastInsightId = 0L;
+        this.startedAt = LocalDateTime.now();
+        this.updatedAt = this.startedAt;
+    }
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public Long getLastInsightId() { return lastInsightId; }
+    public void setLastInsightId(Long lastInsightId) { this.lastInsightId = lastInsightId; }
+
+    public Integer getChunkSize() { return chunkSize; }
+    public void setChunkSize(Integer chunkSize) { this.chunkSize = chunkSize; }
+
+    public long getProcessed() { return processed; }
+    public void setProcessed(long processed) { this.processed = processed; }
+
+    public long getUpdated() { return updated; }
+    public void setUpdated(long updated) { this.updated = updated; }
+
+    public long getSkipped() { return skipped; }
+    public void setSkipped(long skipped) { this.skipped = skipped; }
+
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+}
@@ -0,0 +1,34 @@
+package com.ii.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "insight_response_cache")
+public class InsightResponseCacheEntry {
+    @Id
+    @Column(length = 64)
+    private String cacheKey; // SHA-256 of tickers + prompt
+
+    @Column(columnDefinition = "TEXT")
+    private String responseJson;
+
+    private LocalDateTime createdAt;
+
+    public InsightResponseCacheEntry() {}
+
+    public InsightResponseCacheEntry(String cacheKey, String responseJson, LocalDateTime createdAt) {
+        this.cacheKey = cacheKey;
+        this.responseJson = responseJson;
+        this.createdAt = createdAt;
+    }
+
+    public String getCacheKey() { return cacheKey; }
+    public void setCacheKey(String cacheKey) { this.cacheKey = cacheKey; }
+
+    public String getResponseJson() { return responseJson; }
+    public void setResponseJson(String responseJson) { this.responseJson = responseJson; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,51 @@
+package com.ii.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalDateTime;
+
+/**
+ * List view of an insight: summary, scores and a short text preview, selected directly in
+ * JPQL so the AI text, structuredData and debugInfo columns are never read for list pages.
+ * The full insight comes from GET /api/insights/{id}.
+ */
+public class InsightSummary {
+    public static final int PREVIEW_LENGTH = 200;
+
+    private final Long id;
+    private final String summary;
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private final LocalDateTime createdAt;
+    private final Long portfolioId;
+    private final String portfolioName;
+    private final Integer riskScore;
+    private final Integer diversificationScore;
+    private final Integer goalAlignment;
+    private final Boolean aiPending;
+    private final String preview; // First PREVIEW_LENGTH characters of aiGeneratedText
+
+    public InsightSummary(Long id, String summary, LocalDateTime createdAt, Long portfolioId, String portfolioName,
+                          Integer riskScore, Integer diversificationScore, Integer goalAlignment,
+                          Boolean aiPending, String preview) {
+        this.id = id;
+        this.summary = summary;
+        this.createdAt = createdAt;
+        this.portfolioId = portfolioId;
+        this.portfolioName = portfolioName;
+        this.riskScore = riskScore;
+        this.diversificationScore = diversificationScore;
+        this.goalAlignment = goalAlignment;
+        this.aiPending = aiPending;
+        this.preview = preview;
+    }
+
+    public Long getId() { return id; }
+    public String getSummary() { return summary; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public Long getPortfolioId() { return portfolioId; }
+    public String getPortfolioName() { return portfolioName; }
+    public Integer getRiskScore() { return riskScore; }
+    public Integer getDiversificationScore() { return diversificationScore; }
+    public Integer getGoalAlignment() { return goalAlignment; }
+    public Boolean getAiPending() { return aiPending; }
+    public String getPreview() { return preview; }
+}
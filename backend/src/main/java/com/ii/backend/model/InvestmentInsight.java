@@ -2,9 +2,18 @@ package com.ii.backend.model;
 
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import java.util.Map;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 @Entity
+@Table(indexes = {
+    // Newest-first lists per portfolio and per client are index range scans
+    @Index(name = "idx_insight_portfolio_created", columnList = "portfolio_id, created_at DESC"),
+    @Index(name = "idx_insight_client_created", columnList = "client_id, created_at DESC")
+})
 public class InvestmentInsight {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -18,22 +27,32 @@ public class InvestmentInsight {
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime createdAt;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "client_id")
     private Client client;
 
-    private String portfolioName; // Name of the portfolio this insight was generated for
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "portfolio_id")
+    @JsonIgnore
+    private Portfolio portfolio; // Portfolio this insight was generated for; null for client-level insights
+
+    private String portfolioName; // Name of the portfolio at generation time
 
     // Structured insight fields
     private Integer riskScore;
     private Integer diversificationScore;
     private Integer goalAlignment;
     
-    @Column(columnDefinition = "TEXT")
-    private String structuredData; // JSON string for sections and recommendations
+    // Stored as JSONB so recommendations can be queried in SQL (GIN indexed)
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private StructuredInsight structuredData; // Sections and recommendations
     
-    @Column(columnDefinition = "TEXT")
-    private String debugInfo; // JSON string for debugging information
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private Map<String, Object> debugInfo; // Score calculation details for debugging
+
+    private Boolean aiPending; // True when only mathematical scores are present because the AI service was unavailable
 
     // Constructors
     public InvestmentInsight() {}
@@ -71,12 +90,22 @@ public class InvestmentInsight {
     public Integer getGoalAlignment() { return goalAlignment; }
     public void setGoalAlignment(Integer goalAlignment) { this.goalAlignment = goalAlignment; }
 
-    public String getStructuredData() { return structuredData; }
-    public void setStructuredData(String structuredData) { this.structuredData = structuredData; }
+    public StructuredInsight getStructuredData() { return structuredData; }
+    public void setStructuredData(StructuredInsight structuredData) { this.structuredData = structuredData; }
+
+    @JsonIgnore
+    public Portfolio getPortfolio() { return portfolio; }
+    public void setPortfolio(Portfolio portfolio) { this.portfolio = portfolio; }
+
+    // Read from the lazy proxy's identifier, so serializing an insight never loads its portfolio
+    public Long getPortfolioId() { return portfolio != null ? portfolio.getId() : null; }
 
     public String getPortfolioName() { return portfolioName; }
     public void setPortfolioName(String portfolioName) { this.portfolioName = portfolioName; }
     
-    public String getDebugInfo() { return debugInfo; }
-    public void setDebugInfo(String debugInfo) { this.debugInfo = debugInfo; }
+    public Map<String, Object> getDebugInfo() { return debugInfo; }
+    public void setDebugInfo(Map<String, Object> debugInfo) { this.debugInfo = debugInfo; }
+
+    public Boolean getAiPending() { return aiPending; }
+    public void setAiPending(Boolean aiPending) { this.aiPending = aiPending; }
 }
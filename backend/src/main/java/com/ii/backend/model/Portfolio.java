@@ -7,7 +7,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@JsonIgnoreProperties("holdings")
+@JsonIgnoreProperties({"holdings", "hibernateLazyInitializer", "handler"})
 public class Portfolio {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -17,7 +17,7 @@ public class Portfolio {
     private BigDecimal totalValue;
     private String accountType; // e.g., "Brokerage", "Roth IRA", "Traditional IRA", "401k"
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "client_id")
     private Client client;
 
@@ -0,0 +1,192 @@
+package com.ii.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.ii.backend.service.ScoringEngine;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Running totals over a portfolio's holdings, adjusted by each holding write so valuation
+ * reads never rescan the holdings. They cover every portfolio-wide input of the scoring
+ * engine, exactly: prices are cents, and the beta and dividend sums are unrounded numerics.
+ * Invested value only: Portfolio.totalValue is the account value entered by the advisor and
+ * includes uninvested cash.
+ */
+@Entity
+@Table(name = "portfolio_aggregate")
+public class PortfolioAggregate {
+    @Id
+    private Long portfolioId;
+
+    @Column(precision = 38, scale = 2)
+    private BigDecimal totalValue = BigDecimal.ZERO;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "portfolio_aggregate_sector", joinColumns = @JoinColumn(name = "portfolio_id"))
+    @MapKeyColumn(name = "sector")
+    @AttributeOverride(name = "value.value", column = @Column(name = "sector_value", precision = 38, scale = 2))
+    private Map<String, Group> sectors = new HashMap<>();
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "portfolio_aggregate_asset_type", joinColumns = @JoinColumn(name = "portfolio_id"))
+    @MapKeyColumn(name = "asset_type")
+    @AttributeOverride(name = "value.value", column = @Column(name = "asset_type_value", precision = 38, scale = 2))
+    private Map<String, Group> assetTypes = new HashMap<>();
+
+    private BigDecimal betaWeightedValue = BigDecimal.ZERO; // Sum of value x beta
+
+    @Column(precision = 38, scale = 2)
+    private BigDecimal betaWeight = BigDecimal.ZERO; // Sum of value over holdings that have a beta
+
+    private BigDecimal annualDividendIncome = BigDecimal.ZERO;
+
+    private int etfCount;
+    private int holdingCount;
+    private int tickerRiskAdjustment; // Sum of the scoring engine's per-ticker adjustments
+    private int internationalSectorCount;
+    private int internationalTickerCount;
+    private LocalDateTime updatedAt;
+    private LocalDateTime holdingsChangedAt; // Null until a holding is written after the aggregate exists
+
+    /**
+     * Value and holding counts of one sector or asset type
+     */
+    @Embeddable
+    public static class Group {
+        private BigDecimal value = BigDecimal.ZERO;
+        private int holdingCount;
+        private int etfCount;
+
+        public BigDecimal getValue() { return value; }
+        public int getHoldingCount() { return holdingCount; }
+        public int getEtfCount() { return etfCount; }
+    }
+
+    public PortfolioAggregate() {}
+
+    public PortfolioAggregate(Long portfolioId) {
+        this.portfolioId = portfolioId;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void addHolding(Holding holding) {
+        apply(holding, 1);
+    }
+
+    public void removeHolding(Holding holding) {
+        apply(holding, -1);
+    }
+
+    public void clear() {
+        totalValue = BigDecimal.ZERO;
+        sectors.clear();
+        assetTypes.clear();
+        betaWeightedValue = BigDecimal.ZERO;
+        betaWeight = BigDecimal.ZERO;
+        annualDividendIncome = BigDecimal.ZERO;
+        etfCount = 0;
+        holdingCount = 0;
+        tickerRiskAdjustment = 0;
+        internationalSectorCount = 0;
+        internationalTickerCount = 0;
+        updatedAt = LocalDateTime.now();
+    }
+
+    private void apply(Holding holding, int sign) {
+        // Rounded like the price_per_share column, so the totals match the stored holdings
+        BigDecimal value = holding.getPricePerShare() != null
+                ? holding.getPricePerShare().setScale(2, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(holding.getShares()))
+                : BigDecimal.ZERO;
+        BigDecimal signedValue = sign > 0 ? value : value.negate();
+        String assetType = holding.getAssetType() != null ? holding.getAssetType().toLowerCase() : "";
+        boolean isEtf = assetType.contains("etf") || assetType.contains("fund");
+
+        totalValue = totalValue.add(signedValue);
+        holdingCount += sign;
+        if (isEtf) {
+            etfCount += sign;
+        }
+        if (holding.getSector() != null && !holding.getSector().isEmpty()) {
+            adjust(sectors, holding.getSector(), signedValue, sign, isEtf);
+        }
+        if (holding.getAssetType() != null && !holding.getAssetType().isEmpty()) {
+            adjust(assetTypes, holding.getAssetType(), signedValue, sign, isEtf);
+        }
+        if (holding.getSector() != null) {
+            String sector = holding.getSector().toLowerCase();
+            if (sector.contains("international") || sector.contains("global")) {
+                internationalSectorCount += sign;
+            }
+        }
+        if (holding.getTicker() != null) {
+            String ticker = holding.getTicker().toUpperCase();
+            tickerRiskAdjustment += sign * ScoringEngine.PortfolioVector.tickerRiskAdjustment(ticker);
+            if (ticker.contains("VXUS") || ticker.contains("EFA") || ticker.contains("EEM")) {
+                internationalTickerCount += sign;
+            }
+        }
+        if (holding.getBeta() != null) {
+            betaWeightedValue = betaWeightedValue.add(signedValue.multiply(BigDecimal.valueOf(holding.getBeta())));
+            betaWeight = betaWeight.add(signedValue);
+        }
+        if (holding.getDividendYield() != null) {
+            annualDividendIncome = annualDividendIncome.add(signedValue.multiply(BigDecimal.valueOf(holding.getDividendYield() / 100)));
+        }
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Drops a group once its last holding is removed
+    private static void adjust(Map<String, Group> groups, String key, BigDecimal signedValue, int sign, boolean isEtf) {
+        Group group = groups.computeIfAbsent(key, k -> new Group());
+        group.value = group.value.add(signedValue);
+        group.holdingCount += sign;
+        if (isEtf) {
+            group.etfCount += sign;
+        }
+        if (group.holdingCount <= 0) {
+            groups.remove(key);
+        }
+    }
+
+    // Value-weighted beta rounded like the scorers; null when no holding has a beta
+    public BigDecimal getPortfolioBeta() {
+        return betaWeight.signum() > 0 ? betaWeightedValue.divide(betaWeight, 2, RoundingMode.HALF_UP) : null;
+    }
+
+    // Annual dividend income as a percentage of invested value
+    public BigDecimal getDividendYield() {
+        return totalValue.signum() > 0
+                ? annualDividendIncome.divide(totalValue, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100))
+                : null;
+    }
+
+    public Map<String, BigDecimal> getSectorValues() { return valuesOf(sectors); }
+    public Map<String, BigDecimal> getAssetTypeValues() { return valuesOf(assetTypes); }
+
+    private static Map<String, BigDecimal> valuesOf(Map<String, Group> groups) {
+        return groups.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().value));
+    }
+
+    public Long getPortfolioId() { return portfolioId; }
+    public BigDecimal getTotalValue() { return totalValue; }
+    @JsonIgnore
+    public Map<String, Group> getSectors() { return sectors; }
+    @JsonIgnore
+    public Map<String, Group> getAssetTypes() { return assetTypes; }
+    public BigDecimal getBetaWeightedValue() { return betaWeightedValue; }
+    public BigDecimal getBetaWeight() { return betaWeight; }
+    public BigDecimal getAnnualDividendIncome() { return annualDividendIncome; }
+    public int getEtfCount() { return etfCount; }
+    public int getHoldingCount() { return holdingCount; }
+    public int getTickerRiskAdjustment() { return tickerRiskAdjustment; }
+    public int getInternationalSectorCount() { return internationalSectorCount; }
+    public int getInternationalTickerCount() { return internationalTickerCount; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public LocalDateTime getHoldingsChangedAt() { return holdingsChangedAt; }
+    public void setHoldingsChangedAt(LocalDateTime holdingsChangedAt) { this.holdingsChangedAt = holdingsChangedAt; }
+}
@@ -0,0 +1,54 @@
+package com.ii.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Qualitative part of an AI response (sections, score adjustments, asset recommendations).
+ * Persisted as JSONB in investment_insight.structured_data.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class StructuredInsight {
+    @JsonProperty("mainRecommendations")
+    public List<String> mainRecommendations;
+
+    @JsonProperty("sections")
+    public Map<String, Object> sections;
+
+    @JsonProperty("rawResponse")
+    public String rawResponse;
+
+    @JsonProperty("qualitativeInsights")
+    public Map<String, String> qualitativeInsights;
+
+    @JsonProperty("scoreAdjustments")
+    public Map<String, Map<String, String>> scoreAdjustments;
+
+    @JsonProperty("assetRecommendations")
+    public List<AssetRecommendation> assetRecommendations;
+
+    /**
+     * Copy whose asset recommendations can be re-prioritised without touching this instance,
+     * which may be shared through the AI response cache. The other fields are never mutated
+     * and are shared.
+     */
+    public StructuredInsight copyForInsight() {
+        StructuredInsight copy = new StructuredInsight();
+        copy.mainRecommendations = mainRecommendations;
+        copy.sections = sections;
+        copy.rawResponse = rawResponse;
+        copy.qualitativeInsights = qualitativeInsights;
+        copy.scoreAdjustments = scoreAdjustments;
+        if (assetRecommendations != null) {
+            copy.assetRecommendations = new ArrayList<>(assetRecommendations.size());
+            for (AssetRecommendation recommendation : assetRecommendations) {
+                copy.assetRecommendations.add(recommendation != null ? new AssetRecommendation(recommendation) : null);
+            }
+        }
+        return copy;
+    }
+}
@@ -1,10 +1,20 @@
 package com.ii.backend.repository;
 
 import com.ii.backend.model.Advisor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.util.Optional;
 
-public interface AdvisorRepository extends JpaRepository<Advisor, Long> {
+public interface AdvisorRepository extends JpaRepository<Advisor, Long>, JpaSpecificationExecutor<Advisor> {
     Optional<Advisor> findByEmail(String email);
+
+    // Login lookup
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ClientRepository.REFERENCE_QUERY_REGION)
+    })
     Optional<Advisor> findByUsername(String username);
 }
@@ -0,0 +1,10 @@
+package com.ii.backend.repository;
+
+import com.ii.backend.model.ClientDashboardSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ClientDashboardSummaryRepository extends JpaRepository<ClientDashboardSummary, Long> {
+    List<ClientDashboardSummary> findByAdvisorIdOrderByClientNameAsc(Long advisorId);
+}
@@ -1,9 +1,50 @@
 package com.ii.backend.repository;
 
 import com.ii.backend.model.Client;
+import jakarta.persistence.QueryHint;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+
+public interface ClientRepository extends JpaRepository<Client, Long>, JpaSpecificationExecutor<Client> {
+    // Query cache region for the advisor-scoped reference lookups; invalidated by writes to their tables
+    String REFERENCE_QUERY_REGION = "reference-queries";
 
-public interface ClientRepository extends JpaRepository<Client, Long> {
+    @EntityGraph(attributePaths = "advisor")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ClientRepository.REFERENCE_QUERY_REGION)
+    })
     List<Client> findByAdvisorId(Long advisorId);
+
+    @EntityGraph(attributePaths = "advisor")
+    Optional<Client> findWithAdvisorById(Long id);
+
+    // Listing filters; null arguments are ignored, name matches case-insensitively anywhere
+    static Specification<Client> matching(Long advisorId, String riskTolerance, String name) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (advisorId != null) predicates.add(cb.equal(root.get("advisor").get("id"), advisorId));
+            if (riskTolerance != null) predicates.add(cb.equal(cb.lower(root.get("riskTolerance")), riskTolerance.toLowerCase()));
+            if (name != null) predicates.add(cb.like(cb.lower(root.get("name")), "%" + name.toLowerCase() + "%"));
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Loads each client's advisor in the listing query; keyset scrolling ignores project() paths
+    static Specification<Client> fetchingAdvisor() {
+        return (root, query, cb) -> {
+            root.fetch("advisor", JoinType.LEFT);
+            return null;
+        };
+    }
 }
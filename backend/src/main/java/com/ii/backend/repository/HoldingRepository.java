@@ -1,9 +1,37 @@
 package com.ii.backend.repository;
 
 import com.ii.backend.model.Holding;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.ArrayList;
 import java.util.List;
 
-public interface HoldingRepository extends JpaRepository<Holding, Long> {
+public interface HoldingRepository extends JpaRepository<Holding, Long>, JpaSpecificationExecutor<Holding> {
     List<Holding> findByPortfolioId(Long portfolioId);
+
+    // Same rows with the portfolio -> client -> advisor chain the API serializes, in one select
+    @EntityGraph(attributePaths = "portfolio.client.advisor")
+    List<Holding> findWithPortfolioByPortfolioId(Long portfolioId);
+
+    // One DELETE statement; holdings already loaded in the persistence context are not updated
+    @Modifying
+    @Query("DELETE FROM Holding h WHERE h.portfolio.id = :portfolioId")
+    int deleteInBulkByPortfolioId(@Param("portfolioId") Long portfolioId);
+
+    // Listing filters; null arguments are ignored
+    static Specification<Holding> matching(Long portfolioId, String ticker) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (portfolioId != null) predicates.add(cb.equal(root.get("portfolio").get("id"), portfolioId));
+            if (ticker != null) predicates.add(cb.equal(cb.upper(root.get("ticker")), ticker.toUpperCase()));
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
 }
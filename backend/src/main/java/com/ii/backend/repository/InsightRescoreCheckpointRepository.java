@@ -0,0 +1,10 @@
+package com.ii.backend.repository;
+
+import com.ii.backend.model.InsightRescoreCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface InsightRescoreCheckpointRepository extends JpaRepository<InsightRescoreCheckpoint, String> {
+    List<InsightRescoreCheckpoint> findAllByOrderByStartedAtDesc();
+}
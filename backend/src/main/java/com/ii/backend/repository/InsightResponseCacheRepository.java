@@ -0,0 +1,7 @@
+package com.ii.backend.repository;
+
+import com.ii.backend.model.InsightResponseCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface InsightResponseCacheRepository extends JpaRepository<InsightResponseCacheEntry, String> {
+}
@@ -0,0 +1,14 @@
+package com.ii.backend.repository;
+
+import com.ii.backend.model.InsightSummary;
+import com.ii.backend.model.InvestmentInsight;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Summary projections for filtered insight listings (implemented in InsightSummaryQueriesImpl)
+ */
+public interface InsightSummaryQueries {
+
+    // Newest first by id, starting after the cursor; a null cursor starts at the newest insight
+    KeysetPage<InsightSummary> findSummaries(Specification<InvestmentInsight> filter, Long cursor, int limit, boolean includeTotal);
+}
@@ -0,0 +1,70 @@
+package com.ii.backend.repository;
+
+import com.ii.backend.model.InsightSummary;
+import com.ii.backend.model.InvestmentInsight;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class InsightSummaryQueriesImpl implements InsightSummaryQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public KeysetPage<InsightSummary> findSummaries(Specification<InvestmentInsight> filter, Long cursor, int limit, boolean includeTotal) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<InsightSummary> query = cb.createQuery(InsightSummary.class);
+        Root<InvestmentInsight> root = query.from(InvestmentInsight.class);
+        query.select(cb.construct(InsightSummary.class,
+                root.get("id"),
+                root.get("summary"),
+                root.get("createdAt"),
+                root.get("portfolio").get("id"),
+                root.get("portfolioName"),
+                root.get("riskScore"),
+                root.get("diversificationScore"),
+                root.get("goalAlignment"),
+                root.get("aiPending"),
+                cb.substring(root.get("aiGeneratedText"), 1, InsightSummary.PREVIEW_LENGTH)));
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate filterPredicate = filter.toPredicate(root, query, cb);
+        if (filterPredicate != null) {
+            predicates.add(filterPredicate);
+        }
+        if (cursor != null) {
+            predicates.add(cb.lessThan(root.get("id"), cursor));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(cb.desc(root.get("id")));
+
+        // One extra row tells whether another page follows
+        List<InsightSummary> rows = entityManager.createQuery(query)
+                .setMaxResults(limit + 1)
+                .getResultList();
+        boolean hasMore = rows.size() > limit;
+        List<InsightSummary> items = hasMore ? new ArrayList<>(rows.subList(0, limit)) : rows;
+        Long nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+
+        Long total = null;
+        if (includeTotal) {
+            CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+            Root<InvestmentInsight> countRoot = countQuery.from(InvestmentInsight.class);
+            countQuery.select(cb.count(countRoot));
+            Predicate countPredicate = filter.toPredicate(countRoot, countQuery, cb);
+            if (countPredicate != null) {
+                countQuery.where(countPredicate);
+            }
+            total = entityManager.createQuery(countQuery).getSingleResult();
+        }
+        return new KeysetPage<>(items, nextCursor, hasMore, total);
+    }
+}
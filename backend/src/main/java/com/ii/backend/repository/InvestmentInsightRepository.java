@@ -1,10 +1,79 @@
 package com.ii.backend.repository;
 
 import com.ii.backend.model.InvestmentInsight;
-import com.ii.backend.model.Client;
+import com.ii.backend.model.InsightSummary;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+
+public interface InvestmentInsightRepository extends JpaRepository<InvestmentInsight, Long>, JpaSpecificationExecutor<InvestmentInsight>, InsightSummaryQueries {
+
+    // List-view columns only; the AI text is cut to a preview in SQL
+    String SELECT_SUMMARY = "SELECT new com.ii.backend.model.InsightSummary(i.id, i.summary, i.createdAt, i.portfolio.id, i.portfolioName, " +
+           "i.riskScore, i.diversificationScore, i.goalAlignment, i.aiPending, SUBSTRING(i.aiGeneratedText, 1, " + InsightSummary.PREVIEW_LENGTH + ")) " +
+           "FROM InvestmentInsight i ";
+
+    // Range scan on idx_insight_client_created
+    @Query(SELECT_SUMMARY + "WHERE i.client.id = :clientId ORDER BY i.createdAt DESC")
+    List<InsightSummary> findSummariesByClientId(@Param("clientId") Long clientId);
+
+    // Range scan on idx_insight_portfolio_created
+    @Query(SELECT_SUMMARY + "WHERE i.portfolio.id = :portfolioId ORDER BY i.createdAt DESC")
+    List<InsightSummary> findSummariesByPortfolioId(@Param("portfolioId") Long portfolioId);
+
+    // Newest insight of each of the client's portfolios, ties on createdAt going to the higher id so
+    // each portfolio yields one row; each NOT EXISTS is one probe of idx_insight_portfolio_created
+    @Query(SELECT_SUMMARY + "WHERE i.client.id = :clientId AND i.portfolio.id IS NOT NULL AND i.createdAt IS NOT NULL " +
+           "AND NOT EXISTS (SELECT 1 FROM InvestmentInsight l WHERE l.portfolio.id = i.portfolio.id " +
+           "AND (l.createdAt > i.createdAt OR (l.createdAt = i.createdAt AND l.id > i.id))) " +
+           "ORDER BY i.portfolioName, i.portfolio.id")
+    List<InsightSummary> findLatestSummariesPerPortfolioByClientId(@Param("clientId") Long clientId);
+
+    @EntityGraph(attributePaths = "client.advisor")
+    Optional<InvestmentInsight> findWithClientById(Long id);
+
+    @EntityGraph(attributePaths = "client.advisor")
+    List<InvestmentInsight> findByIdInOrderByCreatedAtDesc(Collection<Long> ids);
+
+    // JSONB containment on structured_data (GIN index); a null ticker or priority matches any value.
+    // Native queries can't take an entity graph, so this returns ids for findByIdInOrderByCreatedAtDesc
+    @Query(value = "SELECT id FROM investment_insight WHERE structured_data @> jsonb_build_object('assetRecommendations', " +
+            "jsonb_build_array(jsonb_strip_nulls(jsonb_build_object('ticker', CAST(:ticker AS text), 'priority', CAST(:priority AS text)))))",
+            nativeQuery = true)
+    List<Long> findIdsByRecommendation(@Param("ticker") String ticker, @Param("priority") String priority);
 
-public interface InvestmentInsightRepository extends JpaRepository<InvestmentInsight, Long> {
-    List<InvestmentInsight> findByClientOrderByCreatedAtDesc(Client client);
+    /**
+     * Listing filters; null arguments are ignored. Score bounds are inclusive.
+     */
+    static Specification<InvestmentInsight> matching(Long advisorId, Long clientId, String portfolioName,
+                                                     LocalDateTime from, LocalDateTime to,
+                                                     Integer minRiskScore, Integer maxRiskScore,
+                                                     Integer minDiversificationScore, Integer maxDiversificationScore,
+                                                     Integer minGoalAlignment, Integer maxGoalAlignment) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (advisorId != null) predicates.add(cb.equal(root.get("client").get("advisor").get("id"), advisorId));
+            if (clientId != null) predicates.add(cb.equal(root.get("client").get("id"), clientId));
+            if (portfolioName != null) predicates.add(cb.equal(root.get("portfolioName"), portfolioName));
+            if (from != null) predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), from));
+            if (to != null) predicates.add(cb.lessThan(root.get("createdAt"), to));
+            if (minRiskScore != null) predicates.add(cb.greaterThanOrEqualTo(root.get("riskScore"), minRiskScore));
+            if (maxRiskScore != null) predicates.add(cb.lessThanOrEqualTo(root.get("riskScore"), maxRiskScore));
+            if (minDiversificationScore != null) predicates.add(cb.greaterThanOrEqualTo(root.get("diversificationScore"), minDiversificationScore));
+            if (maxDiversificationScore != null) predicates.add(cb.lessThanOrEqualTo(root.get("diversificationScore"), maxDiversificationScore));
+            if (minGoalAlignment != null) predicates.add(cb.greaterThanOrEqualTo(root.get("goalAlignment"), minGoalAlignment));
+            if (maxGoalAlignment != null) predicates.add(cb.lessThanOrEqualTo(root.get("goalAlignment"), maxGoalAlignment));
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
 }
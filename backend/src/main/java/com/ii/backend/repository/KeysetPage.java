@@ -0,0 +1,54 @@
+package com.ii.backend.repository;
+
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset (seek) paginated listing. Pages are ordered by id and nextCursor is the
+ * id of the last item, so fetching the next page is an index range scan whatever the table
+ * size. total is only filled in when the caller asks for it, since counting is a full scan.
+ */
+public class KeysetPage<T> {
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private final List<T> items;
+    private final Long nextCursor;
+    private final boolean hasMore;
+    private final Long total;
+
+    public KeysetPage(List<T> items, Long nextCursor, boolean hasMore, Long total) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+        this.total = total;
+    }
+
+    public static <T> KeysetPage<T> of(Window<T> window, Function<T, Long> idOf, Long total) {
+        List<T> items = window.getContent();
+        boolean hasMore = window.hasNext();
+        Long nextCursor = hasMore && !items.isEmpty() ? idOf.apply(items.get(items.size() - 1)) : null;
+        return new KeysetPage<>(items, nextCursor, hasMore, total);
+    }
+
+    // Position just past the given id in the page's sort order; null starts from the beginning
+    public static ScrollPosition after(Long cursor) {
+        return cursor == null ? ScrollPosition.keyset() : ScrollPosition.forward(Map.of("id", cursor));
+    }
+
+    public static int limit(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(requested, MAX_LIMIT);
+    }
+
+    public List<T> getItems() { return items; }
+    public Long getNextCursor() { return nextCursor; }
+    public boolean isHasMore() { return hasMore; }
+    public Long getTotal() { return total; }
+}
@@ -0,0 +1,7 @@
+package com.ii.backend.repository;
+
+import com.ii.backend.model.PortfolioAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PortfolioAggregateRepository extends JpaRepository<PortfolioAggregate, Long> {
+}
@@ -1,16 +1,65 @@
 package com.ii.backend.repository;
 
 import com.ii.backend.model.Portfolio;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
-public interface PortfolioRepository extends JpaRepository<Portfolio, Long> {
+public interface PortfolioRepository extends JpaRepository<Portfolio, Long>, JpaSpecificationExecutor<Portfolio> {
     
+    @EntityGraph(attributePaths = "client.advisor")
     List<Portfolio> findByClientId(Long clientId);
     
+    @EntityGraph(attributePaths = "client.advisor")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ClientRepository.REFERENCE_QUERY_REGION)
+    })
     @Query("SELECT p FROM Portfolio p WHERE p.client.advisor.id = :advisorId")
     List<Portfolio> findByClientAdvisorId(@Param("advisorId") Long advisorId);
+
+    @EntityGraph(attributePaths = "client.advisor")
+    Optional<Portfolio> findWithClientById(Long id);
+
+    // Everything insight generation reads (holdings, client profile) in one select
+    @EntityGraph(attributePaths = {"holdings", "client.advisor"})
+    Optional<Portfolio> findWithHoldingsById(Long id);
+
+    // Row lock that serializes holding writes and aggregate updates for one portfolio
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Portfolio p WHERE p.id = :id")
+    Optional<Portfolio> findByIdForUpdate(@Param("id") Long id);
+
+    // Listing filters; null arguments are ignored
+    static Specification<Portfolio> matching(Long clientId, Long advisorId, String accountType) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (clientId != null) predicates.add(cb.equal(root.get("client").get("id"), clientId));
+            if (advisorId != null) predicates.add(cb.equal(root.get("client").get("advisor").get("id"), advisorId));
+            if (accountType != null) predicates.add(cb.equal(root.get("accountType"), accountType));
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Loads each portfolio's client and advisor in the listing query; keyset scrolling ignores project() paths
+    static Specification<Portfolio> fetchingClientAndAdvisor() {
+        return (root, query, cb) -> {
+            root.fetch("client", JoinType.LEFT).fetch("advisor", JoinType.LEFT);
+            return null;
+        };
+    }
 }
@@ -0,0 +1,173 @@
+package com.ii.backend.service;
+
+import com.ii.backend.model.ClientDashboardSummary;
+import com.ii.backend.repository.ClientDashboardSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Advisor dashboard served from client_dashboard_summary, one row per client. Postgres can only
+ * refresh a materialized view as a whole, so the summary is a table instead: each write reruns
+ * one upsert for just the clients it touched, and the dashboard read is a single indexed select.
+ * Holding writes run inside the caller's transaction, so callers flush pending JPA changes first.
+ */
+@Service
+public class AdvisorDashboardService {
+
+    // Insight createdAt values are New York local time (see InvestmentInsightService)
+    private static final ZoneId INSIGHT_ZONE = ZoneId.of("America/New_York");
+
+    private static final String UPSERT_SUMMARY =
+            "INSERT INTO client_dashboard_summary (client_id, advisor_id, client_name, risk_tolerance, portfolio_count, " +
+            "total_market_value, holdings_changed_at, latest_insight_id, latest_risk_score, latest_diversification_score, " +
+            "latest_goal_alignment, latest_insight_at, refreshed_at) " +
+            "SELECT c.id, c.advisor_id, c.name, c.risk_tolerance, " +
+            "(SELECT count(*) FROM portfolio p WHERE p.client_id = c.id), " +
+            "(SELECT coalesce(sum(h.shares * h.price_per_share), 0) FROM holding h JOIN portfolio p ON p.id = h.portfolio_id WHERE p.client_id = c.id), " +
+            "CAST(:holdingsChangedAt AS timestamp), i.id, i.risk_score, i.diversification_score, i.goal_alignment, i.created_at, now() " +
+            "FROM client c " +
+            "LEFT JOIN LATERAL (SELECT id, risk_score, diversification_score, goal_alignment, created_at FROM investment_insight " +
+            "WHERE client_id = c.id ORDER BY created_at DESC NULLS LAST, id DESC LIMIT 1) i ON true " +
+            "WHERE %s " +
+            "ON CONFLICT (client_id) DO UPDATE SET advisor_id = EXCLUDED.advisor_id, client_name = EXCLUDED.client_name, " +
+            "risk_tolerance = EXCLUDED.risk_tolerance, portfolio_count = EXCLUDED.portfolio_count, " +
+            "total_market_value = EXCLUDED.total_market_value, " +
+            "holdings_changed_at = coalesce(EXCLUDED.holdings_changed_at, client_dashboard_summary.holdings_changed_at), " +
+            "latest_insight_id = EXCLUDED.latest_insight_id, latest_risk_score = EXCLUDED.latest_risk_score, " +
+            "latest_diversification_score = EXCLUDED.latest_diversification_score, " +
+            "latest_goal_alignment = EXCLUDED.latest_goal_alignment, latest_insight_at = EXCLUDED.latest_insight_at, " +
+            "refreshed_at = EXCLUDED.refreshed_at";
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ClientDashboardSummaryRepository summaryRepository;
+    private final int staleInsightDays;
+
+    @Autowired
+    public AdvisorDashboardService(NamedParameterJdbcTemplate namedJdbcTemplate,
+                                   ClientDashboardSummaryRepository summaryRepository,
+                                   @Value("${dashboard.stale-insight-days:30}") int staleInsightDays) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.summaryRepository = summaryRepository;
+        this.staleInsightDays = staleInsightDays;
+    }
+
+    public List<ClientDashboard> getDashboard(Long advisorId) {
+        LocalDateTime staleBefore = LocalDateTime.now(INSIGHT_ZONE).minusDays(staleInsightDays);
+        return summaryRepository.findByAdvisorIdOrderByClientNameAsc(advisorId).stream()
+                .map(summary -> new ClientDashboard(summary, staleBefore))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Clients created outside the API (e.g. SQL seed data loaded before the backend starts) get
+     * their row once at startup, so the dashboard read stays a plain select
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissingRows() {
+        upsert("NOT EXISTS (SELECT 1 FROM client_dashboard_summary s WHERE s.client_id = c.id)", new MapSqlParameterSource());
+    }
+
+    // After client, portfolio or insight writes
+    public void refreshClient(Long clientId) {
+        if (clientId != null) {
+            upsert("c.id = :clientId", new MapSqlParameterSource("clientId", clientId));
+        }
+    }
+
+    public void refreshClients(Collection<Long> clientIds) {
+        if (!clientIds.isEmpty()) {
+            upsert("c.id IN (:clientIds)", new MapSqlParameterSource("clientIds", clientIds));
+        }
+    }
+
+    // After holding writes; also marks the client's latest insight as predating its holdings
+    public void refreshAfterHoldingChange(Long portfolioId) {
+        upsert("c.id IN (SELECT client_id FROM portfolio WHERE id = :portfolioId)",
+                new MapSqlParameterSource("portfolioId", portfolioId)
+                        .addValue("holdingsChangedAt", LocalDateTime.now(INSIGHT_ZONE)));
+    }
+
+    // Set-based rebuild after bulk purges; rows of deleted clients are dropped
+    public void refreshAll() {
+        namedJdbcTemplate.update("DELETE FROM client_dashboard_summary s WHERE NOT EXISTS (SELECT 1 FROM client c WHERE c.id = s.client_id)",
+                new MapSqlParameterSource());
+        upsert("true", new MapSqlParameterSource());
+    }
+
+    private void upsert(String clientFilter, MapSqlParameterSource params) {
+        if (!params.hasValue("holdingsChangedAt")) {
+            params.addValue("holdingsChangedAt", null);
+        }
+        namedJdbcTemplate.update(String.format(UPSERT_SUMMARY, clientFilter), params);
+    }
+
+    public enum StaleReason { NO_INSIGHT, HOLDINGS_CHANGED, OUTDATED }
+
+    // Dashboard entry for one client, with why its latest insight needs regenerating (if it does)
+    public static class ClientDashboard {
+        private final Long clientId;
+        private final String clientName;
+        private final String riskTolerance;
+        private final int portfolioCount;
+        private final BigDecimal totalMarketValue;
+        private final Long latestInsightId;
+        private final Integer riskScore;
+        private final Integer diversificationScore;
+        private final Integer goalAlignment;
+        private final LocalDateTime latestInsightAt;
+        private final StaleReason staleReason;
+
+        ClientDashboard(ClientDashboardSummary summary, LocalDateTime staleBefore) {
+            this.clientId = summary.getClientId();
+            this.clientName = summary.getClientName();
+            this.riskTolerance = summary.getRiskTolerance();
+            this.portfolioCount = summary.getPortfolioCount();
+            this.totalMarketValue = summary.getTotalMarketValue();
+            this.latestInsightId = summary.getLatestInsightId();
+            this.riskScore = summary.getLatestRiskScore();
+            this.diversificationScore = summary.getLatestDiversificationScore();
+            this.goalAlignment = summary.getLatestGoalAlignment();
+            this.latestInsightAt = summary.getLatestInsightAt();
+            this.staleReason = staleReason(summary, staleBefore);
+        }
+
+        private static StaleReason staleReason(ClientDashboardSummary summary, LocalDateTime staleBefore) {
+            if (summary.getLatestInsightId() == null) {
+                return summary.getPortfolioCount() > 0 ? StaleReason.NO_INSIGHT : null;
+            }
+            LocalDateTime insightAt = summary.getLatestInsightAt();
+            if (insightAt != null && summary.getHoldingsChangedAt() != null && summary.getHoldingsChangedAt().isAfter(insightAt)) {
+                return StaleReason.HOLDINGS_CHANGED;
+            }
+            if (insightAt == null || insightAt.isBefore(staleBefore)) {
+                return StaleReason.OUTDATED;
+            }
+            return null;
+        }
+
+        public Long getClientId() { return clientId; }
+        public String getClientName() { return clientName; }
+        public String getRiskTolerance() { return riskTolerance; }
+        public int getPortfolioCount() { return portfolioCount; }
+        public BigDecimal getTotalMarketValue() { return totalMarketValue; }
+        public Long getLatestInsightId() { return latestInsightId; }
+        public Integer getRiskScore() { return riskScore; }
+        public Integer getDiversificationScore() { return diversificationScore; }
+        public Integer getGoalAlignment() { return goalAlignment; }
+        public LocalDateTime getLatestInsightAt() { return latestInsightAt; }
+        public boolean isInsightStale() { return staleReason != null; }
+        public StaleReason getStaleReason() { return staleReason; }
+    }
+}
@@ -0,0 +1,296 @@
+package com.ii.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.util.retry.Retry;
+import reactor.util.retry.RetryBackoffSpec;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Client for the FastAPI insight service with connect/read/overall deadlines, a bulkhead
+ * capping concurrent calls, jittered retries and a circuit breaker. A full bulkhead means the
+ * service is busy, not unhealthy: callers wait briefly for a slot and are then told to retry,
+ * while an open breaker fails fast so they can degrade.
+ */
+@Component
+public class AiInsightClient {
+
+    private static final Duration BULKHEAD_POLL = Duration.ofMillis(50);
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final Duration readTimeout;
+    private final Duration overallTimeout;
+    private final int maxConcurrentCalls;
+    private final Semaphore bulkhead;
+    private final RetryBackoffSpec retrySpec;
+    private final Retry bulkheadWait;
+    private final CircuitBreaker circuitBreaker;
+    private final InsightMetrics metrics;
+
+    public AiInsightClient(ObjectMapper objectMapper,
+                           InsightMetrics metrics,
+                           @Value("${insights.ai.base-url:http://localhost:8000}") String baseUrl,
+                           @Value("${insights.ai.connect-timeout-ms:2000}") int connectTimeoutMs,
+                           @Value("${insights.ai.read-timeout-seconds:60}") long readTimeoutSeconds,
+                           @Value("${insights.ai.overall-timeout-seconds:90}") long overallTimeoutSeconds,
+                           @Value("${insights.ai.max-concurrent-calls:8}") int maxConcurrentCalls,
+                           @Value("${insights.ai.bulkhead-wait-ms:1000}") long bulkheadWaitMs,
+                           @Value("${insights.ai.max-retries:2}") int maxRetries,
+                           @Value("${insights.ai.retry-backoff-ms:500}") long retryBackoffMs,
+                           @Value("${insights.ai.circuit.failure-threshold:5}") int failureThreshold,
+                           @Value("${insights.ai.circuit.open-seconds:30}") long openSeconds) {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofSeconds(readTimeoutSeconds));
+        this.webClient = WebClient.builder()
+                .baseUrl(baseUrl) // FastAPI address
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.readTimeout = Duration.ofSeconds(readTimeoutSeconds);
+        this.overallTimeout = Duration.ofSeconds(overallTimeoutSeconds);
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.retrySpec = Retry.backoff(maxRetries, Duration.ofMillis(retryBackoffMs))
+                .jitter(0.5)
+                .filter(AiInsightClient::isTransient)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+        // Polls for a free slot without holding a thread while waiting
+        this.bulkheadWait = Retry.fixedDelay(bulkheadWaitMs / BULKHEAD_POLL.toMillis(), BULKHEAD_POLL)
+                .filter(error -> error instanceof AiServiceBusyException)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, Duration.ofSeconds(openSeconds));
+    }
+
+    /**
+     * POSTs to /generate-insight. Fails fast with {@link AiServiceUnavailableException} when the
+     * breaker is open, so callers can degrade instead of queueing, and with
+     * {@link AiServiceBusyException} when no bulkhead slot frees up within the wait.
+     */
+    Mono<InvestmentInsightService.AIResponse> generateInsight(List<String> holdings, String preferences) {
+        return metrics.timeAiCall("generate-insight", guarded(() -> webClient.post()
+                .uri("/generate-insight")
+                .bodyValue(new InvestmentInsightService.InsightRequest(holdings, preferences))
+                .retrieve()
+                .bodyToMono(InvestmentInsightService.AIResponse.class)
+                .retryWhen(retrySpec)
+                .timeout(overallTimeout)));
+    }
+
+    /**
+     * POSTs to /generate-insight/stream and relays its server-sent events: one chunk per text
+     * token, then a final chunk carrying the parsed AIResponse. Streams are not retried because
+     * tokens already relayed to the caller cannot be replayed.
+     */
+    Flux<StreamChunk> streamInsight(List<String> holdings, String preferences) {
+        return metrics.timeAiStream("generate-insight-stream", guardedFlux(() -> webClient.post()
+                .uri("/generate-insight/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(new InvestmentInsightService.InsightRequest(holdings, preferences))
+                .retrieve()
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {})
+                .timeout(readTimeout) // Maximum silence between events
+                .<StreamChunk>handle((event, sink) -> {
+                    try {
+                        if ("complete".equals(event.event())) {
+                            sink.next(StreamChunk.complete(objectMapper.readValue(event.data(), InvestmentInsightService.AIResponse.class)));
+                        } else if (event.data() != null) {
+                            sink.next(StreamChunk.token(objectMapper.readTree(event.data()).path("text").asText()));
+                        }
+                    } catch (Exception e) {
+                        sink.error(e);
+                    }
+                })));
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("circuitState", circuitBreaker.getState().name());
+        status.put("consecutiveFailures", circuitBreaker.getConsecutiveFailures());
+        status.put("maxConcurrentCalls", maxConcurrentCalls);
+        status.put("availablePermits", bulkhead.availablePermits());
+        return status;
+    }
+
+    private <T> Mono<T> guarded(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            if (!bulkhead.tryAcquire()) {
+                return Mono.error(new AiServiceBusyException());
+            }
+            if (!circuitBreaker.tryAcquirePermission()) {
+                bulkhead.release();
+                return Mono.error(new AiServiceUnavailableException("AI service circuit breaker is open"));
+            }
+            return call.get()
+                    .doOnSuccess(result -> circuitBreaker.recordSuccess())
+                    .doOnError(error -> {
+                        if (isTransient(error)) {
+                            circuitBreaker.recordFailure();
+                        } else {
+                            circuitBreaker.recordSuccess(); // The service answered; the request itself was bad
+                        }
+                    })
+                    .doOnCancel(circuitBreaker::releasePermission)
+                    .doFinally(signal -> bulkhead.release());
+        }).retryWhen(bulkheadWait);
+    }
+
+    private <T> Flux<T> guardedFlux(Supplier<Flux<T>> call) {
+        return Flux.defer(() -> {
+            if (!bulkhead.tryAcquire()) {
+                return Flux.error(new AiServiceBusyException());
+            }
+            if (!circuitBreaker.tryAcquirePermission()) {
+                bulkhead.release();
+                return Flux.error(new AiServiceUnavailableException("AI service circuit breaker is open"));
+            }
+            return call.get()
+                    .doOnComplete(circuitBreaker::recordSuccess)
+                    .doOnError(error -> {
+                        if (isTransient(error)) {
+                            circuitBreaker.recordFailure();
+                        } else {
+                            circuitBreaker.recordSuccess();
+                        }
+                    })
+                    .doOnCancel(circuitBreaker::releasePermission)
+                    .doFinally(signal -> bulkhead.release());
+        }).retryWhen(bulkheadWait);
+    }
+
+    private static boolean isTransient(Throwable error) {
+        if (error instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is5xxServerError();
+        }
+        return error instanceof WebClientRequestException || error instanceof TimeoutException;
+    }
+
+    // One relayed piece of a streamed generation: either a text token or the final response
+    static class StreamChunk {
+        final String text;
+        final InvestmentInsightService.AIResponse response;
+
+        private StreamChunk(String text, InvestmentInsightService.AIResponse response) {
+            this.text = text;
+            this.response = response;
+        }
+
+        static StreamChunk token(String text) {
+            return new StreamChunk(text, null);
+        }
+
+        static StreamChunk complete(InvestmentInsightService.AIResponse response) {
+            return new StreamChunk(null, response);
+        }
+
+        boolean isComplete() {
+            return response != null;
+        }
+    }
+
+    // Raised instead of calling the AI service while its circuit breaker is open
+    public static class AiServiceUnavailableException extends RuntimeException {
+        public AiServiceUnavailableException(String message) {
+            super(message);
+        }
+    }
+
+    // Every bulkhead slot stayed taken for the whole wait; the caller should retry shortly
+    public static class AiServiceBusyException extends RuntimeException {
+        public AiServiceBusyException() {
+            super("AI service is at its concurrent call limit, please retry");
+        }
+    }
+
+    /**
+     * Consecutive-failure circuit breaker. After the open period a single trial call is let
+     * through; its outcome closes the breaker again or re-opens it.
+     */
+    static class CircuitBreaker {
+        enum State { CLOSED, OPEN, HALF_OPEN }
+
+        private final int failureThreshold;
+        private final long openNanos;
+        private final LongSupplier nanoClock;
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private boolean trialInFlight;
+
+        CircuitBreaker(int failureThreshold, Duration openDuration) {
+            this(failureThreshold, openDuration, System::nanoTime);
+        }
+
+        CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+            this.failureThreshold = failureThreshold;
+            this.openNanos = openDuration.toNanos();
+            this.nanoClock = nanoClock;
+        }
+
+        synchronized boolean tryAcquirePermission() {
+            if (state == State.OPEN) {
+                if (nanoClock.getAsLong() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = false;
+            }
+            if (state == State.HALF_OPEN) {
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+            }
+            return true;
+        }
+
+        synchronized void releasePermission() {
+            trialInFlight = false;
+        }
+
+        synchronized void recordSuccess() {
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            trialInFlight = false;
+        }
+
+        synchronized void recordFailure() {
+            trialInFlight = false;
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                state = State.OPEN;
+                openedAt = nanoClock.getAsLong();
+            }
+        }
+
+        synchronized State getState() {
+            return state;
+        }
+
+        synchronized int getConsecutiveFailures() {
+            return consecutiveFailures;
+        }
+    }
+}
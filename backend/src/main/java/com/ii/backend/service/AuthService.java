@@ -5,11 +5,15 @@ import com.ii.backend.model.Client;
 import com.ii.backend.repository.AdvisorRepository;
 import com.ii.backend.repository.ClientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.List;
-import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 public class AuthService {
@@ -20,18 +24,36 @@ public class AuthService {
     @Autowired
     private ClientRepository clientRepository;
 
+    @Autowired
+    private SessionTokenService tokenService;
+
+    @Autowired
+    @Qualifier("passwordHashScheduler")
+    private Scheduler passwordHashScheduler;
+
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
-    public LoginResponse authenticateAdvisor(String username, String password) throws Exception {
+    /**
+     * BCrypt check on its own small pool, so logins cannot starve the rest of the API; the
+     * request thread is released while it runs. Fails with LoginThrottledException when the
+     * pool's queue is full.
+     */
+    public Mono<LoginResponse> authenticateAdvisor(String username, String password) {
         // Find advisor by username
-        Advisor advisor = advisorRepository.findByUsername(username)
-                .orElseThrow(() -> new Exception("Invalid username or password"));
-
-        // BCrypt password check
-        if (!passwordEncoder.matches(password, advisor.getPasswordHash())) {
-            throw new Exception("Invalid username or password");
+        Advisor advisor = advisorRepository.findByUsername(username).orElse(null);
+        if (advisor == null) {
+            return Mono.error(new Exception("Invalid username or password"));
         }
 
+        return Mono.fromCallable(() -> passwordEncoder.matches(password, advisor.getPasswordHash()))
+                .subscribeOn(passwordHashScheduler)
+                .onErrorMap(RejectedExecutionException.class, e -> new LoginThrottledException())
+                .flatMap(matches -> matches
+                        ? Mono.fromCallable(() -> loginResponse(advisor)).subscribeOn(Schedulers.boundedElastic())
+                        : Mono.error(new Exception("Invalid username or password")));
+    }
+
+    private LoginResponse loginResponse(Advisor advisor) {
         // Get advisor's clients
         List<Client> clients = clientRepository.findByAdvisorId(advisor.getId());
 
@@ -40,24 +62,30 @@ public class AuthService {
         response.setAdvisorId(advisor.getId());
         response.setAdvisorName(advisor.getName());
         response.setEmail(advisor.getEmail());
-        response.setToken(generateToken());
+        response.setToken(tokenService.issue(advisor.getId()));
         response.setClients(clients);
 
         return response;
     }
 
     public List<Client> getAdvisorClients(Long advisorId) throws Exception {
-        // Verify advisor exists
-        if (!advisorRepository.existsById(advisorId)) {
+        // Verify advisor exists (findById is served from the second-level cache, existsById always queries)
+        if (advisorRepository.findById(advisorId).isEmpty()) {
             throw new Exception("Advisor not found");
         }
 
         return clientRepository.findByAdvisorId(advisorId);
     }
 
-    private String generateToken() {
-        // Simple token generation (in production, use JWT)
-        return UUID.randomUUID().toString();
+    public void logout(String token) {
+        tokenService.revoke(token);
+    }
+
+    // Every password-check slot is taken; the caller should retry shortly
+    public static class LoginThrottledException extends RuntimeException {
+        public LoginThrottledException() {
+            super("Too many login attempts in progress, please retry");
+        }
     }
 
     // Login Response class
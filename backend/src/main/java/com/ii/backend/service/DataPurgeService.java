@@ -0,0 +1,292 @@
+package com.ii.backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Set-based purges for the cleanup API. Whole tables go with one TRUNCATE (or one DELETE where
+ * other tables still reference them) instead of loading and deleting entities one by one.
+ * Purge jobs drain the same tables in fixed-size DELETE chunks on a background thread, one
+ * short transaction per chunk, and report progress while they run.
+ */
+@Service
+public class DataPurgeService {
+
+    private static final String COUNT_ROWS =
+            "SELECT (SELECT count(*) FROM holding) AS holdings, " +
+            "(SELECT count(*) FROM portfolio) AS portfolios, " +
+            "(SELECT count(*) FROM client) AS clients, " +
+            "(SELECT count(*) FROM advisor) AS advisors, " +
+            "(SELECT count(*) FROM investment_insight) AS insights";
+
+    // Holding aggregates are rebuilt from the holdings on first read, so they are dropped with them
+    private static final List<String> HOLDING_TABLES =
+            List.of("holding", "portfolio_aggregate_sector", "portfolio_aggregate_asset_type", "portfolio_aggregate");
+
+    // Score history has no foreign keys, so it is cleared with the insights rather than by cascade
+    private static final List<String> INSIGHT_TABLES =
+            List.of("investment_insight", "insight_score_history", "insight_score_rollup");
+
+    // Tables each purge empties, referencing tables first so chunked deletes satisfy the foreign keys
+    public enum Target {
+        HOLDINGS(HOLDING_TABLES),
+        PORTFOLIOS(concat(HOLDING_TABLES, "portfolio")),
+        INSIGHTS(INSIGHT_TABLES),
+        EVERYTHING(concat(concat(HOLDING_TABLES, INSIGHT_TABLES), "portfolio", "client_dashboard_summary", "client", "advisor"));
+
+        private final List<String> tables;
+
+        Target(List<String> tables) {
+            this.tables = tables;
+        }
+
+        boolean touchesReferenceData() {
+            return tables.contains("client") || tables.contains("advisor");
+        }
+
+        private static List<String> concat(List<String> first, String... rest) {
+            return concat(first, List.of(rest));
+        }
+
+        private static List<String> concat(List<String> first, List<String> rest) {
+            List<String> tables = new ArrayList<>(first);
+            tables.addAll(rest);
+            return List.copyOf(tables);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReferenceDataCache referenceDataCache;
+    private final AdvisorDashboardService dashboardService;
+    private final int defaultChunkSize;
+    private final int maxChunkSize;
+    private final Duration retention;
+    private final Map<String, PurgeJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DataPurgeService(JdbcTemplate jdbcTemplate,
+                            ReferenceDataCache referenceDataCache,
+                            AdvisorDashboardService dashboardService,
+                            @Value("${cleanup.purge.chunk-size:10000}") int defaultChunkSize,
+                            @Value("${cleanup.purge.max-chunk-size:100000}") int maxChunkSize,
+                            @Value("${cleanup.purge.retention-minutes:60}") long retentionMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.referenceDataCache = referenceDataCache;
+        this.dashboardService = dashboardService;
+        this.defaultChunkSize = defaultChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    // Row counts for the main tables in one round trip
+    public Map<String, Long> countRows() {
+        return jdbcTemplate.queryForObject(COUNT_ROWS, (rs, rowNum) -> {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            counts.put("holdings", rs.getLong("holdings"));
+            counts.put("portfolios", rs.getLong("portfolios"));
+            counts.put("clients", rs.getLong("clients"));
+            counts.put("advisors", rs.getLong("advisors"));
+            counts.put("insights", rs.getLong("insights"));
+            return counts;
+        });
+    }
+
+    /**
+     * Empties every table of the target with a single TRUNCATE and returns the row counts
+     * from just before it. PostgreSQL refuses to TRUNCATE a table another table references,
+     * even when every reference is NULL, so portfolios kept by their insights go with a DELETE.
+     */
+    @Transactional
+    public Map<String, Long> truncate(Target target) {
+        Map<String, Long> counts = countRows();
+        List<String> tables = new ArrayList<>(target.tables);
+        boolean insightsKept = detachInsights(target);
+        if (insightsKept) {
+            tables.remove("portfolio");
+        }
+        jdbcTemplate.execute("TRUNCATE TABLE " + String.join(", ", tables));
+        if (insightsKept) {
+            jdbcTemplate.update("DELETE FROM portfolio");
+        }
+        purged(target);
+        return counts;
+    }
+
+    // Clients are still referenced by portfolios and insights, so they go with a single DELETE
+    @Transactional
+    public int deleteAllClients() {
+        int deleted = jdbcTemplate.update("DELETE FROM client");
+        referenceDataCache.evictAll();
+        dashboardService.refreshAll();
+        return deleted;
+    }
+
+    @Transactional
+    public int deleteAllAdvisors() {
+        int deleted = jdbcTemplate.update("DELETE FROM advisor");
+        referenceDataCache.evictAll();
+        return deleted;
+    }
+
+    /**
+     * Starts a background purge of the target and returns immediately with the job handle
+     */
+    public PurgeJob startJob(Target target, Integer chunkSize) {
+        evictExpiredJobs();
+
+        int size = chunkSize != null && chunkSize > 0 ? Math.min(chunkSize, maxChunkSize) : defaultChunkSize;
+        PurgeJob job = new PurgeJob(UUID.randomUUID().toString(), target, size);
+        jobs.put(job.getId(), job);
+
+        Mono.fromRunnable(() -> run(job))
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe();
+        return job;
+    }
+
+    public PurgeJob getJob(String jobId) {
+        PurgeJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Purge job not found with id: " + jobId);
+        }
+        return job;
+    }
+
+    private void run(PurgeJob job) {
+        try {
+            job.markRunning(countTables(job.target.tables));
+            detachInsights(job.target);
+            for (String table : job.target.tables) {
+                job.currentTable = table;
+                // ctid lookups avoid needing a key column, so aggregate tables drain the same way
+                String deleteChunk = "DELETE FROM " + table + " WHERE ctid = ANY(ARRAY(SELECT ctid FROM " + table + " LIMIT ?))";
+                int deleted;
+                do {
+                    deleted = jdbcTemplate.update(deleteChunk, job.chunkSize);
+                    job.addDeleted(deleted);
+                } while (deleted > 0);
+            }
+            purged(job.target);
+            job.markCompleted();
+        } catch (Exception e) {
+            System.err.println("Purge job " + job.getId() + " failed on table " + job.currentTable + ": " + e.getMessage());
+            job.markFailed(e);
+        }
+    }
+
+    /**
+     * Insights outlive their portfolios (portfolioName still labels them), so their foreign key
+     * is cleared before portfolios are deleted. Returns whether the target keeps the insights.
+     */
+    private boolean detachInsights(Target target) {
+        if (target.tables.contains("portfolio") && !target.tables.contains("investment_insight")) {
+            jdbcTemplate.update("UPDATE investment_insight SET portfolio_id = NULL WHERE portfolio_id IS NOT NULL");
+            return true;
+        }
+        return false;
+    }
+
+    // Caches and summaries derived from the purged tables
+    private void purged(Target target) {
+        if (target.touchesReferenceData()) {
+            referenceDataCache.evictAll();
+        }
+        if (target != Target.EVERYTHING) {
+            dashboardService.refreshAll();
+        }
+    }
+
+    private long countTables(List<String> tables) {
+        long total = 0;
+        for (String table : tables) {
+            Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class);
+            total += count != null ? count : 0;
+        }
+        return total;
+    }
+
+    private void evictExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> job.getCompletedAt() != null && job.getCompletedAt().isBefore(cutoff));
+    }
+
+    public enum JobStatus { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    // Job handle and progress, polled through GET /api/cleanup/jobs/{jobId}
+    public static class PurgeJob {
+        private final String id;
+        private final Target target;
+        private final int chunkSize;
+        private final LocalDateTime submittedAt;
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile String currentTable;
+        private volatile long totalRows;
+        private volatile long deletedRows;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime completedAt;
+        private volatile String error;
+
+        PurgeJob(String id, Target target, int chunkSize) {
+            this.id = id;
+            this.target = target;
+            this.chunkSize = chunkSize;
+            this.submittedAt = LocalDateTime.now();
+        }
+
+        void markRunning(long totalRows) {
+            this.totalRows = totalRows;
+            startedAt = LocalDateTime.now();
+            status = JobStatus.RUNNING;
+        }
+
+        // Only the job's own thread writes the count
+        void addDeleted(int rows) {
+            deletedRows = deletedRows + rows;
+        }
+
+        void markCompleted() {
+            currentTable = null;
+            completedAt = LocalDateTime.now();
+            status = JobStatus.COMPLETED;
+        }
+
+        void markFailed(Throwable throwable) {
+            error = throwable.getMessage();
+            completedAt = LocalDateTime.now();
+            status = JobStatus.FAILED;
+        }
+
+        // Rows inserted while the job runs are purged too, so the estimate is capped below 100 until it completes
+        public double getPercentComplete() {
+            if (status == JobStatus.COMPLETED) return 100.0;
+            return totalRows > 0 ? Math.min(99.9, Math.round(deletedRows * 1000.0 / totalRows) / 10.0) : 0.0;
+        }
+
+        // Getters
+        public String getId() { return id; }
+        public Target getTarget() { return target; }
+        public int getChunkSize() { return chunkSize; }
+        public LocalDateTime getSubmittedAt() { return submittedAt; }
+        public JobStatus getStatus() { return status; }
+        public String getCurrentTable() { return currentTable; }
+        public long getTotalRows() { return totalRows; }
+        public long getDeletedRows() { return deletedRows; }
+        public LocalDateTime getStartedAt() { return startedAt; }
+        public LocalDateTime getCompletedAt() { return completedAt; }
+        public String getError() { return error; }
+    }
+}
@@ -0,0 +1,395 @@
+package com.ii.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ii.backend.model.Holding;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Bulk holdings import for custodian files. The body is read line by line and valid rows are
+ * written in fixed-size JDBC batches (one transaction per batch), so memory stays flat no
+ * matter how large the file is. Portfolios are resolved with one query per batch and each
+ * batch updates the portfolio aggregates and dashboard rows of the portfolios it touched.
+ */
+@Service
+public class HoldingImportService {
+
+    public enum Format { CSV, JSON_LINES }
+
+    // ids come from the holding id sequence (column default), so no per-row round trip
+    private static final String INSERT_HOLDING =
+            "INSERT INTO holding (ticker, shares, price_per_share, sector, asset_type, beta, dividend_yield, portfolio_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int MAX_TICKER_LENGTH = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PortfolioAggregateService portfolioAggregateService;
+    private final AdvisorDashboardService dashboardService;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    @Autowired
+    public HoldingImportService(JdbcTemplate jdbcTemplate,
+                                NamedParameterJdbcTemplate namedJdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                PortfolioAggregateService portfolioAggregateService,
+                                AdvisorDashboardService dashboardService,
+                                ObjectMapper objectMapper,
+                                @Value("${holdings.import.batch-size:1000}") int batchSize,
+                                @Value("${holdings.import.max-errors:1000}") int maxReportedErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.portfolioAggregateService = portfolioAggregateService;
+        this.dashboardService = dashboardService;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Picks the format from an explicit name (csv, jsonl, ndjson) or else the content type
+     */
+    public static Format resolveFormat(String format, String contentType) {
+        String value = format != null && !format.isBlank() ? format : contentType;
+        if (value != null) {
+            value = value.toLowerCase(Locale.ROOT);
+            if (value.contains("csv")) {
+                return Format.CSV;
+            }
+            if (value.contains("ndjson") || value.contains("jsonl") || value.contains("json-lines") || value.contains("json")) {
+                return Format.JSON_LINES;
+            }
+        }
+        throw new RuntimeException("Unsupported import format; send text/csv or application/x-ndjson");
+    }
+
+    /**
+     * Imports every valid row and reports the rest. Rows without a portfolioId go to
+     * {@code defaultPortfolioId} when one is given.
+     */
+    public ImportResult importHoldings(InputStream body, Format format, Long defaultPortfolioId) {
+        long start = System.currentTimeMillis();
+        ImportResult result = new ImportResult();
+        Set<Long> knownPortfolios = new HashSet<>();
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String[] header = null;
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && header == null) {
+                    header = parseCsvLine(stripBom(line));
+                    for (int i = 0; i < header.length; i++) {
+                        header[i] = header[i].trim().toLowerCase(Locale.ROOT);
+                    }
+                    continue;
+                }
+
+                result.totalRows++;
+                try {
+                    Map<String, String> fields = format == Format.CSV ? csvFields(header, line) : jsonFields(stripBom(line));
+                    batch.add(toRow(lineNumber, fields, defaultPortfolioId));
+                } catch (RuntimeException e) {
+                    result.reject(lineNumber, e.getMessage(), maxReportedErrors);
+                }
+
+                if (batch.size() >= batchSize) {
+                    flush(batch, knownPortfolios, result);
+                }
+            }
+            flush(batch, knownPortfolios, result);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read import body: " + e.getMessage(), e);
+        }
+
+        result.durationMs = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    private void flush(List<ImportRow> batch, Set<Long> knownPortfolios, ImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // One lookup for the portfolio ids this batch introduces
+        Set<Long> unresolved = new HashSet<>();
+        for (ImportRow row : batch) {
+            if (!knownPortfolios.contains(row.portfolioId)) {
+                unresolved.add(row.portfolioId);
+            }
+        }
+        if (!unresolved.isEmpty()) {
+            knownPortfolios.addAll(namedJdbcTemplate.queryForList(
+                    "SELECT id FROM portfolio WHERE id IN (:ids)", Map.of("ids", unresolved), Long.class));
+        }
+
+        List<Object[]> inserts = new ArrayList<>(batch.size());
+        // Sorted so concurrent imports lock portfolios in the same order
+        Map<Long, List<Holding>> byPortfolio = new TreeMap<>();
+        for (ImportRow row : batch) {
+            if (!knownPortfolios.contains(row.portfolioId)) {
+                result.reject(row.lineNumber, "Portfolio not found: " + row.portfolioId, maxReportedErrors);
+                continue;
+            }
+            Holding holding = row.holding;
+            inserts.add(new Object[] {
+                    holding.getTicker(),
+                    holding.getShares(),
+                    holding.getPricePerShare(),
+                    holding.getSector(),
+                    holding.getAssetType(),
+                    holding.getBeta(),
+                    holding.getDividendYield(),
+                    row.portfolioId});
+            byPortfolio.computeIfAbsent(row.portfolioId, id -> new ArrayList<>()).add(holding);
+        }
+
+        if (!inserts.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    byPortfolio.forEach(portfolioAggregateService::addImportedHoldings);
+                    jdbcTemplate.batchUpdate(INSERT_HOLDING, inserts);
+                    // The dashboard upsert sums holdings, so it runs once the batch is in
+                    byPortfolio.keySet().forEach(dashboardService::refreshAfterHoldingChange);
+                });
+                result.imported += inserts.size();
+            } catch (RuntimeException e) {
+                // The whole batch rolled back; report its rows rather than failing the import
+                System.err.println("Holdings import batch failed: " + e.getMessage());
+                for (ImportRow row : batch) {
+                    if (knownPortfolios.contains(row.portfolioId)) {
+                        result.reject(row.lineNumber, "Batch insert failed: " + e.getMessage(), maxReportedErrors);
+                    }
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    private static ImportRow toRow(int lineNumber, Map<String, String> fields, Long defaultPortfolioId) {
+        String ticker = text(fields, "ticker");
+        if (ticker == null) {
+            throw new RuntimeException("ticker is required");
+        }
+        if (ticker.length() > MAX_TICKER_LENGTH) {
+            throw new RuntimeException("ticker is longer than " + MAX_TICKER_LENGTH + " characters");
+        }
+
+        String sharesText = text(fields, "shares");
+        if (sharesText == null) {
+            throw new RuntimeException("shares is required");
+        }
+        int shares;
+        try {
+            shares = new BigDecimal(sharesText).intValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new RuntimeException("shares must be a whole number: " + sharesText);
+        }
+        if (shares <= 0) {
+            throw new RuntimeException("shares must be positive");
+        }
+
+        BigDecimal pricePerShare = decimal(fields, "pricepershare");
+        if (pricePerShare == null) {
+            throw new RuntimeException("pricePerShare is required");
+        }
+        if (pricePerShare.signum() <= 0) {
+            throw new RuntimeException("pricePerShare must be positive");
+        }
+
+        BigDecimal beta = decimal(fields, "beta");
+        BigDecimal dividendYield = decimal(fields, "dividendyield");
+        if (dividendYield != null && dividendYield.signum() < 0) {
+            throw new RuntimeException("dividendYield cannot be negative");
+        }
+
+        Long portfolioId = defaultPortfolioId;
+        String portfolioText = text(fields, "portfolioid");
+        if (portfolioText != null) {
+            try {
+                portfolioId = Long.valueOf(portfolioText);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("portfolioId must be a number: " + portfolioText);
+            }
+        }
+        if (portfolioId == null) {
+            throw new RuntimeException("portfolioId is required");
+        }
+
+        Holding holding = new Holding(ticker.toUpperCase(Locale.ROOT), shares, pricePerShare,
+                text(fields, "sector"), text(fields, "assettype"),
+                beta != null ? beta.doubleValue() : null,
+                dividendYield != null ? dividendYield.doubleValue() : null,
+                null);
+        return new ImportRow(lineNumber, portfolioId, holding);
+    }
+
+    private static String text(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static BigDecimal decimal(Map<String, String> fields, String name) {
+        String value = text(fields, name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException(name + " is not a number: " + value);
+        }
+    }
+
+    private static Map<String, String> csvFields(String[] header, String line) {
+        String[] values = parseCsvLine(line);
+        if (values.length > header.length) {
+            throw new RuntimeException("Expected at most " + header.length + " columns but found " + values.length);
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            fields.put(header[i], values[i]);
+        }
+        return fields;
+    }
+
+    // Flat JSON object per line; "portfolio": {"id": ...} is accepted like the single-holding endpoint
+    private Map<String, String> jsonFields(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid JSON: " + e.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            throw new RuntimeException("Expected a JSON object");
+        }
+        Map<String, String> fields = new HashMap<>();
+        node.fields().forEachRemaining(entry -> {
+            JsonNode value = entry.getValue();
+            if (!value.isNull() && value.isValueNode()) {
+                fields.put(entry.getKey().toLowerCase(Locale.ROOT), value.asText());
+            }
+        });
+        JsonNode portfolio = node.get("portfolio");
+        if (portfolio != null && portfolio.hasNonNull("id") && !fields.containsKey("portfolioid")) {
+            fields.put("portfolioid", portfolio.get("id").asText());
+        }
+        return fields;
+    }
+
+    // RFC 4180 style: commas inside double quotes, "" for a literal quote
+    static String[] parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new RuntimeException("Unterminated quoted field");
+        }
+        values.add(current.toString());
+        return values.toArray(new String[0]);
+    }
+
+    private static String stripBom(String line) {
+        return line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+
+    // Validated row waiting for its batch
+    private static class ImportRow {
+        final int lineNumber;
+        final Long portfolioId;
+        final Holding holding;
+
+        ImportRow(int lineNumber, Long portfolioId, Holding holding) {
+            this.lineNumber = lineNumber;
+            this.portfolioId = portfolioId;
+            this.holding = holding;
+        }
+    }
+
+    // Inner class for the import summary; only the first errors are listed to keep the response bounded
+    public static class ImportResult {
+        public long totalRows;
+        public long imported;
+        public long failed;
+        public boolean errorsTruncated;
+        public long durationMs;
+        public List<RowError> errors = new ArrayList<>();
+
+        void reject(int lineNumber, String message, int maxReportedErrors) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RowError(lineNumber, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+
+    public static class RowError {
+        public int line;
+        public String message;
+
+        public RowError(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.ii.backend.service;
+
+import com.ii.backend.model.InvestmentInsight;
+import com.ii.backend.model.Portfolio;
+import com.ii.backend.repository.PortfolioRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class InsightBatchService {
+
+    private final PortfolioRepository portfolioRepository;
+    private final InvestmentInsightService insightService;
+    private final int defaultParallelism;
+    private final int maxParallelism;
+    private final Duration retention;
+    private final Retry busyRetry;
+    private final Map<String, InsightBatch> batches = new ConcurrentHashMap<>();
+
+    @Autowired
+    public InsightBatchService(PortfolioRepository portfolioRepository,
+                               InvestmentInsightService insightService,
+                               @Value("${insights.batch.parallelism:4}") int defaultParallelism,
+                               @Value("${insights.batch.max-parallelism:8}") int maxParallelism,
+                               @Value("${insights.ai.max-concurrent-calls:8}") int maxConcurrentAiCalls,
+                               @Value("${insights.batch.retention-minutes:60}") long retentionMinutes,
+                               @Value("${insights.batch.busy-retries:10}") int busyRetries,
+                               @Value("${insights.batch.busy-backoff-ms:1000}") long busyBackoffMs) {
+        this.portfolioRepository = portfolioRepository;
+        this.insightService = insightService;
+        // More calls than the AI client's bulkhead admits would only wait for a slot
+        this.maxParallelism = Math.max(1, Math.min(maxParallelism, maxConcurrentAiCalls));
+        this.defaultParallelism = Math.max(1, Math.min(defaultParallelism, this.maxParallelism));
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        // A full bulkhead means other callers hold the slots, so the portfolio waits its turn
+        this.busyRetry = Retry.backoff(busyRetries, Duration.ofMillis(busyBackoffMs))
+                .maxBackoff(Duration.ofMillis(busyBackoffMs).multipliedBy(8))
+                .jitter(0.5)
+                .filter(error -> error instanceof AiInsightClient.AiServiceBusyException)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    /**
+     * Regenerates insights for every portfolio the advisor owns, keeping at most
+     * {@code parallelism} AI calls in flight (capped at the AI client's concurrent call limit).
+     * A portfolio rejected by a busy AI service is retried with backoff; any other failure is
+     * recorded and skipped.
+     */
+    public InsightBatch submitAdvisorBatch(Long advisorId, String preferences, Integer parallelism) {
+        evictExpiredBatches();
+
+        List<Portfolio> portfolios = portfolioRepository.findByClientAdvisorId(advisorId);
+        int concurrency = parallelism != null && parallelism > 0 ? Math.min(parallelism, maxParallelism) : defaultParallelism;
+
+        InsightBatch batch = new InsightBatch(UUID.randomUUID().toString(), advisorId, portfolios.size(), concurrency);
+        batches.put(batch.getId(), batch);
+
+        Flux.fromIterable(portfolios)
+                .flatMap(portfolio -> generateIsolated(portfolio, preferences, batch), concurrency)
+                .doOnSubscribe(subscription -> batch.markRunning())
+                .doFinally(signal -> batch.markFinished())
+                .subscribe();
+
+        return batch;
+    }
+
+    public InsightBatch getBatch(String batchId) {
+        InsightBatch batch = batches.get(batchId);
+        if (batch == null) {
+            throw new RuntimeException("Insight batch not found with id: " + batchId);
+        }
+        return batch;
+    }
+
+    private void evictExpiredBatches() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        batches.values().removeIf(batch -> batch.getCompletedAt() != null && batch.getCompletedAt().isBefore(cutoff));
+    }
+
+    private Mono<InvestmentInsight> generateIsolated(Portfolio portfolio, String preferences, InsightBatch batch) {
+        if (portfolio.getClient() == null) {
+            batch.recordFailure(portfolio, new RuntimeException("Portfolio has no client"));
+            return Mono.empty();
+        }
+        return insightService.generateInsightForPortfolioAsync(portfolio.getId(), preferences, portfolio.getClient().getId())
+                .retryWhen(busyRetry)
+                .doOnNext(insight -> batch.recordSuccess(portfolio, insight))
+                .onErrorResume(error -> {
+                    batch.recordFailure(portfolio, error);
+                    return Mono.empty();
+                });
+    }
+
+    public enum BatchStatus { QUEUED, RUNNING, COMPLETED }
+
+    // Outcome of a single portfolio within a batch
+    public static class BatchItem {
+        private final Long portfolioId;
+        private final String portfolioName;
+        private final boolean success;
+        private final Long insightId;
+        private final String error;
+
+        BatchItem(Long portfolioId, String portfolioName, boolean success, Long insightId, String error) {
+            this.portfolioId = portfolioId;
+            this.portfolioName = portfolioName;
+            this.success = success;
+            this.insightId = insightId;
+            this.error = error;
+        }
+
+        public Long getPortfolioId() { return portfolioId; }
+        public String getPortfolioName() { return portfolioName; }
+        public boolean isSuccess() { return success; }
+        public Long getInsightId() { return insightId; }
+        public String getError() { return error; }
+    }
+
+    // Aggregate progress report for an advisor-wide batch
+    public static class InsightBatch {
+        private final String id;
+        private final Long advisorId;
+        private final int total;
+        private final int parallelism;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final ConcurrentLinkedQueue<BatchItem> items = new ConcurrentLinkedQueue<>();
+        private volatile BatchStatus status = BatchStatus.QUEUED;
+        private volatile LocalDateTime completedAt;
+
+        InsightBatch(String id, Long advisorId, int total, int parallelism) {
+            this.id = id;
+            this.advisorId = advisorId;
+            this.total = total;
+            this.parallelism = parallelism;
+        }
+
+        void markRunning() {
+            status = BatchStatus.RUNNING;
+        }
+
+        void markFinished() {
+            completedAt = LocalDateTime.now();
+            status = BatchStatus.COMPLETED;
+        }
+
+        void recordSuccess(Portfolio portfolio, InvestmentInsight insight) {
+            items.add(new BatchItem(portfolio.getId(), portfolio.getName(), true, insight.getId(), null));
+            succeeded.incrementAndGet();
+        }
+
+        void recordFailure(Portfolio portfolio, Throwable error) {
+            items.add(new BatchItem(portfolio.getId(), portfolio.getName(), false, null, error.getMessage()));
+            failed.incrementAndGet();
+        }
+
+        // Getters
+        public String getId() { return id; }
+        public Long getAdvisorId() { return advisorId; }
+        public int getTotal() { return total; }
+        public int getParallelism() { return parallelism; }
+        public LocalDateTime getSubmittedAt() { return submittedAt; }
+        public LocalDateTime getCompletedAt() { return completedAt; }
+        public BatchStatus getStatus() { return status; }
+        public int getSucceeded() { return succeeded.get(); }
+        public int getFailed() { return failed.get(); }
+        public int getPending() { return total - succeeded.get() - failed.get(); }
+        public double getPercentComplete() {
+            return total == 0 ? 100.0 : (succeeded.get() + failed.get()) * 100.0 / total;
+        }
+        public List<BatchItem> getItems() { return new ArrayList<>(items); }
+    }
+}
@@ -0,0 +1,259 @@
+package com.ii.backend.service;
+
+import com.ii.backend.model.InvestmentInsight;
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Service
+public class InsightJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InsightJobService.class);
+
+    private final InvestmentInsightService insightService;
+    private final WebClient callbackClient;
+    private final Duration callbackTimeout;
+    private final Set<String> callbackAllowedHosts;
+    private final Duration retention;
+    private final Map<String, InsightJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public InsightJobService(InvestmentInsightService insightService,
+                             @Value("${insights.jobs.retention-minutes:60}") long retentionMinutes,
+                             @Value("${insights.jobs.callback-timeout-seconds:10}") long callbackTimeoutSeconds,
+                             @Value("${insights.jobs.callback-allowed-hosts:}") String callbackAllowedHosts) {
+        this.insightService = insightService;
+        this.callbackTimeout = Duration.ofSeconds(callbackTimeoutSeconds);
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) callbackTimeout.toMillis())
+                .responseTimeout(callbackTimeout);
+        this.callbackClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        this.callbackAllowedHosts = Arrays.stream(callbackAllowedHosts.split(","))
+                .map(host -> host.trim().toLowerCase(Locale.ROOT))
+                .filter(host -> !host.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    /**
+     * Queues insight generation for a portfolio and returns immediately with the job handle.
+     * A malformed or disallowed callback URL is rejected before anything is queued; the DNS
+     * check of its host runs on the job's own thread, and a host that resolves internally
+     * fails the job before the AI is called. The job is RUNNING once its AI request is issued.
+     */
+    public InsightJob submitPortfolioJob(Long portfolioId, String preferences, Long clientId, String callbackUrl) {
+        boolean hasCallback = callbackUrl != null && !callbackUrl.isBlank();
+        if (hasCallback) {
+            parseCallbackUrl(callbackUrl);
+        }
+        evictExpiredJobs();
+
+        InsightJob job = new InsightJob(UUID.randomUUID().toString(), portfolioId, clientId, callbackUrl);
+        jobs.put(job.getId(), job);
+
+        Mono<URI> callbackCheck = hasCallback
+                ? Mono.fromCallable(() -> checkCallbackUrl(callbackUrl)).subscribeOn(Schedulers.boundedElastic())
+                : Mono.empty();
+        callbackCheck
+                .then(insightService.generateInsightForPortfolioAsync(portfolioId, preferences, clientId, job::markRunning))
+                .subscribe(
+                        insight -> {
+                            job.markCompleted(insight);
+                            notifyCallback(job);
+                        },
+                        error -> {
+                            job.markFailed(error);
+                            notifyCallback(job);
+                        });
+
+        return job;
+    }
+
+    public InsightJob getJob(String jobId) {
+        InsightJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Insight job not found with id: " + jobId);
+        }
+        return job;
+    }
+
+    public InvestmentInsight getJobResult(InsightJob job) {
+        return insightService.getInsightById(job.getInsightId());
+    }
+
+    // The host is checked again before posting, in case its DNS now points somewhere internal
+    private void notifyCallback(InsightJob job) {
+        if (job.getCallbackUrl() == null || job.getCallbackUrl().isBlank()) {
+            return;
+        }
+        Mono.fromCallable(() -> checkCallbackUrl(job.getCallbackUrl()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(uri -> callbackClient.post()
+                        .uri(uri)
+                        .bodyValue(job)
+                        .retrieve()
+                        .toBodilessEntity())
+                .timeout(callbackTimeout)
+                .subscribe(
+                        response -> { },
+                        error -> logger.warn("Insight job callback failed for {}: {}", job.getId(), error.getMessage()));
+    }
+
+    /**
+     * Callback URLs must be http(s). With insights.jobs.callback-allowed-hosts set, only those
+     * hosts are accepted; otherwise the host must resolve to public addresses only, so a job
+     * cannot make the backend post to loopback, private networks or cloud metadata endpoints.
+     * Resolving the host blocks, so this runs off request threads.
+     */
+    URI checkCallbackUrl(String callbackUrl) {
+        URI uri = parseCallbackUrl(callbackUrl);
+        if (!callbackAllowedHosts.isEmpty()) {
+            return uri;
+        }
+        String host = uri.getHost().toLowerCase(Locale.ROOT);
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(host);
+        } catch (UnknownHostException e) {
+            throw new RuntimeException("callbackUrl host cannot be resolved: " + host);
+        }
+        for (InetAddress address : addresses) {
+            if (!isPublicAddress(address)) {
+                throw new RuntimeException("callbackUrl must not point at a loopback, private or link-local address");
+            }
+        }
+        return uri;
+    }
+
+    // Scheme, host and allowlist checks; never touches DNS
+    URI parseCallbackUrl(String callbackUrl) {
+        URI uri;
+        try {
+            uri = new URI(callbackUrl.trim());
+        } catch (URISyntaxException e) {
+            throw new RuntimeException("Invalid callbackUrl: " + e.getMessage());
+        }
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "";
+        if (!scheme.equals("http") && !scheme.equals("https")) {
+            throw new RuntimeException("callbackUrl must be an http or https URL");
+        }
+        if (uri.getHost() == null || uri.getUserInfo() != null) {
+            throw new RuntimeException("callbackUrl must name a host and no credentials");
+        }
+
+        String host = uri.getHost().toLowerCase(Locale.ROOT);
+        if (!callbackAllowedHosts.isEmpty() && !callbackAllowedHosts.contains(host)) {
+            throw new RuntimeException("callbackUrl host is not allowed: " + host);
+        }
+        return uri;
+    }
+
+    private static boolean isPublicAddress(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        if (bytes.length == 4) {
+            // 0.0.0.0/8 and carrier-grade NAT 100.64.0.0/10
+            return bytes[0] != 0 && !((bytes[0] & 0xff) == 100 && (bytes[1] & 0xc0) == 64);
+        }
+        // IPv6 unique local fc00::/7
+        if ((bytes[0] & 0xfe) == 0xfc) {
+            return false;
+        }
+        // IPv4-compatible ::a.b.c.d is judged by its IPv4 address (IPv4-mapped ones already are)
+        for (int i = 0; i < 12; i++) {
+            if (bytes[i] != 0) {
+                return true;
+            }
+        }
+        try {
+            return isPublicAddress(InetAddress.getByAddress(Arrays.copyOfRange(bytes, 12, 16)));
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    private void evictExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> job.getCompletedAt() != null && job.getCompletedAt().isBefore(cutoff));
+    }
+
+    public enum JobStatus { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    // Job handle returned to clients and posted to the completion callback
+    public static class InsightJob {
+        private final String id;
+        private final Long portfolioId;
+        private final Long clientId;
+        private final String callbackUrl;
+        private final LocalDateTime submittedAt;
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime completedAt;
+        private volatile Long insightId;
+        private volatile String error;
+
+        InsightJob(String id, Long portfolioId, Long clientId, String callbackUrl) {
+            this.id = id;
+            this.portfolioId = portfolioId;
+            this.clientId = clientId;
+            this.callbackUrl = callbackUrl;
+            this.submittedAt = LocalDateTime.now();
+        }
+
+        void markRunning() {
+            startedAt = LocalDateTime.now();
+            status = JobStatus.RUNNING;
+        }
+
+        void markCompleted(InvestmentInsight insight) {
+            insightId = insight.getId();
+            completedAt = LocalDateTime.now();
+            status = JobStatus.COMPLETED;
+        }
+
+        void markFailed(Throwable throwable) {
+            error = throwable.getMessage();
+            completedAt = LocalDateTime.now();
+            status = JobStatus.FAILED;
+        }
+
+        // Getters
+        public String getId() { return id; }
+        public Long getPortfolioId() { return portfolioId; }
+        public Long getClientId() { return clientId; }
+        public String getCallbackUrl() { return callbackUrl; }
+        public LocalDateTime getSubmittedAt() { return submittedAt; }
+        public JobStatus getStatus() { return status; }
+        public LocalDateTime getStartedAt() { return startedAt; }
+        public LocalDateTime getCompletedAt() { return completedAt; }
+        public Long getInsightId() { return insightId; }
+        public String getError() { return error; }
+    }
+}
@@ -0,0 +1,131 @@
+package com.ii.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Micrometer meters for insight generation, scraped from /actuator/prometheus. Timers publish
+ * percentile histograms so p99 can be computed per AI call outcome and per generation phase.
+ */
+@Component
+public class InsightMetrics {
+
+    public enum Phase {
+        PROMPT("prompt"),
+        SCORING("scoring"),
+        PRIORITY_VALIDATION("priority_validation"),
+        PERSISTENCE("persistence");
+
+        private final String tag;
+
+        Phase(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Phase, Timer> phaseTimers = new EnumMap<>(Phase.class);
+    private final Counter timestampParseFallbacks;
+
+    @Autowired
+    public InsightMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Phase phase : Phase.values()) {
+            phaseTimers.put(phase, Timer.builder("insights.generation.phase")
+                    .description("Time spent in each step of building and saving an insight")
+                    .tag("phase", phase.tag)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        this.timestampParseFallbacks = Counter.builder("insights.timestamp.parse.fallbacks")
+                .description("AI responses whose createdAt could not be parsed and was replaced by the current time")
+                .register(registry);
+    }
+
+    public Timer phase(Phase phase) {
+        return phaseTimers.get(phase);
+    }
+
+    public void timestampParseFallback() {
+        timestampParseFallbacks.increment();
+    }
+
+    /**
+     * Times a call to the AI service from subscription to its terminal signal (retries included)
+     * and counts failures by reason.
+     */
+    <T> Mono<T> timeAiCall(String endpoint, Mono<T> call) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return call
+                    .doOnSuccess(result -> sample.stop(aiCallTimer(endpoint, "success")))
+                    .doOnError(error -> {
+                        sample.stop(aiCallTimer(endpoint, "error"));
+                        aiFailure(endpoint, error);
+                    })
+                    .doOnCancel(() -> sample.stop(aiCallTimer(endpoint, "cancelled")));
+        });
+    }
+
+    // Streamed variant of timeAiCall, timed until the last event
+    <T> Flux<T> timeAiStream(String endpoint, Flux<T> call) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return call
+                    .doOnComplete(() -> sample.stop(aiCallTimer(endpoint, "success")))
+                    .doOnError(error -> {
+                        sample.stop(aiCallTimer(endpoint, "error"));
+                        aiFailure(endpoint, error);
+                    })
+                    .doOnCancel(() -> sample.stop(aiCallTimer(endpoint, "cancelled")));
+        });
+    }
+
+    private void aiFailure(String endpoint, Throwable error) {
+        Counter.builder("insights.ai.failures")
+                .description("Failed calls to the AI service")
+                .tag("endpoint", endpoint)
+                .tag("reason", failureReason(error))
+                .register(registry)
+                .increment();
+    }
+
+    private Timer aiCallTimer(String endpoint, String outcome) {
+        return Timer.builder("insights.ai.call")
+                .description("AI service round trips, including retries")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static String failureReason(Throwable error) {
+        if (error instanceof AiInsightClient.AiServiceUnavailableException) {
+            return "unavailable";
+        }
+        if (error instanceof AiInsightClient.AiServiceBusyException) {
+            return "busy";
+        }
+        if (error instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (error instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is5xxServerError() ? "server_error" : "client_error";
+        }
+        if (error instanceof WebClientRequestException) {
+            return "connection";
+        }
+        return "other";
+    }
+}
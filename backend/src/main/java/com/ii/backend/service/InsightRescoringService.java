@@ -0,0 +1,353 @@
+package com.ii.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ii.backend.model.Client;
+import com.ii.backend.model.Holding;
+import com.ii.backend.model.InsightRescoreCheckpoint;
+import com.ii.backend.model.InvestmentInsight;
+import com.ii.backend.model.StructuredInsight;
+import com.ii.backend.repository.InsightRescoreCheckpointRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Recomputes the mathematical scores of stored insights after the scoring rules change,
+ * without calling the AI service. Insights are read in id order, one fixed-size chunk per
+ * query, rescored in parallel and written back with a JDBC batch; a checkpoint row records
+ * the last id written so a paused or interrupted job resumes where it stopped. Insights are
+ * rescored against the portfolio's current holdings, so an insight created before the last
+ * holding write to its portfolio is skipped rather than scored on holdings it never saw.
+ */
+@Service
+public class InsightRescoringService {
+
+    private static final String SELECT_INSIGHT_CHUNK =
+            "SELECT i.id, i.client_id, i.portfolio_id, i.structured_data, " +
+            "a.holdings_changed_at IS NOT NULL AND (i.created_at IS NULL OR a.holdings_changed_at > i.created_at) AS holdings_changed " +
+            "FROM investment_insight i LEFT JOIN portfolio_aggregate a ON a.portfolio_id = i.portfolio_id " +
+            "WHERE i.id > ? ORDER BY i.id LIMIT ?";
+    private static final String UPDATE_INSIGHT_SCORES =
+            "UPDATE investment_insight SET risk_score = ?, diversification_score = ?, goal_alignment = ?, " +
+            "debug_info = CAST(? AS jsonb), structured_data = CAST(? AS jsonb) WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final InsightRescoreCheckpointRepository checkpointRepository;
+    private final ObjectMapper objectMapper;
+    private final ScoringTraceBuffer scoringTraces;
+    private final AdvisorDashboardService dashboardService;
+    private final int defaultChunkSize;
+    private final int maxChunkSize;
+
+    // Stop flags for jobs running in this instance
+    private final Map<String, AtomicBoolean> runningJobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public InsightRescoringService(JdbcTemplate jdbcTemplate,
+                                   NamedParameterJdbcTemplate namedJdbcTemplate,
+                                   InsightRescoreCheckpointRepository checkpointRepository,
+                                   ObjectMapper objectMapper,
+                                   ScoringTraceBuffer scoringTraces,
+                                   AdvisorDashboardService dashboardService,
+                                   @Value("${insights.rescore.chunk-size:500}") int defaultChunkSize,
+                                   @Value("${insights.rescore.max-chunk-size:5000}") int maxChunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.checkpointRepository = checkpointRepository;
+        this.objectMapper = objectMapper;
+        this.scoringTraces = scoringTraces;
+        this.dashboardService = dashboardService;
+        this.defaultChunkSize = defaultChunkSize;
+        this.maxChunkSize = maxChunkSize;
+    }
+
+    public InsightRescoreCheckpoint startJob(Integer chunkSize) {
+        int size = chunkSize != null && chunkSize > 0 ? Math.min(chunkSize, maxChunkSize) : defaultChunkSize;
+        InsightRescoreCheckpoint checkpoint = checkpointRepository.save(new InsightRescoreCheckpoint(UUID.randomUUID().toString(), size));
+        launch(checkpoint);
+        return checkpoint;
+    }
+
+    public InsightRescoreCheckpoint resumeJob(String jobId) {
+        InsightRescoreCheckpoint checkpoint = getJob(jobId);
+        if (checkpoint.getStatus() == InsightRescoreCheckpoint.Status.COMPLETED) {
+            throw new IllegalStateException("Rescore job already completed: " + jobId);
+        }
+        if (runningJobs.containsKey(jobId)) {
+            throw new IllegalStateException("Rescore job is already running: " + jobId);
+        }
+        checkpoint.setStatus(InsightRescoreCheckpoint.Status.RUNNING);
+        checkpoint.setError(null);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        checkpoint = checkpointRepository.save(checkpoint);
+        launch(checkpoint);
+        return checkpoint;
+    }
+
+    /**
+     * Asks a running job to stop after its current chunk; it can be resumed later
+     */
+    public InsightRescoreCheckpoint pauseJob(String jobId) {
+        InsightRescoreCheckpoint checkpoint = getJob(jobId);
+        AtomicBoolean stop = runningJobs.get(jobId);
+        if (stop != null) {
+            stop.set(true);
+        }
+        return checkpoint;
+    }
+
+    public InsightRescoreCheckpoint getJob(String jobId) {
+        return checkpointRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Rescore job not found with id: " + jobId));
+    }
+
+    public List<InsightRescoreCheckpoint> getJobs() {
+        return checkpointRepository.findAllByOrderByStartedAtDesc();
+    }
+
+    private void launch(InsightRescoreCheckpoint checkpoint) {
+        AtomicBoolean stop = new AtomicBoolean();
+        if (runningJobs.putIfAbsent(checkpoint.getJobId(), stop) != null) {
+            throw new IllegalStateException("Rescore job is already running: " + checkpoint.getJobId());
+        }
+        Mono.fromRunnable(() -> run(checkpoint, stop))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doFinally(signal -> runningJobs.remove(checkpoint.getJobId()))
+                .subscribe();
+    }
+
+    private void run(InsightRescoreCheckpoint checkpoint, AtomicBoolean stop) {
+        try {
+            while (!stop.get()) {
+                List<InsightRow> chunk = jdbcTemplate.query(SELECT_INSIGHT_CHUNK,
+                        (rs, rowNum) -> new InsightRow(
+                                rs.getLong("id"),
+                                rs.getObject("client_id", Long.class),
+                                rs.getObject("portfolio_id", Long.class),
+                                rs.getString("structured_data"),
+                                rs.getBoolean("holdings_changed")),
+                        checkpoint.getLastInsightId(), checkpoint.getChunkSize());
+
+                if (chunk.isEmpty()) {
+                    checkpoint.setStatus(InsightRescoreCheckpoint.Status.COMPLETED);
+                    checkpoint.setCompletedAt(LocalDateTime.now());
+                    break;
+                }
+
+                processChunk(chunk, checkpoint);
+            }
+            if (checkpoint.getStatus() == InsightRescoreCheckpoint.Status.RUNNING) {
+                checkpoint.setStatus(InsightRescoreCheckpoint.Status.PAUSED);
+            }
+        } catch (Exception e) {
+            System.err.println("Rescore job " + checkpoint.getJobId() + " failed after insight "
+                    + checkpoint.getLastInsightId() + ": " + e.getMessage());
+            checkpoint.setStatus(InsightRescoreCheckpoint.Status.FAILED);
+            checkpoint.setError(e.getMessage());
+        }
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+    }
+
+    private void processChunk(List<InsightRow> chunk, InsightRescoreCheckpoint checkpoint) {
+        ChunkContext context = loadContext(chunk);
+
+        List<RescoredRow> results = Flux.fromIterable(chunk)
+                .parallel()
+                .runOn(Schedulers.parallel())
+                .map(row -> rescore(row, context))
+                .sequential()
+                .collectList()
+                .block();
+
+        List<Object[]> updates = new ArrayList<>();
+        long skipped = 0;
+        long failed = 0;
+        for (RescoredRow result : results) {
+            if (result.insight != null) {
+                updates.add(new Object[] {
+                        result.insight.getRiskScore(),
+                        result.insight.getDiversificationScore(),
+                        result.insight.getGoalAlignment(),
+                        result.debugInfoJson,
+                        result.structuredDataJson,
+                        result.id});
+            } else if (result.error != null) {
+                failed++;
+            } else {
+                skipped++;
+            }
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_INSIGHT_SCORES, updates);
+            // Latest-insight scores on the advisor dashboard
+            dashboardService.refreshClients(chunk.stream()
+                    .map(row -> row.clientId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet()));
+        }
+
+        checkpoint.setLastInsightId(chunk.get(chunk.size() - 1).id);
+        checkpoint.setProcessed(checkpoint.getProcessed() + chunk.size());
+        checkpoint.setUpdated(checkpoint.getUpdated() + updates.size());
+        checkpoint.setSkipped(checkpoint.getSkipped() + skipped);
+        checkpoint.setFailed(checkpoint.getFailed() + failed);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+    }
+
+    private RescoredRow rescore(InsightRow row, ChunkContext context) {
+        Client client = row.clientId != null ? context.clients.get(row.clientId) : null;
+        PortfolioAnalytics analytics = row.portfolioId != null && !row.holdingsChanged ? context.analytics.get(row.portfolioId) : null;
+        if (client == null || analytics == null) {
+            return new RescoredRow(row.id, null, null);
+        }
+        try {
+            // Scores are recomputed on a detached copy; the score columns, debugInfo and the
+            // re-validated recommendation priorities are written back
+            InvestmentInsight insight = new InvestmentInsight();
+            if (row.structuredData != null) {
+                insight.setStructuredData(objectMapper.readValue(row.structuredData, StructuredInsight.class));
+            }
+            ScoringTrace trace = scoringTraces.start();
+            InvestmentInsightService.calculateMathematicalScores(insight, analytics, client, trace);
+            scoringTraces.add(row.id, trace);
+            return new RescoredRow(row.id, insight,
+                    objectMapper.writeValueAsString(insight.getDebugInfo()),
+                    insight.getStructuredData() != null ? objectMapper.writeValueAsString(insight.getStructuredData()) : null);
+        } catch (RuntimeException | JsonProcessingException e) {
+            System.err.println("Failed to rescore insight " + row.id + ": " + e.getMessage());
+            return new RescoredRow(row.id, null, e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the clients and portfolio holdings referenced by one chunk with two queries
+     */
+    private ChunkContext loadContext(List<InsightRow> chunk) {
+        ChunkContext context = new ChunkContext();
+        Set<Long> clientIds = chunk.stream()
+                .map(row -> row.clientId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (clientIds.isEmpty()) {
+            return context;
+        }
+        Map<String, Set<Long>> params = Map.of("ids", clientIds);
+
+        namedJdbcTemplate.query(
+                "SELECT id, risk_tolerance, investment_goals, years_until_goal, annual_income_goal FROM client WHERE id IN (:ids)",
+                params,
+                rs -> {
+                    Client client = new Client();
+                    client.setId(rs.getLong("id"));
+                    client.setRiskTolerance(rs.getString("risk_tolerance"));
+                    client.setInvestmentGoals(rs.getString("investment_goals"));
+                    client.setYearsUntilGoal(rs.getObject("years_until_goal", Integer.class));
+                    client.setAnnualIncomeGoal(rs.getBigDecimal("annual_income_goal"));
+                    context.clients.put(client.getId(), client);
+                });
+
+        // Insights without a portfolio_id (client-level, or their portfolio was deleted) are skipped,
+        // as are insights whose portfolio holdings changed after they were created
+        Set<Long> portfolioIds = chunk.stream()
+                .filter(row -> !row.holdingsChanged)
+                .map(row -> row.portfolioId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (portfolioIds.isEmpty()) {
+            return context;
+        }
+
+        Map<Long, List<Holding>> holdingsByPortfolio = new HashMap<>();
+        namedJdbcTemplate.query(
+                "SELECT portfolio_id, ticker, shares, price_per_share, sector, asset_type, beta, dividend_yield " +
+                "FROM holding WHERE portfolio_id IN (:ids) ORDER BY id",
+                Map.of("ids", portfolioIds),
+                rs -> {
+                    double beta = rs.getDouble("beta");
+                    Double betaValue = rs.wasNull() ? null : beta;
+                    double dividendYield = rs.getDouble("dividend_yield");
+                    Double dividendYieldValue = rs.wasNull() ? null : dividendYield;
+                    holdingsByPortfolio.computeIfAbsent(rs.getLong("portfolio_id"), id -> new ArrayList<>()).add(new Holding(
+                            rs.getString("ticker"),
+                            rs.getInt("shares"),
+                            rs.getBigDecimal("price_per_share"),
+                            rs.getString("sector"),
+                            rs.getString("asset_type"),
+                            betaValue,
+                            dividendYieldValue,
+                            null));
+                });
+        holdingsByPortfolio.forEach((portfolioId, holdings) ->
+                context.analytics.put(portfolioId, PortfolioAnalytics.of(holdings)));
+        return context;
+    }
+
+    // Row as read from investment_insight
+    private static class InsightRow {
+        final long id;
+        final Long clientId;
+        final Long portfolioId;
+        final String structuredData;
+        final boolean holdingsChanged;
+
+        InsightRow(long id, Long clientId, Long portfolioId, String structuredData, boolean holdingsChanged) {
+            this.id = id;
+            this.clientId = clientId;
+            this.portfolioId = portfolioId;
+            this.structuredData = structuredData;
+            this.holdingsChanged = holdingsChanged;
+        }
+    }
+
+    // Outcome for one row: rescored insight, an error, or neither when it was skipped
+    private static class RescoredRow {
+        final long id;
+        final InvestmentInsight insight;
+        final String debugInfoJson;
+        final String structuredDataJson;
+        final String error;
+
+        RescoredRow(long id, InvestmentInsight insight, String error) {
+            this(id, insight, null, null, error);
+        }
+
+        RescoredRow(long id, InvestmentInsight insight, String debugInfoJson, String structuredDataJson) {
+            this(id, insight, debugInfoJson, structuredDataJson, null);
+        }
+
+        private RescoredRow(long id, InvestmentInsight insight, String debugInfoJson, String structuredDataJson, String error) {
+            this.id = id;
+            this.insight = insight;
+            this.debugInfoJson = debugInfoJson;
+            this.structuredDataJson = structuredDataJson;
+            this.error = error;
+        }
+    }
+
+    // Lookup data shared read-only by the parallel rescoring of one chunk
+    private static class ChunkContext {
+        final Map<Long, Client> clients = new HashMap<>();
+        final Map<Long, PortfolioAnalytics> analytics = new HashMap<>();
+    }
+}
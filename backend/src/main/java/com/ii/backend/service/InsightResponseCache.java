@@ -0,0 +1,223 @@
+package com.ii.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ii.backend.model.InsightResponseCacheEntry;
+import com.ii.backend.repository.InsightResponseCacheRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Content-addressed cache of AI responses. Identical tickers and prompt text produce the same
+ * key, so unchanged portfolios reuse the previous response instead of calling the AI service.
+ */
+@Component
+public class InsightResponseCache {
+
+    private static final DateTimeFormatter CREATED_AT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    // Insight createdAt values are New York local time (see InvestmentInsightService)
+    private static final ZoneId INSIGHT_ZONE = ZoneId.of("America/New_York");
+
+    private final InsightResponseCacheRepository cacheRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final boolean persistent;
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Supplier<LocalDateTime> clock;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    // Access-ordered so the eldest entry is the least recently used one
+    private final LinkedHashMap<String, CachedResponse> entries;
+
+    @Autowired
+    public InsightResponseCache(InsightResponseCacheRepository cacheRepository,
+                                ObjectMapper objectMapper,
+                                @Value("${insights.cache.enabled:true}") boolean enabled,
+                                @Value("${insights.cache.persistent:false}") boolean persistent,
+                                @Value("${insights.cache.max-entries:500}") int maxEntries,
+                                @Value("${insights.cache.ttl-minutes:60}") long ttlMinutes) {
+        this(cacheRepository, objectMapper, enabled, persistent, maxEntries, ttlMinutes, () -> LocalDateTime.now(INSIGHT_ZONE));
+    }
+
+    InsightResponseCache(InsightResponseCacheRepository cacheRepository, ObjectMapper objectMapper, boolean enabled,
+                         boolean persistent, int maxEntries, long ttlMinutes, Supplier<LocalDateTime> clock) {
+        this.cacheRepository = cacheRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.persistent = persistent;
+        this.maxEntries = maxEntries;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                if (size() > InsightResponseCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Stable SHA-256 of the tickers and the prompt text
+     */
+    public String keyFor(List<String> tickers, String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String ticker : tickers) {
+                digest.update(String.valueOf(ticker).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            digest.update((byte) 0);
+            digest.update(String.valueOf(prompt).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Returns a copy of the cached response stamped with the current time, or null on a miss
+     */
+    InvestmentInsightService.AIResponse get(String key) {
+        if (!enabled) {
+            return null;
+        }
+
+        CachedResponse cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+            if (cached != null && isExpired(cached.storedAt)) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+                cached = null;
+            }
+        }
+
+        if (cached == null && persistent) {
+            cached = loadPersisted(key);
+        }
+
+        if (cached == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        return cached.response.withCreatedAt(clock.get().format(CREATED_AT_FORMAT));
+    }
+
+    void put(String key, InvestmentInsightService.AIResponse response) {
+        if (!enabled || response == null) {
+            return;
+        }
+
+        LocalDateTime now = clock.get();
+        synchronized (entries) {
+            entries.put(key, new CachedResponse(response, now));
+        }
+
+        if (persistent) {
+            try {
+                cacheRepository.save(new InsightResponseCacheEntry(key, objectMapper.writeValueAsString(response), now));
+            } catch (Exception e) {
+                System.err.println("Error persisting cached AI response: " + e.getMessage());
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        if (persistent) {
+            cacheRepository.deleteAll();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("persistent", persistent);
+        stats.put("size", size);
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlMinutes", ttl.toMinutes());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.get());
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        return stats;
+    }
+
+    private CachedResponse loadPersisted(String key) {
+        try {
+            Optional<InsightResponseCacheEntry> entry = cacheRepository.findById(key);
+            if (entry.isEmpty()) {
+                return null;
+            }
+            if (isExpired(entry.get().getCreatedAt())) {
+                cacheRepository.deleteById(key);
+                evictions.incrementAndGet();
+                return null;
+            }
+
+            InvestmentInsightService.AIResponse response =
+                    objectMapper.readValue(entry.get().getResponseJson(), InvestmentInsightService.AIResponse.class);
+            CachedResponse cached = new CachedResponse(response, entry.get().getCreatedAt());
+            synchronized (entries) {
+                entries.put(key, cached);
+            }
+            return cached;
+        } catch (Exception e) {
+            System.err.println("Error loading cached AI response: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean isExpired(LocalDateTime storedAt) {
+        return storedAt == null || storedAt.plus(ttl).isBefore(clock.get());
+    }
+
+    private static class CachedResponse {
+        final InvestmentInsightService.AIResponse response;
+        final LocalDateTime storedAt;
+
+        CachedResponse(InvestmentInsightService.AIResponse response, LocalDateTime storedAt) {
+            this.response = response;
+            this.storedAt = storedAt;
+        }
+    }
+}
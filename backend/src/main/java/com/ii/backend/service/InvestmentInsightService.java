@@ -1,18 +1,24 @@
 package com.ii.backend.service;
 
 import com.ii.backend.model.InvestmentInsight;
+import com.ii.backend.model.InsightSummary;
 import com.ii.backend.model.Client;
 import com.ii.backend.model.Holding;
 import com.ii.backend.model.Portfolio;
+import com.ii.backend.model.AssetRecommendation;
+import com.ii.backend.model.StructuredInsight;
 import com.ii.backend.repository.InvestmentInsightRepository;
 import com.ii.backend.repository.ClientRepository;
-import com.ii.backend.repository.HoldingRepository;
 import com.ii.backend.repository.PortfolioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.math.BigDecimal;
@@ -22,130 +28,246 @@ import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Service
 public class InvestmentInsightService {
 
     private final InvestmentInsightRepository insightRepository;
     private final ClientRepository clientRepository;
-    private final HoldingRepository holdingRepository;
     private final PortfolioRepository portfolioRepository;
-    private final WebClient webClient;
+    private final InsightResponseCache responseCache;
+    private final Scheduler insightScheduler;
+    private final AiInsightClient aiClient;
+    private final InsightMetrics metrics;
+    private final ScoringTraceBuffer scoringTraces;
+    private final AdvisorDashboardService dashboardService;
+    private final ScoreHistoryService scoreHistory;
+    private final PortfolioAggregateService portfolioAggregateService;
+
+    // Pending generations keyed by portfolio id + prompt fingerprint; concurrent duplicates share one entry
+    private final Map<String, Mono<InvestmentInsight>> inFlightGenerations = new ConcurrentHashMap<>();
 
     @Autowired
-    public InvestmentInsightService(InvestmentInsightRepository insightRepository, ClientRepository clientRepository, HoldingRepository holdingRepository, PortfolioRepository portfolioRepository) {
+    public InvestmentInsightService(InvestmentInsightRepository insightRepository, ClientRepository clientRepository, PortfolioRepository portfolioRepository, InsightResponseCache responseCache, @Qualifier("insightScheduler") Scheduler insightScheduler, AiInsightClient aiClient, InsightMetrics metrics, ScoringTraceBuffer scoringTraces, AdvisorDashboardService dashboardService, ScoreHistoryService scoreHistory, PortfolioAggregateService portfolioAggregateService) {
         this.insightRepository = insightRepository;
         this.clientRepository = clientRepository;
-        this.holdingRepository = holdingRepository;
         this.portfolioRepository = portfolioRepository;
-        this.webClient = WebClient.create("http://localhost:8000"); // FastAPI address
+        this.responseCache = responseCache;
+        this.insightScheduler = insightScheduler;
+        this.aiClient = aiClient;
+        this.metrics = metrics;
+        this.scoringTraces = scoringTraces;
+        this.dashboardService = dashboardService;
+        this.scoreHistory = scoreHistory;
+        this.portfolioAggregateService = portfolioAggregateService;
     }
 
     public InvestmentInsight generateInsight(List<String> holdings, String preferences, Long clientId) {
-        Client client = clientRepository.findById(clientId)
+        Client client = clientRepository.findWithAdvisorById(clientId)
                 .orElseThrow(() -> new RuntimeException("Client not found with id: " + clientId));
     
-
-        Mono<AIResponse> response = webClient.post()
-                .uri("/generate-insight")
-                .bodyValue(new InsightRequest(holdings, preferences))
-                .retrieve()
-                .bodyToMono(AIResponse.class);
-    
-        AIResponse aiResponse = response.block(); // Wait for result
+        AIResponse aiResponse = requestInsight(holdings, preferences).block(); // Wait for result
     
         if (aiResponse != null) {
-            InvestmentInsight aiInsight = new InvestmentInsight();
-            aiInsight.setSummary(aiResponse.summary);
-            aiInsight.setAiGeneratedText(aiResponse.aiGeneratedText);
-            // Parse the timestamp from the AI service
-            try {
-                // Try multiple formats to handle different timestamp formats
-                LocalDateTime parsedDateTime = null;
-                String[] formats = {
-                    "yyyy-MM-dd'T'HH:mm:ss",
-                    "yyyy-MM-dd'T'HH:mm:ss.SSS",
-                    "yyyy-MM-dd'T'HH:mm:ss.SSSSSS"
-                };
-                
-                for (String format : formats) {
-                    try {
-                        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format);
-                        parsedDateTime = LocalDateTime.parse(aiResponse.createdAt, formatter);
-                        break;
-                    } catch (Exception e) {
-                        // Continue to next format
-                    }
-                }
-                
-                if (parsedDateTime != null) {
-                    aiInsight.setCreatedAt(parsedDateTime);
-                } else {
-                    // If all parsing fails, use current time
-                    System.err.println("Failed to parse timestamp: " + aiResponse.createdAt + ", using current time");
-                    aiInsight.setCreatedAt(LocalDateTime.now(java.time.ZoneId.of("America/New_York")));
-                }
-            } catch (Exception e) {
-                System.err.println("Error parsing timestamp: " + aiResponse.createdAt + ", using current time. Error: " + e.getMessage());
-                aiInsight.setCreatedAt(LocalDateTime.now(java.time.ZoneId.of("America/New_York")));
+            InvestmentInsight saved = insightRepository.save(toInsight(aiResponse, client));
+            scoreHistory.record(saved);
+            dashboardService.refreshClient(clientId);
+            return saved;
+        }
+    
+        throw new RuntimeException("Failed to generate investment insight");
+    }
+
+    /**
+     * Calls the FastAPI /generate-insight endpoint without blocking the caller.
+     * Responses are cached by a hash of the tickers and prompt, so unchanged portfolios skip the AI call.
+     */
+    Mono<AIResponse> requestInsight(List<String> holdings, String preferences) {
+        if (!responseCache.isEnabled()) {
+            return callInsightService(holdings, preferences);
+        }
+        return Mono.defer(() -> {
+            String cacheKey = responseCache.keyFor(holdings, preferences);
+            AIResponse cached = responseCache.get(cacheKey);
+            if (cached != null) {
+                return Mono.just(cached);
             }
-            aiInsight.setClient(client);
+            return callInsightService(holdings, preferences)
+                    .flatMap(aiResponse -> Mono.fromRunnable(() -> responseCache.put(cacheKey, aiResponse))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .thenReturn(aiResponse));
+        });
+    }
+
+    private Mono<AIResponse> callInsightService(List<String> holdings, String preferences) {
+        return aiClient.generateInsight(holdings, preferences);
+    }
+
+    private InvestmentInsight toInsight(AIResponse aiResponse, Client client) {
+        InvestmentInsight aiInsight = new InvestmentInsight();
+        aiInsight.setSummary(aiResponse.summary);
+        aiInsight.setAiGeneratedText(aiResponse.aiGeneratedText);
+        // Parse the timestamp from the AI service
+        try {
+            // Try multiple formats to handle different timestamp formats
+            LocalDateTime parsedDateTime = null;
+            String[] formats = {
+                "yyyy-MM-dd'T'HH:mm:ss",
+                "yyyy-MM-dd'T'HH:mm:ss.SSS",
+                "yyyy-MM-dd'T'HH:mm:ss.SSSSSS"
+            };
             
-            // Handle structured insight data (qualitative only)
-            if (aiResponse.structuredInsight != null) {
-                // Store qualitative insights and recommendations
-                // Quantitative scores will be calculated mathematically in the backend
-                
-                // Convert structured data to JSON string
+            for (String format : formats) {
                 try {
-                    com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                    String structuredDataJson = mapper.writeValueAsString(aiResponse.structuredInsight);
-                    aiInsight.setStructuredData(structuredDataJson);
+                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format);
+                    parsedDateTime = LocalDateTime.parse(aiResponse.createdAt, formatter);
+                    break;
                 } catch (Exception e) {
-                    // If JSON conversion fails, store raw response
-                    aiInsight.setStructuredData(aiResponse.structuredInsight.rawResponse);
+                    // Continue to next format
                 }
             }
             
-            return insightRepository.save(aiInsight);
+            if (parsedDateTime != null) {
+                aiInsight.setCreatedAt(parsedDateTime);
+            } else {
+                // If all parsing fails, use current time
+                System.err.println("Failed to parse timestamp: " + aiResponse.createdAt + ", using current time");
+                metrics.timestampParseFallback();
+                aiInsight.setCreatedAt(LocalDateTime.now(java.time.ZoneId.of("America/New_York")));
+            }
+        } catch (Exception e) {
+            System.err.println("Error parsing timestamp: " + aiResponse.createdAt + ", using current time. Error: " + e.getMessage());
+            metrics.timestampParseFallback();
+            aiInsight.setCreatedAt(LocalDateTime.now(java.time.ZoneId.of("America/New_York")));
         }
-    
-        throw new RuntimeException("Failed to generate investment insight");
+        aiInsight.setClient(client);
+        
+        // Handle structured insight data (qualitative only)
+        if (aiResponse.structuredInsight != null) {
+            // Store qualitative insights and recommendations as parsed; priority validation
+            // adjusts this copy, not the (possibly cached) response
+            // Quantitative scores will be calculated mathematically in the backend
+            aiInsight.setStructuredData(aiResponse.structuredInsight.copyForInsight());
+        }
+        return aiInsight;
     }
 
     public InvestmentInsight generateInsightForPortfolio(Long portfolioId, String preferences, Long clientId) {
-        Portfolio portfolio = portfolioRepository.findById(portfolioId)
+        PortfolioInsightRequest request = preparePortfolioInsight(portfolioId, clientId);
+        return generateCoalesced(request).block(); // Wait for result
+    }
+
+    /**
+     * Non-blocking variant of generateInsightForPortfolio. Repository work runs on the insight
+     * scheduler while the AI round trip stays on the WebClient's event loop.
+     */
+    public Mono<InvestmentInsight> generateInsightForPortfolioAsync(Long portfolioId, String preferences, Long clientId) {
+        return generateInsightForPortfolioAsync(portfolioId, preferences, clientId, () -> { });
+    }
+
+    /**
+     * As above, running {@code onAiRequest} once the portfolio is loaded and its AI request is
+     * issued (or joins one already in flight), after any wait for the insight scheduler
+     */
+    public Mono<InvestmentInsight> generateInsightForPortfolioAsync(Long portfolioId, String preferences, Long clientId, Runnable onAiRequest) {
+        return Mono.fromCallable(() -> preparePortfolioInsight(portfolioId, clientId))
+                .subscribeOn(insightScheduler)
+                .doOnNext(request -> onAiRequest.run())
+                .flatMap(this::generateCoalesced);
+    }
+
+    /**
+     * Single-flight generation: concurrent requests for the same portfolio and prompt join the
+     * pending AI call and receive the same persisted insight instead of creating duplicates.
+     * Only an open circuit breaker degrades to an AI-pending insight; a busy AI service is
+     * reported to the caller, who can retry.
+     */
+    private Mono<InvestmentInsight> generateCoalesced(PortfolioInsightRequest request) {
+        String flightKey = request.portfolio.getId() + ":" + responseCache.keyFor(request.tickers, request.prompt);
+        return inFlightGenerations.computeIfAbsent(flightKey, key -> requestInsight(request.tickers, request.prompt)
+                .switchIfEmpty(Mono.error(new RuntimeException("Failed to generate investment insight")))
+                .publishOn(insightScheduler)
+                .map(aiResponse -> completePortfolioInsight(request, aiResponse))
+                .onErrorResume(AiInsightClient.AiServiceUnavailableException.class, e ->
+                        Mono.fromCallable(() -> completePortfolioInsightWithoutAi(request)).subscribeOn(insightScheduler))
+                .doFinally(signal -> inFlightGenerations.remove(key))
+                .cache());
+    }
+
+    /**
+     * Streams the AI text for a portfolio as "token" events while it is generated, then persists
+     * the insight and emits it as the final "insight" event
+     */
+    public Flux<ServerSentEvent<Object>> streamInsightForPortfolio(Long portfolioId, Long clientId) {
+        return Mono.fromCallable(() -> preparePortfolioInsight(portfolioId, clientId))
+                .subscribeOn(insightScheduler)
+                .flatMapMany(request -> aiClient.streamInsight(request.tickers, request.prompt)
+                        .concatMap(chunk -> {
+                            if (!chunk.isComplete()) {
+                                return Mono.just(ServerSentEvent.<Object>builder(Map.of("text", chunk.text)).event("token").build());
+                            }
+                            return Mono.fromCallable(() -> {
+                                        responseCache.put(responseCache.keyFor(request.tickers, request.prompt), chunk.response);
+                                        return completePortfolioInsight(request, chunk.response);
+                                    })
+                                    .subscribeOn(insightScheduler)
+                                    .map(insight -> ServerSentEvent.<Object>builder(insight).event("insight").build());
+                        }))
+                .onErrorResume(error -> Mono.just(ServerSentEvent.<Object>builder(Map.of("error", String.valueOf(error.getMessage()))).event("error").build()));
+    }
+
+    /**
+     * Loads the portfolio, holdings and client and builds the qualitative analysis prompt
+     */
+    private PortfolioInsightRequest preparePortfolioInsight(Long portfolioId, Long clientId) {
+        // Portfolio, holdings and owning client come back in one select
+        Portfolio portfolio = portfolioRepository.findWithHoldingsById(portfolioId)
                 .orElseThrow(() -> new RuntimeException("Portfolio not found with id: " + portfolioId));
         
-        List<Holding> holdings = holdingRepository.findByPortfolioId(portfolioId);
+        List<Holding> holdings = portfolio.getHoldings();
         if (holdings.isEmpty()) {
             throw new RuntimeException("No holdings found for this portfolio.");
         }
 
-        // Get client information
-        Client client = clientRepository.findById(clientId)
-                .orElseThrow(() -> new RuntimeException("Client not found with id: " + clientId));
+        // Get client information; only a client other than the portfolio's owner needs another query
+        Client client = portfolio.getClient() != null && portfolio.getClient().getId().equals(clientId)
+                ? portfolio.getClient()
+                : clientRepository.findWithAdvisorById(clientId)
+                        .orElseThrow(() -> new RuntimeException("Client not found with id: " + clientId));
+
+        // Calculate portfolio metrics in a single pass; scoring reads the maintained aggregate
+        PortfolioAnalytics analytics = PortfolioAnalytics.of(holdings);
+        ScoringEngine.PortfolioVector vector = portfolioAggregateService.scoringVector(portfolioId, holdings);
+        String enhancedPreferences = metrics.phase(InsightMetrics.Phase.PROMPT)
+                .record(() -> buildPortfolioPrompt(analytics, client, portfolio));
+
+        // Extract tickers for the AI service
+        List<String> tickers = holdings.stream()
+                .map(Holding::getTicker)
+                .toList();
+
+        return new PortfolioInsightRequest(portfolio, analytics, vector, client, tickers, enhancedPreferences);
+    }
+
+    /**
+     * Builds the qualitative analysis prompt from the portfolio analytics and client profile
+     */
+    static String buildPortfolioPrompt(PortfolioAnalytics analytics, Client client, Portfolio portfolio) {
         String risk = client.getRiskTolerance();
         String goals = client.getInvestmentGoals();
         Integer yearsUntilGoal = client.getYearsUntilGoal();
         BigDecimal annualIncomeGoal = client.getAnnualIncomeGoal();
         String accountType = portfolio.getAccountType();
-
-        // Calculate portfolio metrics
-        BigDecimal totalValue = BigDecimal.ZERO;
-        for (Holding holding : holdings) {
-            BigDecimal holdingValue = holding.getPricePerShare().multiply(BigDecimal.valueOf(holding.getShares()));
-            totalValue = totalValue.add(holdingValue);
-        }
+        List<Holding> holdings = analytics.getHoldings();
+        BigDecimal totalValue = analytics.getTotalValue();
 
         // Build holdings breakdown with enhanced info
         StringBuilder holdingsSummary = new StringBuilder();
-        for (Holding holding : holdings) {
-            BigDecimal holdingValue = holding.getPricePerShare().multiply(BigDecimal.valueOf(holding.getShares()));
-            BigDecimal percentage = holdingValue.divide(totalValue, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100));
+        for (int i = 0; i < holdings.size(); i++) {
+            Holding holding = holdings.get(i);
             
             holdingsSummary.append(String.format("• %s (%s/%s): %d shares @ $%.2f = $%,.2f (%.1f%% of portfolio)", 
                     holding.getTicker(), 
@@ -153,8 +275,8 @@ public class InvestmentInsightService {
                     holding.getAssetType() != null && !holding.getAssetType().isEmpty() ? holding.getAssetType() : "Unknown Type",
                     holding.getShares(), 
                     holding.getPricePerShare(),
-                    holdingValue,
-                    percentage.doubleValue()));
+                    analytics.getValue(i),
+                    analytics.getWeight(i)));
             
             // Add risk metrics if available
             if (holding.getBeta() != null) {
@@ -166,79 +288,38 @@ public class InvestmentInsightService {
             holdingsSummary.append("\n");
         }
 
-        // Calculate sector exposure
-        Map<String, BigDecimal> sectorExposure = holdings.stream()
-                .filter(h -> h.getSector() != null && !h.getSector().isEmpty())
-                .collect(Collectors.groupingBy(
-                    Holding::getSector,
-                    Collectors.reducing(BigDecimal.ZERO, 
-                        h -> h.getPricePerShare().multiply(BigDecimal.valueOf(h.getShares())), 
-                        BigDecimal::add)
-                ));
-
+        // Sector exposure
+        Map<String, BigDecimal> sectorExposure = analytics.getSectorValues();
         StringBuilder sectorSummary = new StringBuilder();
         if (sectorExposure.isEmpty()) {
             sectorSummary.append("No sector data available for holdings\n");
         } else {
             for (Map.Entry<String, BigDecimal> entry : sectorExposure.entrySet()) {
-                BigDecimal percentage = entry.getValue().divide(totalValue, 4, RoundingMode.HALF_UP)
-                        .multiply(BigDecimal.valueOf(100));
                 sectorSummary.append(String.format("• %s: %.1f%% ($%,.2f)\n", 
                         entry.getKey(), 
-                        percentage.doubleValue(),
+                        analytics.getSectorWeight(entry.getKey()),
                         entry.getValue()));
             }
         }
 
-        // Calculate asset class breakdown
-        Map<String, BigDecimal> assetClassExposure = holdings.stream()
-                .filter(h -> h.getAssetType() != null && !h.getAssetType().isEmpty())
-                .collect(Collectors.groupingBy(
-                    Holding::getAssetType,
-                    Collectors.reducing(BigDecimal.ZERO, 
-                        h -> h.getPricePerShare().multiply(BigDecimal.valueOf(h.getShares())), 
-                        BigDecimal::add)
-                ));
-
+        // Asset class breakdown
+        Map<String, BigDecimal> assetClassExposure = analytics.getAssetClassValues();
         StringBuilder assetClassSummary = new StringBuilder();
         if (assetClassExposure.isEmpty()) {
             assetClassSummary.append("No asset class data available for holdings\n");
         } else {
             for (Map.Entry<String, BigDecimal> entry : assetClassExposure.entrySet()) {
-                BigDecimal percentage = entry.getValue().divide(totalValue, 4, RoundingMode.HALF_UP)
-                        .multiply(BigDecimal.valueOf(100));
                 assetClassSummary.append(String.format("• %s: %.1f%% ($%,.2f)\n", 
                         entry.getKey(), 
-                        percentage.doubleValue(),
+                        analytics.getAssetClassWeight(entry.getKey()),
                         entry.getValue()));
             }
         }
 
-        // Calculate risk metrics
-        BigDecimal totalDividendIncome = BigDecimal.ZERO;
-        BigDecimal weightedBeta = BigDecimal.ZERO;
-        BigDecimal totalBetaWeight = BigDecimal.ZERO;
-        int holdingsWithBeta = 0;
-        int holdingsWithYield = 0;
-
-        for (Holding holding : holdings) {
-            BigDecimal holdingValue = holding.getPricePerShare().multiply(BigDecimal.valueOf(holding.getShares()));
-            
-            if (holding.getBeta() != null) {
-                weightedBeta = weightedBeta.add(holdingValue.multiply(BigDecimal.valueOf(holding.getBeta())));
-                totalBetaWeight = totalBetaWeight.add(holdingValue);
-                holdingsWithBeta++;
-            }
-            
-            if (holding.getDividendYield() != null) {
-                BigDecimal annualDividend = holdingValue.multiply(BigDecimal.valueOf(holding.getDividendYield() / 100));
-                totalDividendIncome = totalDividendIncome.add(annualDividend);
-                holdingsWithYield++;
-            }
-        }
-
-        BigDecimal portfolioBeta = holdingsWithBeta > 0 ? weightedBeta.divide(totalBetaWeight, 2, RoundingMode.HALF_UP) : null;
-        BigDecimal averageDividendYield = holdingsWithYield > 0 ? 
+        // Risk metrics
+        BigDecimal totalDividendIncome = analytics.getAnnualDividendIncome();
+        BigDecimal portfolioBeta = analytics.getPortfolioBeta();
+        BigDecimal averageDividendYield = analytics.getHoldingsWithYield() > 0 && totalValue.signum() != 0 ? 
             totalDividendIncome.divide(totalValue, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100)) : null;
 
         // Build risk metrics summary
@@ -256,13 +337,8 @@ public class InvestmentInsightService {
             riskMetricsSummary.append(String.format("• Annual Dividend Income: $%,.2f\n", totalDividendIncome));
         }
 
-        // Extract tickers for the AI service
-        List<String> tickers = holdings.stream()
-                .map(Holding::getTicker)
-                .toList();
-
         // Create qualitative analysis prompt
-        String enhancedPreferences = String.format(
+        return String.format(
             "=== CLIENT PROFILE ===\n" +
             "Risk Tolerance: %s\n" +
             "Investment Goals: %s\n" +
@@ -302,46 +378,79 @@ public class InvestmentInsightService {
             accountType != null && !accountType.isEmpty() ? accountType : "Not specified",
             assetClassSummary.toString(), sectorSummary.toString(), riskMetricsSummary.toString(), holdingsSummary.toString()
         );
+    }
 
-        InvestmentInsight insight = generateInsight(tickers, enhancedPreferences, clientId);
-        insight.setPortfolioName(portfolio.getName()); // Set the portfolio name
+    /**
+     * Turns the AI response into a persisted insight with hybrid scores
+     */
+    private InvestmentInsight completePortfolioInsight(PortfolioInsightRequest request, AIResponse aiResponse) {
+        InvestmentInsight insight = toInsight(aiResponse, request.client);
+        insight.setPortfolio(request.portfolio);
+        insight.setPortfolioName(request.portfolio.getName()); // Set the portfolio name
         
+        // Calculate mathematical scores and update the insight
+        ScoringTrace trace = scoreInsight(insight, request);
+        
+        // Save the insight with portfolio name and hybrid scores
+        InvestmentInsight saved = metrics.phase(InsightMetrics.Phase.PERSISTENCE).record(() -> insightRepository.save(insight));
+        scoringTraces.add(saved.getId(), trace);
+        scoreHistory.record(saved);
+        dashboardService.refreshClient(request.client.getId());
+        return saved;
+    }
 
-        
-        // Save the insight with portfolio name BEFORE calculating scores
-        insight = insightRepository.save(insight);
-        
+    /**
+     * Degraded result used while the AI service is unavailable: mathematical scores only,
+     * flagged as AI-pending so it can be regenerated once the service recovers
+     */
+    private InvestmentInsight completePortfolioInsightWithoutAi(PortfolioInsightRequest request) {
+        InvestmentInsight insight = new InvestmentInsight();
+        insight.setSummary("AI analysis pending - scores calculated from current holdings");
+        insight.setCreatedAt(LocalDateTime.now(java.time.ZoneId.of("America/New_York")));
+        insight.setClient(request.client);
+        insight.setPortfolio(request.portfolio);
+        insight.setPortfolioName(request.portfolio.getName());
+        insight.setAiPending(true);
 
-        
-        // Calculate mathematical scores and update the insight
-        calculateMathematicalScores(insight, holdings, totalValue, client);
-        
-        // Save the updated insight with hybrid scores back to the database
-        insight = insightRepository.save(insight);
-        
-        return insight;
+        ScoringTrace trace = scoreInsight(insight, request);
+
+        InvestmentInsight saved = metrics.phase(InsightMetrics.Phase.PERSISTENCE).record(() -> insightRepository.save(insight));
+        scoringTraces.add(saved.getId(), trace);
+        scoreHistory.record(saved);
+        dashboardService.refreshClient(request.client.getId());
+        return saved;
     }
 
-    public List<InvestmentInsight> getInsightsByClient(Long clientId) {
-        Client client = clientRepository.findById(clientId)
-                .orElseThrow(() -> new RuntimeException("Client not found with id: " + clientId));
-        List<InvestmentInsight> insights = insightRepository.findByClientOrderByCreatedAtDesc(client);
-        
+    // Hybrid scoring and priority validation, timed as separate phases; the trace is published once the insight has an id
+    private ScoringTrace scoreInsight(InvestmentInsight insight, PortfolioInsightRequest request) {
+        ScoringTrace trace = scoringTraces.start();
+        metrics.phase(InsightMetrics.Phase.SCORING)
+                .record(() -> applyHybridScores(insight, request.analytics, request.vector, request.client, trace));
+        metrics.phase(InsightMetrics.Phase.PRIORITY_VALIDATION)
+                .record(() -> validateInsightPriorities(insight, request.analytics, request.client, trace));
+        return trace;
+    }
 
-        
-        return insights;
+    // Most recent sampled scoring trace for the insight, while it is still in the buffer
+    public Optional<ScoringTrace> getScoringTrace(Long insightId) {
+        return scoringTraces.find(insightId);
+    }
+
+    public List<InsightSummary> getInsightsByClient(Long clientId) {
+        if (!clientRepository.existsById(clientId)) {
+            throw new RuntimeException("Client not found with id: " + clientId);
+        }
+        return insightRepository.findSummariesByClientId(clientId);
     }
 
-    public ResponseEntity<List<InvestmentInsight>> getInsightsByPortfolio(Long portfolioId) {
+    public ResponseEntity<List<InsightSummary>> getInsightsByPortfolio(Long portfolioId) {
         try {
-            // Get the portfolio to find the client
-            Portfolio portfolio = portfolioRepository.findById(portfolioId)
-                    .orElseThrow(() -> new RuntimeException("Portfolio not found with id: " + portfolioId));
-            
-            // Get insights for the client who owns this portfolio
-            List<InvestmentInsight> insights = insightRepository.findByClientOrderByCreatedAtDesc(portfolio.getClient());
-            
+            if (!portfolioRepository.existsById(portfolioId)) {
+                throw new RuntimeException("Portfolio not found with id: " + portfolioId);
+            }
 
+            // Only insights generated for this portfolio, newest first
+            List<InsightSummary> insights = insightRepository.findSummariesByPortfolioId(portfolioId);
             
             return ResponseEntity.ok(insights);
         } catch (RuntimeException e) {
@@ -349,45 +458,83 @@ public class InvestmentInsightService {
         }
     }
 
+    // Newest insight for each of the client's portfolios
+    public List<InsightSummary> getLatestInsightsPerPortfolio(Long clientId) {
+        if (!clientRepository.existsById(clientId)) {
+            throw new RuntimeException("Client not found with id: " + clientId);
+        }
+        return insightRepository.findLatestSummariesPerPortfolioByClientId(clientId);
+    }
+
+    /**
+     * Insights recommending the given ticker and/or priority, matched in SQL against the JSONB column
+     */
+    public List<InvestmentInsight> findInsightsByRecommendation(String ticker, String priority) {
+        String tickerFilter = ticker != null && !ticker.isBlank() ? ticker.trim().toUpperCase() : null;
+        String priorityFilter = priority != null && !priority.isBlank() ? priority.trim().toUpperCase() : null;
+        if (tickerFilter == null && priorityFilter == null) {
+            throw new RuntimeException("A ticker or priority is required");
+        }
+        List<Long> ids = insightRepository.findIdsByRecommendation(tickerFilter, priorityFilter);
+        return ids.isEmpty() ? List.of() : insightRepository.findByIdInOrderByCreatedAtDesc(ids);
+    }
+
     public InvestmentInsight getInsightById(Long insightId) {
-        return insightRepository.findById(insightId)
+        return insightRepository.findWithClientById(insightId)
                 .orElseThrow(() -> new RuntimeException("Insight not found with id: " + insightId));
     }
 
     public void deleteInsight(Long insightId) {
         InvestmentInsight insight = getInsightById(insightId);
         insightRepository.delete(insight);
+        dashboardService.refreshClient(insight.getClient() != null ? insight.getClient().getId() : null);
     }
 
     /**
-     * Calculate mathematical scores and apply AI adjustments for hybrid scoring
+     * Calculate mathematical scores and apply AI adjustments for hybrid scoring, then
+     * re-validate the recommendation priorities. Each step is recorded on the trace;
+     * pass {@link ScoringTrace#disabled()} when nothing should be recorded.
      */
-    private void calculateMathematicalScores(InvestmentInsight insight, List<Holding> holdings, 
-                                           BigDecimal totalValue, Client client) {
-        
-        // Calculate mathematical base scores
-        int baseRiskScore = calculateRiskScore(holdings, totalValue, client.getRiskTolerance());
-        int baseDiversificationScore = calculateDiversificationScore(holdings, totalValue);
-        int baseGoalAlignmentScore = calculateGoalAlignmentScore(holdings, totalValue, client);
+    static void calculateMathematicalScores(InvestmentInsight insight, PortfolioAnalytics analytics, Client client, ScoringTrace trace) {
+        applyHybridScores(insight, analytics, ScoringEngine.PortfolioVector.of(analytics.getHoldings()), client, trace);
+        validateInsightPriorities(insight, analytics, client, trace);
+    }
+
+    /**
+     * Mathematical base scores plus AI adjustments, written to the insight with its debugInfo.
+     * The vector is null when the holdings do not fit the fixed-point engine.
+     */
+    static void applyHybridScores(InvestmentInsight insight, PortfolioAnalytics analytics, ScoringEngine.PortfolioVector vector,
+                                  Client client, ScoringTrace trace) {
+        
+        // Calculate mathematical base scores, on the fixed-point engine whenever the holdings fit it
+        int baseRiskScore;
+        int baseDiversificationScore;
+        int baseGoalAlignmentScore;
+        if (vector != null) {
+            baseRiskScore = ScoringEngine.riskScore(vector, client.getRiskTolerance());
+            baseDiversificationScore = ScoringEngine.diversificationScore(vector);
+            baseGoalAlignmentScore = ScoringEngine.goalAlignmentScore(vector, client.getRiskTolerance(), client.getAnnualIncomeGoal());
+        } else {
+            baseRiskScore = calculateRiskScore(analytics, client.getRiskTolerance());
+            baseDiversificationScore = calculateDiversificationScore(analytics);
+            baseGoalAlignmentScore = calculateGoalAlignmentScore(analytics, client);
+        }
         
-        // Debug: Show mathematical calculations
-        System.out.println("=== MATHEMATICAL SCORE CALCULATION DEBUG ===");
-        System.out.println("Base Mathematical Risk Score: " + baseRiskScore);
-        System.out.println("Base Mathematical Diversification Score: " + baseDiversificationScore);
-        System.out.println("Base Mathematical Goal Alignment Score: " + baseGoalAlignmentScore);
-        System.out.println("=============================================");
+        trace.record("base_scores", null,
+                "engine", vector != null ? "fixed_point" : "fallback",
+                "riskTolerance", client.getRiskTolerance(), "holdingsCount", analytics.getHoldingCount(),
+                "riskScore", baseRiskScore, "diversificationScore", baseDiversificationScore,
+                "goalAlignmentScore", baseGoalAlignmentScore);
         
         // Apply AI adjustments if available
         int finalRiskScore = baseRiskScore;
         int finalDiversificationScore = baseDiversificationScore;
         int finalGoalAlignmentScore = baseGoalAlignmentScore;
-        StructuredInsight structuredInsight = null;
+        StructuredInsight structuredInsight = insight.getStructuredData();
         
-        if (insight.getStructuredData() != null) {
+        if (structuredInsight != null) {
             try {
-                ObjectMapper mapper = new ObjectMapper();
-                structuredInsight = mapper.readValue(insight.getStructuredData(), StructuredInsight.class);
-                
                 if (structuredInsight.scoreAdjustments != null) {
                     // Apply risk score adjustment
                     if (structuredInsight.scoreAdjustments.containsKey("risk")) {
@@ -396,7 +543,9 @@ public class InvestmentInsightService {
                         if (adjustmentStr != null) {
                             int adjustment = Integer.parseInt(adjustmentStr);
                             finalRiskScore = Math.max(1, Math.min(10, baseRiskScore + adjustment));
-                            System.out.println("AI Risk Adjustment: " + adjustment + " (Reasoning: " + riskAdjustment.get("reasoning") + ")");
+                            trace.record("ai_risk_adjustment", finalRiskScore - baseRiskScore,
+                                    "requested", adjustment, "reasoning", riskAdjustment.get("reasoning"),
+                                    "base", baseRiskScore, "final", finalRiskScore);
                         }
                     }
                     
@@ -408,7 +557,9 @@ public class InvestmentInsightService {
                             int adjustment = Integer.parseInt(adjustmentStr.replace("%", ""));
                             // Allow larger adjustments up to ±10%
                             finalDiversificationScore = Math.max(1, Math.min(100, baseDiversificationScore + adjustment));
-                            System.out.println("AI Diversification Adjustment: " + adjustment + "% (Reasoning: " + divAdjustment.get("reasoning") + ")");
+                            trace.record("ai_diversification_adjustment", finalDiversificationScore - baseDiversificationScore,
+                                    "requested", adjustment, "reasoning", divAdjustment.get("reasoning"),
+                                    "base", baseDiversificationScore, "final", finalDiversificationScore);
                         }
                     }
                     
@@ -420,23 +571,19 @@ public class InvestmentInsightService {
                             int adjustment = Integer.parseInt(adjustmentStr.replace("%", ""));
                             // Allow larger adjustments up to ±10%
                             finalGoalAlignmentScore = Math.max(1, Math.min(100, baseGoalAlignmentScore + adjustment));
-                            System.out.println("AI Goal Alignment Adjustment: " + adjustment + "% (Reasoning: " + goalAdjustment.get("reasoning") + ")");
+                            trace.record("ai_goal_alignment_adjustment", finalGoalAlignmentScore - baseGoalAlignmentScore,
+                                    "requested", adjustment, "reasoning", goalAdjustment.get("reasoning"),
+                                    "base", baseGoalAlignmentScore, "final", finalGoalAlignmentScore);
                         }
                     }
                 }
             } catch (Exception e) {
                 System.err.println("Error parsing AI score adjustments: " + e.getMessage());
+                trace.record("ai_adjustments_unparseable", null, "error", e.getMessage());
                 // Fall back to base scores only
             }
         }
         
-        // Debug: Show hybrid calculations
-        System.out.println("=== HYBRID SCORE CALCULATION DEBUG ===");
-        System.out.println("Base Risk Score: " + baseRiskScore + " -> Final Risk Score: " + finalRiskScore);
-        System.out.println("Base Diversification Score: " + baseDiversificationScore + " -> Final Diversification Score: " + finalDiversificationScore);
-        System.out.println("Base Goal Alignment Score: " + baseGoalAlignmentScore + " -> Final Goal Alignment Score: " + finalGoalAlignmentScore);
-        System.out.println("=====================================");
-        
         // Store debug information in the insight for frontend display
         Map<String, Object> debugInfo = new HashMap<>();
         debugInfo.put("baseRiskScore", baseRiskScore);
@@ -449,35 +596,27 @@ public class InvestmentInsightService {
         
         // Add portfolio statistics for verification
         Map<String, Object> portfolioStats = new HashMap<>();
-        portfolioStats.put("totalValue", totalValue);
-        portfolioStats.put("holdingsCount", holdings.size());
+        portfolioStats.put("totalValue", analytics.getTotalValue());
+        portfolioStats.put("holdingsCount", analytics.getHoldingCount());
         portfolioStats.put("clientRiskTolerance", client.getRiskTolerance());
         portfolioStats.put("clientGoal", client.getInvestmentGoals());
         portfolioStats.put("clientTimeHorizon", client.getYearsUntilGoal());
+        portfolioStats.put("sectorDistribution", analytics.getSectorValues());
         
-        // Calculate sector distribution
-        Map<String, BigDecimal> sectorDistribution = new HashMap<>();
-        for (Holding holding : holdings) {
-            String sector = holding.getSector();
-            BigDecimal value = new BigDecimal(holding.getShares()).multiply(holding.getPricePerShare());
-            sectorDistribution.merge(sector, value, BigDecimal::add);
-        }
-        portfolioStats.put("sectorDistribution", sectorDistribution);
-        
-        // Calculate top holdings
-        List<Map<String, Object>> topHoldings = holdings.stream()
-            .sorted((h1, h2) -> new BigDecimal(h2.getShares()).multiply(h2.getPricePerShare())
-                .compareTo(new BigDecimal(h1.getShares()).multiply(h1.getPricePerShare())))
+        // Top holdings by value
+        List<Holding> holdings = analytics.getHoldings();
+        List<Map<String, Object>> topHoldings = java.util.stream.IntStream.range(0, holdings.size()).boxed()
+            .sorted((i1, i2) -> analytics.getValue(i2).compareTo(analytics.getValue(i1)))
             .limit(5)
-            .map(holding -> {
+            .map(i -> {
+                Holding holding = holdings.get(i);
                 Map<String, Object> holdingInfo = new HashMap<>();
                 holdingInfo.put("symbol", holding.getTicker());
                 holdingInfo.put("sector", holding.getSector());
                 holdingInfo.put("shares", holding.getShares());
                 holdingInfo.put("pricePerShare", holding.getPricePerShare());
-                holdingInfo.put("value", new BigDecimal(holding.getShares()).multiply(holding.getPricePerShare()));
-                holdingInfo.put("percentage", new BigDecimal(holding.getShares()).multiply(holding.getPricePerShare())
-                    .divide(totalValue, 4, RoundingMode.HALF_UP).multiply(new BigDecimal("100")));
+                holdingInfo.put("value", analytics.getValue(i));
+                holdingInfo.put("percentage", analytics.getWeight(i));
                 return holdingInfo;
             })
             .collect(Collectors.toList());
@@ -485,34 +624,21 @@ public class InvestmentInsightService {
         
         debugInfo.put("portfolioStats", portfolioStats);
         
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            insight.setDebugInfo(mapper.writeValueAsString(debugInfo));
-        } catch (Exception e) {
-            System.err.println("Error storing debug info: " + e.getMessage());
-        }
+        insight.setDebugInfo(debugInfo);
         
         // Update the insight with hybrid scores
         insight.setRiskScore(finalRiskScore);
         insight.setDiversificationScore(finalDiversificationScore);
         insight.setGoalAlignment(finalGoalAlignmentScore);
-        
-        // Validate and potentially adjust asset recommendation priorities
-        if (structuredInsight != null && structuredInsight.assetRecommendations != null) {
-            validateAssetRecommendationPriorities(structuredInsight.assetRecommendations, holdings, client);
-        }
-        
-        // Debug: Log the final scores being saved
-        System.out.println("=== FINAL SCORES BEING SAVED ===");
-        System.out.println("Risk Score: " + finalRiskScore);
-        System.out.println("Diversification Score: " + finalDiversificationScore);
-        System.out.println("Goal Alignment: " + finalGoalAlignmentScore);
-        System.out.println("=================================");
+
+        trace.record("final_scores", null,
+                "riskScore", finalRiskScore, "diversificationScore", finalDiversificationScore,
+                "goalAlignmentScore", finalGoalAlignmentScore);
     }
     
 
 
-    private int calculateRiskScore(List<Holding> holdings, BigDecimal totalValue, String riskTolerance) {
+    static int calculateRiskScore(PortfolioAnalytics analytics, String riskTolerance) {
         // Base risk score based on risk tolerance
         double riskScore;
         switch (riskTolerance.toLowerCase()) {
@@ -527,35 +653,14 @@ public class InvestmentInsightService {
                 break;
         }
         
-        // Calculate portfolio beta (weighted average)
-        BigDecimal weightedBeta = BigDecimal.ZERO;
-        BigDecimal totalBetaWeight = BigDecimal.ZERO;
-        
-        for (Holding holding : holdings) {
-            if (holding.getBeta() != null) {
-                BigDecimal holdingValue = holding.getPricePerShare().multiply(BigDecimal.valueOf(holding.getShares()));
-                weightedBeta = weightedBeta.add(holdingValue.multiply(BigDecimal.valueOf(holding.getBeta())));
-                totalBetaWeight = totalBetaWeight.add(holdingValue);
-            }
-        }
-        
-        double portfolioBeta = 1.0; // Default beta
-        if (totalBetaWeight.compareTo(BigDecimal.ZERO) > 0) {
-            portfolioBeta = weightedBeta.divide(totalBetaWeight, 2, RoundingMode.HALF_UP).doubleValue();
-        }
+        double portfolioBeta = calculatePortfolioBeta(analytics);
         
         // Concentration adjustments (more granular)
-        for (Holding holding : holdings) {
-            BigDecimal holdingValue = holding.getPricePerShare().multiply(BigDecimal.valueOf(holding.getShares()));
-            double percentage = holdingValue.divide(totalValue, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100)).doubleValue();
+        int holdingCount = analytics.getHoldingCount();
+        for (int i = 0; i < holdingCount; i++) {
+            double percentage = analytics.getWeight(i);
             
-            // Check if this is an ETF (less risky than individual stocks)
-            boolean isETF = holding.getAssetType() != null && 
-                (holding.getAssetType().toLowerCase().contains("etf") || 
-                 holding.getAssetType().toLowerCase().contains("fund"));
-            
-            if (isETF) {
+            if (analytics.isEtf(i)) {
                 // ETFs get reduced concentration penalties
                 if (percentage > 50) riskScore += 1.5;      // Extreme concentration (was 3.0)
                 else if (percentage > 40) riskScore += 1.0; // Very concentrated (was 2.0)
@@ -573,28 +678,10 @@ public class InvestmentInsightService {
         }
         
         // Sector concentration adjustments
-        Map<String, BigDecimal> sectorExposure = holdings.stream()
-                .filter(h -> h.getSector() != null && !h.getSector().isEmpty())
-                .collect(Collectors.groupingBy(
-                    Holding::getSector,
-                    Collectors.reducing(BigDecimal.ZERO, 
-                        h -> h.getPricePerShare().multiply(BigDecimal.valueOf(h.getShares())), 
-                        BigDecimal::add)
-                ));
-        
-        for (Map.Entry<String, BigDecimal> entry : sectorExposure.entrySet()) {
-            double percentage = entry.getValue().divide(totalValue, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100)).doubleValue();
+        for (String sectorName : analytics.getSectorValues().keySet()) {
+            double percentage = analytics.getSectorWeight(sectorName);
             
-            // Check if this sector is primarily ETFs (less risky)
-            String sectorName = entry.getKey();
-            boolean isETFSector = holdings.stream()
-                .filter(h -> h.getSector() != null && h.getSector().equals(sectorName))
-                .allMatch(h -> h.getAssetType() != null && 
-                    (h.getAssetType().toLowerCase().contains("etf") || 
-                     h.getAssetType().toLowerCase().contains("fund")));
-            
-            if (isETFSector) {
+            if (analytics.isEtfOnlySector(sectorName)) {
                 // ETF sectors get reduced risk penalties
                 if (percentage > 70) riskScore += 1.0;      // Extreme sector concentration (was 2.0)
                 else if (percentage > 60) riskScore += 0.75; // Very concentrated sector (was 1.5)
@@ -619,37 +706,24 @@ public class InvestmentInsightService {
         else if (portfolioBeta < 0.7) riskScore -= 0.5;  // Very low volatility
         
         // Asset class diversification bonus
-        Map<String, BigDecimal> assetClassExposure = holdings.stream()
-                .filter(h -> h.getAssetType() != null && !h.getAssetType().isEmpty())
-                .collect(Collectors.groupingBy(
-                    Holding::getAssetType,
-                    Collectors.reducing(BigDecimal.ZERO, 
-                        h -> h.getPricePerShare().multiply(BigDecimal.valueOf(h.getShares())), 
-                        BigDecimal::add)
-                ));
-        
-        if (assetClassExposure.size() >= 3) {
+        int assetClassCount = analytics.getAssetClassValues().size();
+        if (assetClassCount >= 3) {
             riskScore -= 0.5; // Diversification bonus for 3+ asset classes
-        } else if (assetClassExposure.size() == 1) {
+        } else if (assetClassCount == 1) {
             riskScore += 1.0; // Penalty for single asset class
-        } else if (assetClassExposure.size() == 2) {
+        } else if (assetClassCount == 2) {
             riskScore += 0.5; // Small penalty for limited asset classes
         }
         
         // ETF risk reduction bonus (ETFs provide inherent diversification)
-        long etfCount = holdings.stream()
-            .filter(h -> h.getAssetType() != null && 
-                (h.getAssetType().toLowerCase().contains("etf") || 
-                 h.getAssetType().toLowerCase().contains("fund")))
-            .count();
-        
+        int etfCount = analytics.getEtfCount();
         if (etfCount >= 3) riskScore -= 1.0; // Multiple ETFs significantly reduce risk
         else if (etfCount >= 2) riskScore -= 0.5; // Two ETFs reduce risk
         else if (etfCount >= 1) riskScore -= 0.25; // One ETF reduces risk slightly
         
         // Quality adjustments for blue-chip holdings
-        for (Holding holding : holdings) {
-            String ticker = holding.getTicker().toUpperCase();
+        for (int i = 0; i < holdingCount; i++) {
+            String ticker = analytics.getUpperTicker(i);
             if (ticker.equals("MSFT") || ticker.equals("AAPL") || ticker.equals("KO") || 
                 ticker.equals("GOOGL") || ticker.equals("AMZN") || ticker.equals("TSLA")) {
                 riskScore -= 0.25; // Blue-chip discount
@@ -666,66 +740,36 @@ public class InvestmentInsightService {
         return Math.max(1, Math.min(10, (int) Math.round(riskScore)));
     }
 
-    private int calculateDiversificationScore(List<Holding> holdings, BigDecimal totalValue) {
-        // Calculate sector diversification
-        Map<String, BigDecimal> sectorExposure = holdings.stream()
-                .filter(h -> h.getSector() != null && !h.getSector().isEmpty())
-                .collect(Collectors.groupingBy(
-                    Holding::getSector,
-                    Collectors.reducing(BigDecimal.ZERO, 
-                        h -> h.getPricePerShare().multiply(BigDecimal.valueOf(h.getShares())), 
-                        BigDecimal::add)
-                ));
-        
-        // Calculate asset class diversification
-        Map<String, BigDecimal> assetClassExposure = holdings.stream()
-                .filter(h -> h.getAssetType() != null && !h.getAssetType().isEmpty())
-                .collect(Collectors.groupingBy(
-                    Holding::getAssetType,
-                    Collectors.reducing(BigDecimal.ZERO, 
-                        h -> h.getPricePerShare().multiply(BigDecimal.valueOf(h.getShares())), 
-                        BigDecimal::add)
-                ));
+    static int calculateDiversificationScore(PortfolioAnalytics analytics) {
+        int sectorCount = analytics.getSectorValues().size();
+        int assetClassCount = analytics.getAssetClassValues().size();
         
         // Base diversification score based on number of sectors
         double diversificationScore;
-        if (sectorExposure.size() >= 5) diversificationScore = 80.0;
-        else if (sectorExposure.size() >= 4) diversificationScore = 65.0;
-        else if (sectorExposure.size() >= 3) diversificationScore = 50.0;
-        else if (sectorExposure.size() >= 2) diversificationScore = 35.0;
+        if (sectorCount >= 5) diversificationScore = 80.0;
+        else if (sectorCount >= 4) diversificationScore = 65.0;
+        else if (sectorCount >= 3) diversificationScore = 50.0;
+        else if (sectorCount >= 2) diversificationScore = 35.0;
         else diversificationScore = 20.0;
         
         // Asset class bonus
-        if (assetClassExposure.size() >= 4) diversificationScore += 30;
-        else if (assetClassExposure.size() >= 3) diversificationScore += 20;
-        else if (assetClassExposure.size() >= 2) diversificationScore += 10;
+        if (assetClassCount >= 4) diversificationScore += 30;
+        else if (assetClassCount >= 3) diversificationScore += 20;
+        else if (assetClassCount >= 2) diversificationScore += 10;
         
         // ETF diversification bonus (ETFs provide inherent diversification)
-        long etfCount = holdings.stream()
-            .filter(h -> h.getAssetType() != null && 
-                (h.getAssetType().toLowerCase().contains("etf") || 
-                 h.getAssetType().toLowerCase().contains("fund")))
-            .count();
-        
+        int etfCount = analytics.getEtfCount();
         if (etfCount >= 3) diversificationScore += 15; // Multiple ETFs provide good diversification
         else if (etfCount >= 2) diversificationScore += 10; // Two ETFs provide some diversification
         else if (etfCount >= 1) diversificationScore += 5; // One ETF provides some diversification
         
-
-        
         // Single holding concentration penalties (only for holdings >15%)
-        for (Holding holding : holdings) {
-            BigDecimal holdingValue = holding.getPricePerShare().multiply(BigDecimal.valueOf(holding.getShares()));
-            double percentage = holdingValue.divide(totalValue, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100)).doubleValue();
-            
-            // Check if this is an ETF (less penalized than individual stocks)
-            boolean isETF = holding.getAssetType() != null && 
-                (holding.getAssetType().toLowerCase().contains("etf") || 
-                 holding.getAssetType().toLowerCase().contains("fund"));
+        int holdingCount = analytics.getHoldingCount();
+        for (int i = 0; i < holdingCount; i++) {
+            double percentage = analytics.getWeight(i);
             
             double penalty = 0;
-            if (isETF) {
+            if (analytics.isEtf(i)) {
                 // ETFs get reduced penalties since they provide inherent diversification
                 if (percentage > 50) penalty = 15; // Extreme concentration (was 25)
                 else if (percentage > 40) penalty = 12; // Very concentrated (was 20)
@@ -747,20 +791,11 @@ public class InvestmentInsightService {
         }
         
         // Sector concentration penalties (only for sectors >20%)
-        for (Map.Entry<String, BigDecimal> entry : sectorExposure.entrySet()) {
-            double percentage = entry.getValue().divide(totalValue, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100)).doubleValue();
-            
-            // Check if this sector is primarily ETFs (less penalized)
-            String sectorName = entry.getKey();
-            boolean isETFSector = holdings.stream()
-                .filter(h -> h.getSector() != null && h.getSector().equals(sectorName))
-                .allMatch(h -> h.getAssetType() != null && 
-                    (h.getAssetType().toLowerCase().contains("etf") || 
-                     h.getAssetType().toLowerCase().contains("fund")));
+        for (String sectorName : analytics.getSectorValues().keySet()) {
+            double percentage = analytics.getSectorWeight(sectorName);
             
             double penalty = 0;
-            if (isETFSector) {
+            if (analytics.isEtfOnlySector(sectorName)) {
                 // ETF sectors get reduced penalties
                 if (percentage > 60) penalty = 12; // Extreme sector concentration (was 20)
                 else if (percentage > 50) penalty = 8; // Very concentrated sector (was 15)
@@ -782,50 +817,28 @@ public class InvestmentInsightService {
         }
         
         // Geographic diversification bonus (if international holdings present)
-        boolean hasInternational = holdings.stream()
-                .anyMatch(h -> h.getSector() != null && 
-                    (h.getSector().toLowerCase().contains("international") || 
-                     h.getSector().toLowerCase().contains("global")));
-        
+        boolean hasInternational = analytics.hasInternationalSector();
         if (hasInternational) {
             diversificationScore += 10; // International diversification bonus
         }
         
         // Additional check for international exposure by ticker
-        boolean hasInternationalTicker = holdings.stream()
-                .anyMatch(h -> h.getTicker() != null && 
-                    (h.getTicker().toUpperCase().contains("VXUS") || 
-                     h.getTicker().toUpperCase().contains("EFA") ||
-                     h.getTicker().toUpperCase().contains("EEM")));
-        
-        if (hasInternationalTicker && !hasInternational) {
+        if (analytics.hasInternationalTicker() && !hasInternational) {
             diversificationScore += 10; // International diversification bonus
         }
         
-
-        
         // Ensure score is within 1-100 range
         return Math.max(1, Math.min(100, (int) Math.round(diversificationScore)));
     }
 
-    private int calculateGoalAlignmentScore(List<Holding> holdings, BigDecimal totalValue, Client client) {
+    static int calculateGoalAlignmentScore(PortfolioAnalytics analytics, Client client) {
         // Base score starts at 50
         double goalAlignmentScore = 50.0;
         
-        // Calculate dividend income
-        BigDecimal totalDividendIncome = BigDecimal.ZERO;
-        for (Holding holding : holdings) {
-            if (holding.getDividendYield() != null) {
-                BigDecimal holdingValue = holding.getPricePerShare().multiply(BigDecimal.valueOf(holding.getShares()));
-                BigDecimal annualDividend = holdingValue.multiply(BigDecimal.valueOf(holding.getDividendYield() / 100));
-                totalDividendIncome = totalDividendIncome.add(annualDividend);
-            }
-        }
-        
         // Income goal alignment (max 30 points)
         if (client.getAnnualIncomeGoal() != null) {
             double incomeGoal = client.getAnnualIncomeGoal().doubleValue();
-            double currentIncome = totalDividendIncome.doubleValue();
+            double currentIncome = analytics.getAnnualDividendIncome().doubleValue();
             double incomeRatio = currentIncome / incomeGoal;
             
             if (incomeRatio >= 0.8) goalAlignmentScore += 30; // Close to goal
@@ -835,7 +848,7 @@ public class InvestmentInsightService {
         
         // Risk tolerance alignment (max 20 points)
         String riskTolerance = client.getRiskTolerance().toLowerCase();
-        double portfolioBeta = calculatePortfolioBeta(holdings, totalValue);
+        double portfolioBeta = calculatePortfolioBeta(analytics);
         
         if (riskTolerance.equals("conservative") && portfolioBeta < 0.8) goalAlignmentScore += 20;
         else if (riskTolerance.equals("moderate") && portfolioBeta >= 0.8 && portfolioBeta <= 1.2) goalAlignmentScore += 20;
@@ -847,22 +860,29 @@ public class InvestmentInsightService {
         return Math.max(1, Math.min(100, (int) Math.round(goalAlignmentScore)));
     }
 
-    private double calculatePortfolioBeta(List<Holding> holdings, BigDecimal totalValue) {
-        BigDecimal weightedBeta = BigDecimal.ZERO;
-        BigDecimal totalBetaWeight = BigDecimal.ZERO;
-        
-        for (Holding holding : holdings) {
-            if (holding.getBeta() != null) {
-                BigDecimal holdingValue = holding.getPricePerShare().multiply(BigDecimal.valueOf(holding.getShares()));
-                weightedBeta = weightedBeta.add(holdingValue.multiply(BigDecimal.valueOf(holding.getBeta())));
-                totalBetaWeight = totalBetaWeight.add(holdingValue);
-            }
-        }
-        
-        if (totalBetaWeight.compareTo(BigDecimal.ZERO) > 0) {
-            return weightedBeta.divide(totalBetaWeight, 2, RoundingMode.HALF_UP).doubleValue();
+    private static double calculatePortfolioBeta(PortfolioAnalytics analytics) {
+        BigDecimal portfolioBeta = analytics.getPortfolioBeta();
+        return portfolioBeta != null ? portfolioBeta.doubleValue() : 1.0; // Default to market beta if no data
+    }
+
+    // Inner class holding everything loaded and computed before the AI call
+    static class PortfolioInsightRequest {
+        final Portfolio portfolio;
+        final PortfolioAnalytics analytics;
+        final ScoringEngine.PortfolioVector vector;
+        final Client client;
+        final List<String> tickers;
+        final String prompt;
+
+        PortfolioInsightRequest(Portfolio portfolio, PortfolioAnalytics analytics, ScoringEngine.PortfolioVector vector,
+                                Client client, List<String> tickers, String prompt) {
+            this.portfolio = portfolio;
+            this.analytics = analytics;
+            this.vector = vector;
+            this.client = client;
+            this.tickers = tickers;
+            this.prompt = prompt;
         }
-        return 1.0; // Default to market beta if no data
     }
 
     // Inner class for sending request payload
@@ -888,155 +908,79 @@ public class InvestmentInsightService {
         
         @JsonProperty("structuredInsight")
         public StructuredInsight structuredInsight;
+
+        // Shallow copy with a new timestamp, used when serving a cached response
+        AIResponse withCreatedAt(String createdAt) {
+            AIResponse copy = new AIResponse();
+            copy.summary = summary;
+            copy.aiGeneratedText = aiGeneratedText;
+            copy.createdAt = createdAt;
+            copy.structuredInsight = structuredInsight;
+            return copy;
+        }
     }
     
-    // Inner class for asset recommendation
-    static class AssetRecommendation {
-        @JsonProperty("ticker")
-        public String ticker;
-        
-        @JsonProperty("assetName")
-        public String assetName;
-        
-        @JsonProperty("allocation")
-        public String allocation;
-        
-        @JsonProperty("category")
-        public String category;
-        
-        @JsonProperty("reasoning")
-        public String reasoning;
-        
-        @JsonProperty("priority")
-        public String priority;
-        
-        @JsonProperty("expectedImpact")
-        public String expectedImpact;
-    }
-    
-    // Inner class for structured insight data
-    static class StructuredInsight {
-        @JsonProperty("mainRecommendations")
-        public List<String> mainRecommendations;
-        
-        @JsonProperty("sections")
-        public Map<String, Object> sections;
-        
-        @JsonProperty("rawResponse")
-        public String rawResponse;
-        
-        @JsonProperty("qualitativeInsights")
-        public Map<String, String> qualitativeInsights;
-        
-        @JsonProperty("scoreAdjustments")
-        public Map<String, Map<String, String>> scoreAdjustments;
-        
-        @JsonProperty("assetRecommendations")
-        public List<AssetRecommendation> assetRecommendations;
+    // Priority validation for the insight's recommendations, if it has any
+    static void validateInsightPriorities(InvestmentInsight insight, PortfolioAnalytics analytics, Client client, ScoringTrace trace) {
+        StructuredInsight structuredInsight = insight.getStructuredData();
+        if (structuredInsight != null && structuredInsight.assetRecommendations != null) {
+            validateAssetRecommendationPriorities(structuredInsight.assetRecommendations, analytics, client, trace);
+        }
     }
 
     /**
-     * Validates and potentially adjusts asset recommendation priorities based on objective criteria
+     * Validates and potentially adjusts asset recommendation priorities based on objective criteria.
+     * Every priority change is recorded on the trace under the rule that made it.
      */
-    private void validateAssetRecommendationPriorities(List<AssetRecommendation> recommendations, List<Holding> holdings, Client client) {
+    static void validateAssetRecommendationPriorities(List<AssetRecommendation> recommendations, PortfolioAnalytics analytics, Client client, ScoringTrace trace) {
         if (recommendations == null || recommendations.isEmpty()) {
             return;
         }
 
-        // Calculate current portfolio characteristics using sector and asset class data
-        Map<String, BigDecimal> sectorDistribution = new HashMap<>();
-        Map<String, BigDecimal> assetClassDistribution = new HashMap<>();
-        BigDecimal totalValue = BigDecimal.ZERO;
-        
-        // Track portfolio characteristics based on sector and asset class, not specific tickers
-        boolean hasInternationalExposure = false;
-        boolean hasBondExposure = false;
-        boolean hasDividendFocus = false;
-        boolean hasRealEstate = false;
-        boolean hasCommodities = false;
-        boolean hasSmallCap = false;
-        boolean hasLargeCap = false;
-        boolean hasTechnology = false;
-        boolean hasHealthcare = false;
-        boolean hasFinancials = false;
-
-        for (Holding holding : holdings) {
-            BigDecimal value = holding.getPricePerShare().multiply(BigDecimal.valueOf(holding.getShares()));
-            totalValue = totalValue.add(value);
-            
-            String sector = holding.getSector() != null ? holding.getSector().toLowerCase() : "";
-            String assetClass = getAssetClassFromSector(sector);
-            
-            // Track sector distribution
-            sectorDistribution.merge(sector, value, BigDecimal::add);
-            assetClassDistribution.merge(assetClass, value, BigDecimal::add);
-            
-            // Determine portfolio characteristics based on sector/asset class
-            if (sector.contains("international") || sector.contains("global") || 
-                assetClass.contains("international") || assetClass.contains("global")) {
-                hasInternationalExposure = true;
-            }
-            
-            if (sector.contains("bond") || sector.contains("fixed income") || 
-                assetClass.contains("bond") || assetClass.contains("fixed income")) {
-                hasBondExposure = true;
-            }
-            
-            if (sector.contains("dividend") || sector.contains("income") || 
-                assetClass.contains("dividend") || assetClass.contains("income")) {
-                hasDividendFocus = true;
-            }
-            
-            if (sector.contains("real estate") || sector.contains("reit")) {
-                hasRealEstate = true;
-            }
-            
-            if (sector.contains("commodity") || sector.contains("gold") || sector.contains("oil")) {
-                hasCommodities = true;
-            }
-            
-            if (sector.contains("small cap") || sector.contains("small-cap")) {
-                hasSmallCap = true;
-            }
-            
-            if (sector.contains("large cap") || sector.contains("large-cap") || 
-                sector.contains("broad market") || sector.contains("total market")) {
-                hasLargeCap = true;
-            }
-            
-            if (sector.contains("technology") || sector.contains("tech")) {
-                hasTechnology = true;
-            }
-            
-            if (sector.contains("healthcare") || sector.contains("medical")) {
-                hasHealthcare = true;
-            }
-            
-            if (sector.contains("financial") || sector.contains("bank")) {
-                hasFinancials = true;
-            }
-        }
+        // Portfolio characteristics based on sector and asset class, not specific tickers
+        PortfolioAnalytics.SectorProfile profile = analytics.getSectorProfile();
+        boolean hasInternationalExposure = profile.internationalExposure;
+        boolean hasBondExposure = profile.bondExposure;
+        boolean hasDividendFocus = profile.dividendFocus;
+        boolean hasRealEstate = profile.realEstate;
+        boolean hasCommodities = profile.commodities;
+        boolean hasSmallCap = profile.smallCap;
+        boolean hasLargeCap = profile.largeCap;
+        boolean hasTechnology = profile.technology;
+        boolean hasHealthcare = profile.healthcare;
+        boolean hasFinancials = profile.financials;
+        trace.record("sector_profile", null,
+                "international", hasInternationalExposure, "bonds", hasBondExposure, "dividend", hasDividendFocus,
+                "realEstate", hasRealEstate, "commodities", hasCommodities, "smallCap", hasSmallCap,
+                "largeCap", hasLargeCap, "technology", hasTechnology, "healthcare", hasHealthcare,
+                "financials", hasFinancials);
 
         // Validate each recommendation based on category and portfolio gaps
         for (AssetRecommendation rec : recommendations) {
             String category = rec.category.toLowerCase();
             String currentPriority = rec.priority;
             String suggestedPriority = currentPriority; // Default to AI's suggestion
+            String rule = null;
 
             // HIGH PRIORITY validation - check if it's truly high priority
             if (currentPriority.equalsIgnoreCase("HIGH")) {
                 if (category.contains("international") && hasInternationalExposure) {
                     suggestedPriority = "MEDIUM"; // Already has international exposure
+                    rule = "international_already_held";
                 } else if (category.contains("bond") && hasBondExposure && 
                           client.getRiskTolerance().equalsIgnoreCase("conservative")) {
                     suggestedPriority = "MEDIUM"; // Already has bonds and conservative
+                    rule = "bonds_already_held_conservative";
                 } else if (category.contains("dividend") && hasDividendFocus && 
                           client.getInvestmentGoals().toLowerCase().contains("income")) {
                     suggestedPriority = "MEDIUM"; // Already has dividend focus and income goals
+                    rule = "dividend_already_held_income_goal";
                 } else if (category.contains("real estate") && hasRealEstate) {
                     suggestedPriority = "MEDIUM"; // Already has real estate exposure
+                    rule = "real_estate_already_held";
                 } else if (category.contains("commodity") && hasCommodities) {
                     suggestedPriority = "MEDIUM"; // Already has commodity exposure
+                    rule = "commodities_already_held";
                 }
             }
 
@@ -1044,22 +988,30 @@ public class InvestmentInsightService {
             if (currentPriority.equalsIgnoreCase("MEDIUM")) {
                 if (category.contains("international") && !hasInternationalExposure) {
                     suggestedPriority = "HIGH"; // Missing international exposure
+                    rule = "international_missing";
                 } else if (category.contains("bond") && !hasBondExposure && 
                           client.getRiskTolerance().equalsIgnoreCase("conservative")) {
                     suggestedPriority = "HIGH"; // Conservative client missing bonds
+                    rule = "bonds_missing_conservative";
                 } else if (category.contains("dividend") && !hasDividendFocus && 
                           client.getInvestmentGoals().toLowerCase().contains("income")) {
                     suggestedPriority = "HIGH"; // Income goals missing dividend focus
+                    rule = "dividend_missing_income_goal";
                 } else if (category.contains("real estate") && !hasRealEstate) {
                     suggestedPriority = "HIGH"; // Missing real estate diversification
+                    rule = "real_estate_missing";
                 } else if (category.contains("small cap") && !hasSmallCap && hasLargeCap) {
                     suggestedPriority = "HIGH"; // Has large cap but missing small cap
+                    rule = "small_cap_missing";
                 } else if (category.contains("technology") && !hasTechnology) {
                     suggestedPriority = "HIGH"; // Missing technology sector
+                    rule = "technology_missing";
                 } else if (category.contains("healthcare") && !hasHealthcare) {
                     suggestedPriority = "HIGH"; // Missing healthcare sector
+                    rule = "healthcare_missing";
                 } else if (category.contains("financial") && !hasFinancials) {
                     suggestedPriority = "HIGH"; // Missing financial sector
+                    rule = "financials_missing";
                 }
             }
 
@@ -1067,75 +1019,29 @@ public class InvestmentInsightService {
             if (currentPriority.equalsIgnoreCase("LOW")) {
                 if (category.contains("international") && !hasInternationalExposure) {
                     suggestedPriority = "MEDIUM"; // Missing international exposure
+                    rule = "international_missing";
                 } else if (category.contains("bond") && !hasBondExposure && 
                           client.getRiskTolerance().equalsIgnoreCase("conservative")) {
                     suggestedPriority = "MEDIUM"; // Conservative client missing bonds
+                    rule = "bonds_missing_conservative";
                 } else if (category.contains("dividend") && !hasDividendFocus && 
                           client.getInvestmentGoals().toLowerCase().contains("income")) {
                     suggestedPriority = "MEDIUM"; // Income goals missing dividend focus
+                    rule = "dividend_missing_income_goal";
                 } else if (category.contains("real estate") && !hasRealEstate) {
                     suggestedPriority = "MEDIUM"; // Missing real estate diversification
+                    rule = "real_estate_missing";
                 }
             }
 
             // Update priority if validation suggests a change
             if (!suggestedPriority.equals(currentPriority)) {
-                System.out.println("Priority validation: " + rec.ticker + " changed from " + currentPriority + " to " + suggestedPriority);
+                trace.record(rule, currentPriority + " -> " + suggestedPriority,
+                        "ticker", rec.ticker, "category", rec.category,
+                        "riskTolerance", client.getRiskTolerance(), "investmentGoals", client.getInvestmentGoals());
                 rec.priority = suggestedPriority;
             }
         }
     }
 
-    /**
-     * Helper method to determine asset class from sector information
-     */
-    private String getAssetClassFromSector(String sector) {
-        if (sector == null) return "unknown";
-        
-        sector = sector.toLowerCase();
-        
-        if (sector.contains("bond") || sector.contains("fixed income") || sector.contains("treasury")) {
-            return "fixed income";
-        } else if (sector.contains("international") || sector.contains("global") || 
-                   sector.contains("emerging market") || sector.contains("developed market")) {
-            return "international";
-        } else if (sector.contains("dividend") || sector.contains("income")) {
-            return "dividend";
-        } else if (sector.contains("real estate") || sector.contains("reit")) {
-            return "real estate";
-        } else if (sector.contains("commodity") || sector.contains("gold") || sector.contains("oil")) {
-            return "commodity";
-        } else if (sector.contains("small cap") || sector.contains("small-cap")) {
-            return "small cap";
-        } else if (sector.contains("large cap") || sector.contains("large-cap")) {
-            return "large cap";
-        } else if (sector.contains("broad market") || sector.contains("total market")) {
-            return "broad market";
-        } else if (sector.contains("technology") || sector.contains("tech")) {
-            return "technology";
-        } else if (sector.contains("healthcare") || sector.contains("medical")) {
-            return "healthcare";
-        } else if (sector.contains("financial") || sector.contains("bank")) {
-            return "financial";
-        } else if (sector.contains("consumer") || sector.contains("retail")) {
-            return "consumer";
-        } else if (sector.contains("industrial") || sector.contains("manufacturing")) {
-            return "industrial";
-        } else if (sector.contains("energy") || sector.contains("oil") || sector.contains("gas")) {
-            return "energy";
-        } else if (sector.contains("utility") || sector.contains("utilities")) {
-            return "utility";
-        } else if (sector.contains("material") || sector.contains("mining")) {
-            return "materials";
-        } else if (sector.contains("communication") || sector.contains("telecom")) {
-            return "communication";
-        } else if (sector.contains("mutual fund") || sector.contains("fund")) {
-            return "mutual fund";
-        } else if (sector.contains("stock") || sector.contains("equity")) {
-            return "individual stock";
-        }
-        
-        return "equity"; // Default to equity for unknown sectors
-    }
-
 } 
\ No newline at end of file
@@ -0,0 +1,194 @@
+package com.ii.backend.service;
+
+import com.ii.backend.model.Holding;
+import com.ii.backend.model.Portfolio;
+import com.ii.backend.model.PortfolioAggregate;
+import com.ii.backend.repository.HoldingRepository;
+import com.ii.backend.repository.PortfolioAggregateRepository;
+import com.ii.backend.repository.PortfolioRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps one PortfolioAggregate row per portfolio in step with its holdings. Every holding
+ * write locks the owning portfolio row and applies its delta in the same transaction, so
+ * valuation reads are a single primary-key lookup and insight scoring takes its
+ * portfolio-wide terms from the aggregate. Portfolios with no aggregate yet (e.g. demo data
+ * loaded by SQL) are rebuilt from their holdings on first read. Each write also stamps
+ * holdingsChangedAt, which tells rescoring which insights were scored on other holdings.
+ */
+@Service
+public class PortfolioAggregateService {
+
+    // Insight created_at is New York time, and holdingsChangedAt is compared against it
+    private static final ZoneId INSIGHT_ZONE = ZoneId.of("America/New_York");
+
+    private final PortfolioAggregateRepository aggregateRepository;
+    private final PortfolioRepository portfolioRepository;
+    private final HoldingRepository holdingRepository;
+    private final AdvisorDashboardService dashboardService;
+
+    @Autowired
+    public PortfolioAggregateService(PortfolioAggregateRepository aggregateRepository,
+                                     PortfolioRepository portfolioRepository,
+                                     HoldingRepository holdingRepository,
+                                     AdvisorDashboardService dashboardService) {
+        this.aggregateRepository = aggregateRepository;
+        this.portfolioRepository = portfolioRepository;
+        this.holdingRepository = holdingRepository;
+        this.dashboardService = dashboardService;
+    }
+
+    @Transactional
+    public PortfolioAggregate getAggregate(Long portfolioId) {
+        if (!portfolioRepository.existsById(portfolioId)) {
+            throw new RuntimeException("Portfolio not found: " + portfolioId);
+        }
+        return findOrRebuild(portfolioId);
+    }
+
+    /**
+     * Scoring engine layout for a portfolio whose holdings are already loaded; null when the
+     * values overflow the fixed-point engine
+     */
+    @Transactional
+    public ScoringEngine.PortfolioVector scoringVector(Long portfolioId, List<Holding> holdings) {
+        return ScoringEngine.PortfolioVector.of(findOrRebuild(portfolioId), holdings);
+    }
+
+    @Transactional
+    public Holding saveHolding(Holding holding) {
+        Long portfolioId = portfolioIdOf(holding);
+        // An update may move value between portfolios, so both are recomputed from scratch
+        Optional<Holding> existing = holding.getId() != null ? holdingRepository.findById(holding.getId()) : Optional.empty();
+        boolean isUpdate = existing.isPresent();
+        Long previousPortfolioId = existing.map(PortfolioAggregateService::portfolioIdOf).orElse(null);
+
+        PortfolioAggregate aggregate = null;
+        if (portfolioId != null) {
+            holding.setPortfolio(lockPortfolio(portfolioId));
+            aggregate = aggregateRepository.findById(portfolioId).orElse(null);
+        }
+
+        Holding saved = holdingRepository.save(holding);
+
+        if (isUpdate) {
+            if (previousPortfolioId != null && !previousPortfolioId.equals(portfolioId)) {
+                lockPortfolio(previousPortfolioId);
+                markHoldingsChanged(rebuild(previousPortfolioId));
+            }
+            if (portfolioId != null) {
+                markHoldingsChanged(rebuild(portfolioId));
+            }
+        } else if (portfolioId != null) {
+            if (aggregate == null) {
+                aggregate = rebuild(portfolioId);
+            } else {
+                aggregate.addHolding(saved);
+            }
+            markHoldingsChanged(aggregate);
+        }
+        if (previousPortfolioId != null && !previousPortfolioId.equals(portfolioId)) {
+            refreshDashboard(previousPortfolioId);
+        }
+        refreshDashboard(portfolioId);
+        return saved;
+    }
+
+    @Transactional
+    public boolean deleteHolding(Long holdingId) {
+        Holding holding = holdingRepository.findById(holdingId).orElse(null);
+        if (holding == null) {
+            return false;
+        }
+        Long portfolioId = portfolioIdOf(holding);
+        if (portfolioId != null) {
+            lockPortfolio(portfolioId);
+            PortfolioAggregate aggregate = findOrRebuild(portfolioId);
+            aggregate.removeHolding(holding);
+            markHoldingsChanged(aggregate);
+        }
+        holdingRepository.delete(holding);
+        refreshDashboard(portfolioId);
+        return true;
+    }
+
+    @Transactional
+    public int deleteHoldingsByPortfolio(Long portfolioId) {
+        boolean exists = portfolioRepository.existsById(portfolioId);
+        if (exists) {
+            lockPortfolio(portfolioId);
+        }
+        int deleted = holdingRepository.deleteInBulkByPortfolioId(portfolioId);
+        if (exists) {
+            PortfolioAggregate aggregate = aggregateRepository.findById(portfolioId)
+                    .orElseGet(() -> new PortfolioAggregate(portfolioId));
+            aggregate.clear();
+            markHoldingsChanged(aggregate);
+        }
+        refreshDashboard(portfolioId);
+        return deleted;
+    }
+
+    /**
+     * Adds holdings inserted outside JPA (bulk import); run inside the inserting transaction,
+     * before the insert, so the portfolio lock covers it. The importer refreshes the dashboard
+     * once the rows are inserted.
+     */
+    @Transactional
+    public void addImportedHoldings(Long portfolioId, List<Holding> holdings) {
+        lockPortfolio(portfolioId);
+        PortfolioAggregate aggregate = findOrRebuild(portfolioId);
+        holdings.forEach(aggregate::addHolding);
+        markHoldingsChanged(aggregate);
+    }
+
+    // Recomputes a portfolio's aggregate from its holdings; also repairs rounding drift.
+    // holdingsChangedAt is kept: a rebuild alone does not change what an insight was scored on.
+    @Transactional
+    public PortfolioAggregate rebuild(Long portfolioId) {
+        PortfolioAggregate aggregate = aggregateRepository.findById(portfolioId)
+                .orElseGet(() -> new PortfolioAggregate(portfolioId));
+        aggregate.clear();
+        for (Holding holding : holdingRepository.findByPortfolioId(portfolioId)) {
+            aggregate.addHolding(holding);
+        }
+        return aggregateRepository.save(aggregate);
+    }
+
+    private void markHoldingsChanged(PortfolioAggregate aggregate) {
+        aggregate.setHoldingsChangedAt(LocalDateTime.now(INSIGHT_ZONE));
+        aggregateRepository.save(aggregate);
+    }
+
+    // The dashboard upsert reads holdings over JDBC, so pending JPA changes are flushed first
+    private void refreshDashboard(Long portfolioId) {
+        if (portfolioId != null) {
+            holdingRepository.flush();
+            dashboardService.refreshAfterHoldingChange(portfolioId);
+        }
+    }
+
+    // The portfolio lock keeps concurrent first reads from inserting the same aggregate twice
+    private PortfolioAggregate findOrRebuild(Long portfolioId) {
+        return aggregateRepository.findById(portfolioId).orElseGet(() -> {
+            lockPortfolio(portfolioId);
+            return aggregateRepository.findById(portfolioId).orElseGet(() -> rebuild(portfolioId));
+        });
+    }
+
+    private Portfolio lockPortfolio(Long portfolioId) {
+        return portfolioRepository.findByIdForUpdate(portfolioId)
+                .orElseThrow(() -> new RuntimeException("Portfolio not found: " + portfolioId));
+    }
+
+    private static Long portfolioIdOf(Holding holding) {
+        return holding.getPortfolio() != null ? holding.getPortfolio().getId() : null;
+    }
+}
@@ -0,0 +1,326 @@
+package com.ii.backend.service;
+
+import com.ii.backend.model.Holding;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable analytics snapshot of a portfolio, computed in a single pass over its holdings.
+ * The prompt builder, the scorers and the recommendation validator all read from this
+ * instead of recomputing values, weights and groupings per use.
+ *
+ * Percentages are rounded exactly like the original BigDecimal code
+ * ({@code value.divide(total, 4, HALF_UP) * 100}) so scores are unchanged.
+ */
+public final class PortfolioAnalytics {
+
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
+    private final List<Holding> holdings;
+    private final BigDecimal totalValue;
+
+    // Per-holding data, indexed like holdings
+    private final BigDecimal[] values;
+    private final double[] weights; // percent of total value
+    private final boolean[] etfFlags;
+    private final String[] upperTickers;
+
+    // Groupings over non-empty sector / asset type, iterated in HashMap order like Collectors.groupingBy
+    private final Map<String, BigDecimal> sectorValues;
+    private final Map<String, Double> sectorWeights;
+    private final Map<String, Boolean> etfOnlySectors;
+    private final Map<String, BigDecimal> assetClassValues;
+    private final Map<String, Double> assetClassWeights;
+
+    private final int etfCount;
+    private final int holdingsWithBeta;
+    private final BigDecimal betaWeightedValue;
+    private final BigDecimal betaWeight;
+    private final BigDecimal portfolioBeta; // null when no holding has a beta
+    private final int holdingsWithYield;
+    private final BigDecimal annualDividendIncome;
+
+    // Sector keyword profile used by the recommendation priority validator
+    private final boolean hasInternationalSector;
+    private final boolean hasInternationalTicker;
+    private final SectorProfile sectorProfile;
+
+    private PortfolioAnalytics(List<Holding> holdings) {
+        int n = holdings.size();
+        this.holdings = Collections.unmodifiableList(holdings);
+        this.values = new BigDecimal[n];
+        this.weights = new double[n];
+        this.etfFlags = new boolean[n];
+        this.upperTickers = new String[n];
+
+        Map<String, BigDecimal> sectors = new HashMap<>();
+        Map<String, Boolean> etfOnly = new HashMap<>();
+        Map<String, BigDecimal> assetClasses = new HashMap<>();
+        Map<String, String> assetClassBySector = new HashMap<>();
+        SectorProfile.Builder profile = new SectorProfile.Builder();
+
+        BigDecimal total = BigDecimal.ZERO;
+        BigDecimal weightedBeta = BigDecimal.ZERO;
+        BigDecimal totalBetaWeight = BigDecimal.ZERO;
+        BigDecimal dividendIncome = BigDecimal.ZERO;
+        int etfs = 0;
+        int withBeta = 0;
+        int withYield = 0;
+        boolean internationalSector = false;
+        boolean internationalTicker = false;
+
+        for (int i = 0; i < n; i++) {
+            Holding holding = holdings.get(i);
+            BigDecimal value = holding.getPricePerShare().multiply(BigDecimal.valueOf(holding.getShares()));
+            values[i] = value;
+            total = total.add(value);
+
+            String assetType = holding.getAssetType();
+            String lowerAssetType = assetType != null ? assetType.toLowerCase() : null;
+            boolean isEtf = lowerAssetType != null && (lowerAssetType.contains("etf") || lowerAssetType.contains("fund"));
+            etfFlags[i] = isEtf;
+            if (isEtf) {
+                etfs++;
+            }
+
+            String ticker = holding.getTicker();
+            String upperTicker = ticker != null ? ticker.toUpperCase() : null;
+            upperTickers[i] = upperTicker;
+            if (upperTicker != null && (upperTicker.contains("VXUS") || upperTicker.contains("EFA") || upperTicker.contains("EEM"))) {
+                internationalTicker = true;
+            }
+
+            String sector = holding.getSector();
+            if (sector != null && !sector.isEmpty()) {
+                sectors.merge(sector, value, BigDecimal::add);
+                etfOnly.merge(sector, isEtf, Boolean::logicalAnd);
+            }
+            if (assetType != null && !assetType.isEmpty()) {
+                assetClasses.merge(assetType, value, BigDecimal::add);
+            }
+
+            String lowerSector = sector != null ? sector.toLowerCase() : "";
+            if (sector != null && (lowerSector.contains("international") || lowerSector.contains("global"))) {
+                internationalSector = true;
+            }
+            String sectorAssetClass = assetClassBySector.computeIfAbsent(lowerSector, PortfolioAnalytics::assetClassFromSector);
+            profile.add(lowerSector, sectorAssetClass);
+
+            if (holding.getBeta() != null) {
+                weightedBeta = weightedBeta.add(value.multiply(BigDecimal.valueOf(holding.getBeta())));
+                totalBetaWeight = totalBetaWeight.add(value);
+                withBeta++;
+            }
+            if (holding.getDividendYield() != null) {
+                dividendIncome = dividendIncome.add(value.multiply(BigDecimal.valueOf(holding.getDividendYield() / 100)));
+                withYield++;
+            }
+        }
+
+        this.totalValue = total;
+        for (int i = 0; i < n; i++) {
+            weights[i] = percentOf(values[i], total);
+        }
+
+        this.sectorValues = Collections.unmodifiableMap(sectors);
+        this.etfOnlySectors = Collections.unmodifiableMap(etfOnly);
+        this.assetClassValues = Collections.unmodifiableMap(assetClasses);
+        this.sectorWeights = Collections.unmodifiableMap(weightsOf(sectors, total));
+        this.assetClassWeights = Collections.unmodifiableMap(weightsOf(assetClasses, total));
+
+        this.etfCount = etfs;
+        this.holdingsWithBeta = withBeta;
+        this.betaWeightedValue = weightedBeta;
+        this.betaWeight = totalBetaWeight;
+        this.portfolioBeta = totalBetaWeight.compareTo(BigDecimal.ZERO) > 0
+                ? weightedBeta.divide(totalBetaWeight, 2, RoundingMode.HALF_UP) : null;
+        this.holdingsWithYield = withYield;
+        this.annualDividendIncome = dividendIncome;
+        this.hasInternationalSector = internationalSector;
+        this.hasInternationalTicker = internationalTicker;
+        this.sectorProfile = profile.build();
+    }
+
+    public static PortfolioAnalytics of(List<Holding> holdings) {
+        return new PortfolioAnalytics(holdings);
+    }
+
+    private static double percentOf(BigDecimal value, BigDecimal total) {
+        if (total.signum() == 0) {
+            return 0.0;
+        }
+        return value.divide(total, 4, RoundingMode.HALF_UP).multiply(ONE_HUNDRED).doubleValue();
+    }
+
+    private static Map<String, Double> weightsOf(Map<String, BigDecimal> groupValues, BigDecimal total) {
+        Map<String, Double> groupWeights = new HashMap<>();
+        for (Map.Entry<String, BigDecimal> entry : groupValues.entrySet()) {
+            groupWeights.put(entry.getKey(), percentOf(entry.getValue(), total));
+        }
+        return groupWeights;
+    }
+
+    /**
+     * Helper method to determine asset class from (lowercased) sector information
+     */
+    static String assetClassFromSector(String sector) {
+        if (sector == null) return "unknown";
+        
+        sector = sector.toLowerCase();
+        
+        if (sector.contains("bond") || sector.contains("fixed income") || sector.contains("treasury")) {
+            return "fixed income";
+        } else if (sector.contains("international") || sector.contains("global") || 
+                   sector.contains("emerging market") || sector.contains("developed market")) {
+            return "international";
+        } else if (sector.contains("dividend") || sector.contains("income")) {
+            return "dividend";
+        } else if (sector.contains("real estate") || sector.contains("reit")) {
+            return "real estate";
+        } else if (sector.contains("commodity") || sector.contains("gold") || sector.contains("oil")) {
+            return "commodity";
+        } else if (sector.contains("small cap") || sector.contains("small-cap")) {
+            return "small cap";
+        } else if (sector.contains("large cap") || sector.contains("large-cap")) {
+            return "large cap";
+        } else if (sector.contains("broad market") || sector.contains("total market")) {
+            return "broad market";
+        } else if (sector.contains("technology") || sector.contains("tech")) {
+            return "technology";
+        } else if (sector.contains("healthcare") || sector.contains("medical")) {
+            return "healthcare";
+        } else if (sector.contains("financial") || sector.contains("bank")) {
+            return "financial";
+        } else if (sector.contains("consumer") || sector.contains("retail")) {
+            return "consumer";
+        } else if (sector.contains("industrial") || sector.contains("manufacturing")) {
+            return "industrial";
+        } else if (sector.contains("energy") || sector.contains("oil") || sector.contains("gas")) {
+            return "energy";
+        } else if (sector.contains("utility") || sector.contains("utilities")) {
+            return "utility";
+        } else if (sector.contains("material") || sector.contains("mining")) {
+            return "materials";
+        } else if (sector.contains("communication") || sector.contains("telecom")) {
+            return "communication";
+        } else if (sector.contains("mutual fund") || sector.contains("fund")) {
+            return "mutual fund";
+        } else if (sector.contains("stock") || sector.contains("equity")) {
+            return "individual stock";
+        }
+        
+        return "equity"; // Default to equity for unknown sectors
+    }
+
+    // Getters
+    public List<Holding> getHoldings() { return holdings; }
+    public int getHoldingCount() { return holdings.size(); }
+    public BigDecimal getTotalValue() { return totalValue; }
+    public BigDecimal getValue(int index) { return values[index]; }
+    public double getWeight(int index) { return weights[index]; }
+    public boolean isEtf(int index) { return etfFlags[index]; }
+    public String getUpperTicker(int index) { return upperTickers[index]; }
+    public Map<String, BigDecimal> getSectorValues() { return sectorValues; }
+    public double getSectorWeight(String sector) { return sectorWeights.get(sector); }
+    public boolean isEtfOnlySector(String sector) { return etfOnlySectors.get(sector); }
+    public Map<String, BigDecimal> getAssetClassValues() { return assetClassValues; }
+    public double getAssetClassWeight(String assetClass) { return assetClassWeights.get(assetClass); }
+    public int getEtfCount() { return etfCount; }
+    public int getHoldingsWithBeta() { return holdingsWithBeta; }
+    public BigDecimal getBetaWeightedValue() { return betaWeightedValue; }
+    public BigDecimal getBetaWeight() { return betaWeight; }
+    public BigDecimal getPortfolioBeta() { return portfolioBeta; }
+    public int getHoldingsWithYield() { return holdingsWithYield; }
+    public BigDecimal getAnnualDividendIncome() { return annualDividendIncome; }
+    public boolean hasInternationalSector() { return hasInternationalSector; }
+    public boolean hasInternationalTicker() { return hasInternationalTicker; }
+    public SectorProfile getSectorProfile() { return sectorProfile; }
+
+    /**
+     * Which sector themes are present, judged from lowercased sector names and their asset classes
+     */
+    public static final class SectorProfile {
+        public final boolean internationalExposure;
+        public final boolean bondExposure;
+        public final boolean dividendFocus;
+        public final boolean realEstate;
+        public final boolean commodities;
+        public final boolean smallCap;
+        public final boolean largeCap;
+        public final boolean technology;
+        public final boolean healthcare;
+        public final boolean financials;
+
+        private SectorProfile(Builder builder) {
+            this.internationalExposure = builder.internationalExposure;
+            this.bondExposure = builder.bondExposure;
+            this.dividendFocus = builder.dividendFocus;
+            this.realEstate = builder.realEstate;
+            this.commodities = builder.commodities;
+            this.smallCap = builder.smallCap;
+            this.largeCap = builder.largeCap;
+            this.technology = builder.technology;
+            this.healthcare = builder.healthcare;
+            this.financials = builder.financials;
+        }
+
+        private static final class Builder {
+            private boolean internationalExposure;
+            private boolean bondExposure;
+            private boolean dividendFocus;
+            private boolean realEstate;
+            private boolean commodities;
+            private boolean smallCap;
+            private boolean largeCap;
+            private boolean technology;
+            private boolean healthcare;
+            private boolean financials;
+
+            void add(String sector, String assetClass) {
+                if (sector.contains("international") || sector.contains("global") || 
+                    assetClass.contains("international") || assetClass.contains("global")) {
+                    internationalExposure = true;
+                }
+                if (sector.contains("bond") || sector.contains("fixed income") || 
+                    assetClass.contains("bond") || assetClass.contains("fixed income")) {
+                    bondExposure = true;
+                }
+                if (sector.contains("dividend") || sector.contains("income") || 
+                    assetClass.contains("dividend") || assetClass.contains("income")) {
+                    dividendFocus = true;
+                }
+                if (sector.contains("real estate") || sector.contains("reit")) {
+                    realEstate = true;
+                }
+                if (sector.contains("commodity") || sector.contains("gold") || sector.contains("oil")) {
+                    commodities = true;
+                }
+                if (sector.contains("small cap") || sector.contains("small-cap")) {
+                    smallCap = true;
+                }
+                if (sector.contains("large cap") || sector.contains("large-cap") || 
+                    sector.contains("broad market") || sector.contains("total market")) {
+                    largeCap = true;
+                }
+                if (sector.contains("technology") || sector.contains("tech")) {
+                    technology = true;
+                }
+                if (sector.contains("healthcare") || sector.contains("medical")) {
+                    healthcare = true;
+                }
+                if (sector.contains("financial") || sector.contains("bank")) {
+                    financials = true;
+                }
+            }
+
+            SectorProfile build() {
+                return new SectorProfile(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.ii.backend.service;
+
+import com.ii.backend.model.Advisor;
+import com.ii.backend.model.Client;
+import com.ii.backend.repository.ClientRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Eviction and statistics for the Hibernate second-level cache that holds advisor and client
+ * rows and the advisor-scoped reference queries. JPA writes keep the regions current on their
+ * own; evicting after a write also drops rows changed outside Hibernate (psql, database/*.sql).
+ */
+@Component
+public class ReferenceDataCache {
+
+    private final SessionFactory sessionFactory;
+
+    @Autowired
+    public ReferenceDataCache(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public void evictAdvisor(Long advisorId) {
+        sessionFactory.getCache().evictEntityData(Advisor.class, advisorId);
+        evictReferenceQueries();
+    }
+
+    public void evictClient(Long clientId) {
+        sessionFactory.getCache().evictEntityData(Client.class, clientId);
+        evictReferenceQueries();
+    }
+
+    public void evictAll() {
+        sessionFactory.getCache().evictEntityData(Advisor.class);
+        sessionFactory.getCache().evictEntityData(Client.class);
+        evictReferenceQueries();
+    }
+
+    private void evictReferenceQueries() {
+        sessionFactory.getCache().evictQueryRegion(ClientRepository.REFERENCE_QUERY_REGION);
+    }
+
+    public Map<String, Object> getStats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        stats.put(Advisor.CACHE_REGION, regionStats(statistics.getDomainDataRegionStatistics(Advisor.CACHE_REGION)));
+        stats.put(Client.CACHE_REGION, regionStats(statistics.getDomainDataRegionStatistics(Client.CACHE_REGION)));
+        // Query regions are created on first use, so this one may not exist yet
+        stats.put(ClientRepository.REFERENCE_QUERY_REGION,
+                regionStats(statistics.getQueryRegionStatistics(ClientRepository.REFERENCE_QUERY_REGION)));
+        return stats;
+    }
+
+    private static Map<String, Object> regionStats(CacheRegionStatistics region) {
+        long hits = region != null ? region.getHitCount() : 0;
+        long misses = region != null ? region.getMissCount() : 0;
+        long lookups = hits + misses;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("puts", region != null ? region.getPutCount() : 0);
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hits / lookups);
+        return stats;
+    }
+}
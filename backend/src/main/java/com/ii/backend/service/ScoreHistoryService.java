@@ -0,0 +1,189 @@
+package com.ii.backend.service;
+
+import com.ii.backend.model.InvestmentInsight;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Score trends for a client, portfolio or advisor book. Each saved insight appends one row to
+ * insight_score_history and, in the same statement, adds its scores to the day, week and month
+ * buckets of insight_score_rollup for its client, portfolio and advisor. Series are read from the
+ * rollups only, so a year of weekly points is about 53 rows however many insights were generated.
+ */
+@Service
+public class ScoreHistoryService {
+
+    // Insight createdAt values are New York local time (see InvestmentInsightService)
+    private static final ZoneId INSIGHT_ZONE = ZoneId.of("America/New_York");
+
+    private static final String APPEND_AND_ROLL_UP =
+            "WITH h AS (" +
+            "INSERT INTO insight_score_history (insight_id, client_id, portfolio_id, advisor_id, risk_score, " +
+            "diversification_score, goal_alignment, recorded_at) " +
+            "SELECT :insightId, c.id, CAST(:portfolioId AS bigint), c.advisor_id, :riskScore, :diversificationScore, :goalAlignment, " +
+            "CAST(:recordedAt AS timestamp) FROM client c WHERE c.id = :clientId " +
+            "RETURNING client_id, portfolio_id, advisor_id, risk_score, diversification_score, goal_alignment, recorded_at) " +
+            "INSERT INTO insight_score_rollup AS r (scope, scope_id, granularity, bucket_start, sample_count, " +
+            "risk_score_sum, diversification_score_sum, goal_alignment_sum, updated_at) " +
+            "SELECT s.scope, s.scope_id, g.granularity, CAST(date_trunc(g.unit, h.recorded_at) AS date), 1, " +
+            "h.risk_score, h.diversification_score, h.goal_alignment, now() " +
+            "FROM h " +
+            "CROSS JOIN LATERAL (VALUES ('CLIENT', h.client_id), ('PORTFOLIO', h.portfolio_id), ('ADVISOR', h.advisor_id)) AS s(scope, scope_id) " +
+            "CROSS JOIN (VALUES ('DAY', 'day'), ('WEEK', 'week'), ('MONTH', 'month')) AS g(granularity, unit) " +
+            "WHERE s.scope_id IS NOT NULL " +
+            "ON CONFLICT (scope, scope_id, granularity, bucket_start) DO UPDATE SET " +
+            "sample_count = r.sample_count + EXCLUDED.sample_count, " +
+            "risk_score_sum = r.risk_score_sum + EXCLUDED.risk_score_sum, " +
+            "diversification_score_sum = r.diversification_score_sum + EXCLUDED.diversification_score_sum, " +
+            "goal_alignment_sum = r.goal_alignment_sum + EXCLUDED.goal_alignment_sum, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private static final String SELECT_SERIES =
+            "SELECT bucket_start, sample_count, " +
+            "round(CAST(risk_score_sum AS numeric) / sample_count, 2) AS risk_score, " +
+            "round(CAST(diversification_score_sum AS numeric) / sample_count, 2) AS diversification_score, " +
+            "round(CAST(goal_alignment_sum AS numeric) / sample_count, 2) AS goal_alignment " +
+            "FROM insight_score_rollup " +
+            "WHERE scope = :scope AND scope_id = :scopeId AND granularity = :granularity " +
+            "AND bucket_start >= :from AND bucket_start <= :to " +
+            "ORDER BY bucket_start";
+
+    public enum Scope { CLIENT, PORTFOLIO, ADVISOR }
+
+    public enum Granularity {
+        DAY, WEEK, MONTH;
+
+        // Coarsest buckets that still give a useful chart: about 31, 52 or 12 points a year
+        static Granularity forRange(LocalDate from, LocalDate to) {
+            long days = ChronoUnit.DAYS.between(from, to);
+            return days <= 31 ? DAY : days <= 366 ? WEEK : MONTH;
+        }
+    }
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final int defaultRangeDays;
+
+    @Autowired
+    public ScoreHistoryService(NamedParameterJdbcTemplate namedJdbcTemplate,
+                               @Value("${insights.score-history.default-range-days:365}") int defaultRangeDays) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.defaultRangeDays = defaultRangeDays;
+    }
+
+    /**
+     * Appends the saved insight's scores to the history and its rollup buckets. Insights
+     * without a client or with a missing score (e.g. manual generations) are not recorded.
+     * History keeps the scores as first saved; rescoring revises the insight, not its history.
+     */
+    public void record(InvestmentInsight insight) {
+        if (insight.getId() == null || insight.getClient() == null || insight.getRiskScore() == null
+                || insight.getDiversificationScore() == null || insight.getGoalAlignment() == null) {
+            return;
+        }
+        LocalDateTime recordedAt = insight.getCreatedAt() != null ? insight.getCreatedAt() : LocalDateTime.now(INSIGHT_ZONE);
+        namedJdbcTemplate.update(APPEND_AND_ROLL_UP, new MapSqlParameterSource()
+                .addValue("insightId", insight.getId())
+                .addValue("clientId", insight.getClient().getId())
+                .addValue("portfolioId", insight.getPortfolioId())
+                .addValue("riskScore", insight.getRiskScore())
+                .addValue("diversificationScore", insight.getDiversificationScore())
+                .addValue("goalAlignment", insight.getGoalAlignment())
+                .addValue("recordedAt", recordedAt));
+    }
+
+    /**
+     * Average scores per bucket for the scope, oldest first. Without a range the last
+     * insights.score-history.default-range-days are returned; without a granularity the
+     * coarsest that suits the range is used.
+     */
+    public ScoreSeries getSeries(Scope scope, Long scopeId, Granularity granularity, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now(INSIGHT_ZONE);
+        LocalDate start = from != null ? from : end.minusDays(defaultRangeDays);
+        if (start.isAfter(end)) {
+            throw new RuntimeException("from must not be after to");
+        }
+        Granularity buckets = granularity != null ? granularity : Granularity.forRange(start, end);
+
+        List<ScorePoint> points = namedJdbcTemplate.query(SELECT_SERIES,
+                new MapSqlParameterSource()
+                        .addValue("scope", scope.name())
+                        .addValue("scopeId", scopeId)
+                        .addValue("granularity", buckets.name())
+                        // The first bucket may start before the range, e.g. the week or month containing it
+                        .addValue("from", bucketStart(buckets, start))
+                        .addValue("to", end),
+                (rs, rowNum) -> new ScorePoint(
+                        rs.getObject("bucket_start", LocalDate.class),
+                        rs.getInt("sample_count"),
+                        rs.getDouble("risk_score"),
+                        rs.getDouble("diversification_score"),
+                        rs.getDouble("goal_alignment")));
+        return new ScoreSeries(scope, scopeId, buckets, start, end, points);
+    }
+
+    private static LocalDate bucketStart(Granularity granularity, LocalDate date) {
+        switch (granularity) {
+            case WEEK: return date.minusDays(date.getDayOfWeek().getValue() - 1);
+            case MONTH: return date.withDayOfMonth(1);
+            default: return date;
+        }
+    }
+
+    // Response of GET /api/insights/score-history
+    public static class ScoreSeries {
+        private final Scope scope;
+        private final Long scopeId;
+        private final Granularity granularity;
+        private final LocalDate from;
+        private final LocalDate to;
+        private final List<ScorePoint> points;
+
+        ScoreSeries(Scope scope, Long scopeId, Granularity granularity, LocalDate from, LocalDate to, List<ScorePoint> points) {
+            this.scope = scope;
+            this.scopeId = scopeId;
+            this.granularity = granularity;
+            this.from = from;
+            this.to = to;
+            this.points = points;
+        }
+
+        public Scope getScope() { return scope; }
+        public Long getScopeId() { return scopeId; }
+        public Granularity getGranularity() { return granularity; }
+        public LocalDate getFrom() { return from; }
+        public LocalDate getTo() { return to; }
+        public List<ScorePoint> getPoints() { return points; }
+    }
+
+    // Average scores of the insights saved in one bucket
+    public static class ScorePoint {
+        private final LocalDate bucketStart;
+        private final int samples;
+        private final double riskScore;
+        private final double diversificationScore;
+        private final double goalAlignment;
+
+        ScorePoint(LocalDate bucketStart, int samples, double riskScore, double diversificationScore, double goalAlignment) {
+            this.bucketStart = bucketStart;
+            this.samples = samples;
+            this.riskScore = riskScore;
+            this.diversificationScore = diversificationScore;
+            this.goalAlignment = goalAlignment;
+        }
+
+        public LocalDate getBucketStart() { return bucketStart; }
+        public int getSamples() { return samples; }
+        public double getRiskScore() { return riskScore; }
+        public double getDiversificationScore() { return diversificationScore; }
+        public double getGoalAlignment() { return goalAlignment; }
+    }
+}
@@ -0,0 +1,508 @@
+package com.ii.backend.service;
+
+import com.ii.backend.model.Holding;
+import com.ii.backend.model.PortfolioAggregate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fixed-point scoring engine working on primitive arrays.
+ *
+ * Values are long cents, weights are integer basis points rounded HALF_UP exactly like
+ * {@code value.divide(total, 4, HALF_UP)}, beta is in integer hundredths and the risk score
+ * accumulates in twentieths. The thresholds of the original BigDecimal scorers are all whole
+ * percentages and two-decimal betas, so comparing these integers gives identical results.
+ */
+public final class ScoringEngine {
+
+    private static final long BETA_UNITS = 10_000; // beta stored with 4 decimals
+    private static final long DEFAULT_BETA_HUNDREDTHS = 100;
+    private static final double INCOME_RATIO_GUARD = 1e-9;
+    private static final double[] INCOME_RATIO_THRESHOLDS = {0.8, 0.5, 0.25};
+    // Every holding concentration rule starts above this weight, so lighter holdings never move a score
+    static final int CONCENTRATION_FLOOR_BASIS_POINTS = 1500;
+
+    private ScoringEngine() {}
+
+    /**
+     * Primitive layout of a portfolio. Everything except the values is independent of prices.
+     * Built from the holdings, every holding is carried; built from a portfolio aggregate, only
+     * the holdings heavy enough for the concentration rules are, and the portfolio-wide terms
+     * come from the aggregate.
+     */
+    public static final class PortfolioVector {
+        final int size;
+        final long[] valueCents;
+        final long totalCents;
+        final boolean[] etf;
+        final long[] sectorCents;
+        final boolean[] etfOnlySector;
+        final int sectorCount;
+        final int assetClassCount;
+        final int etfCount;
+        final int tickerRiskAdjustment; // twentieths
+        final boolean internationalSector;
+        final boolean internationalTicker;
+        final long betaHundredths;
+        final double[] dividendRate; // yield / 100, NaN when absent; null when dividendIncome is known
+        final BigDecimal dividendIncome; // exact annual income when built from an aggregate
+
+        private PortfolioVector(int size, long[] valueCents, long totalCents, boolean[] etf, long[] sectorCents,
+                                boolean[] etfOnlySector, int assetClassCount, int etfCount, int tickerRiskAdjustment,
+                                boolean internationalSector, boolean internationalTicker,
+                                long betaHundredths, double[] dividendRate, BigDecimal dividendIncome) {
+            this.size = size;
+            this.valueCents = valueCents;
+            this.totalCents = totalCents;
+            this.etf = etf;
+            this.sectorCents = sectorCents;
+            this.etfOnlySector = etfOnlySector;
+            this.sectorCount = etfOnlySector.length;
+            this.assetClassCount = assetClassCount;
+            this.etfCount = etfCount;
+            this.tickerRiskAdjustment = tickerRiskAdjustment;
+            this.internationalSector = internationalSector;
+            this.internationalTicker = internationalTicker;
+            this.betaHundredths = betaHundredths;
+            this.dividendRate = dividendRate;
+            this.dividendIncome = dividendIncome;
+        }
+
+        /**
+         * Builds the vector, or returns null when a price has more than two decimals, a beta more
+         * than four, or a value overflows a long; callers then fall back to the BigDecimal scorers.
+         */
+        public static PortfolioVector of(List<Holding> holdings) {
+            try {
+                return build(holdings);
+            } catch (ArithmeticException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Builds the vector from a maintained aggregate plus the portfolio's holdings, of which only
+         * those above the concentration floor are kept. Returns null when a value overflows a long.
+         */
+        public static PortfolioVector of(PortfolioAggregate aggregate, List<Holding> holdings) {
+            try {
+                return build(aggregate, holdings);
+            } catch (ArithmeticException e) {
+                return null;
+            }
+        }
+
+        private static PortfolioVector build(List<Holding> holdings) {
+            int n = holdings.size();
+            long[] valueCents = new long[n];
+            boolean[] etf = new boolean[n];
+            double[] dividendRate = new double[n];
+            Map<String, Integer> sectors = new HashMap<>();
+            long[] sectorValues = new long[n];
+            boolean[] etfOnly = new boolean[n];
+            Set<String> assetClasses = new HashSet<>();
+
+            long total = 0;
+            long absoluteTotal = 0;
+            long weightedBeta = 0;
+            long betaWeight = 0;
+            int etfCount = 0;
+            int tickerAdjustment = 0;
+            boolean internationalSector = false;
+            boolean internationalTicker = false;
+
+            for (int i = 0; i < n; i++) {
+                Holding holding = holdings.get(i);
+                long priceCents = holding.getPricePerShare().movePointRight(2).longValueExact();
+                long value = Math.multiplyExact(priceCents, (long) holding.getShares());
+                valueCents[i] = value;
+                total = Math.addExact(total, value);
+                absoluteTotal = Math.addExact(absoluteTotal, Math.abs(value));
+
+                String assetType = holding.getAssetType();
+                boolean isEtf = false;
+                if (assetType != null) {
+                    String lower = assetType.toLowerCase();
+                    isEtf = lower.contains("etf") || lower.contains("fund");
+                    if (!assetType.isEmpty()) {
+                        assetClasses.add(assetType);
+                    }
+                }
+                etf[i] = isEtf;
+                if (isEtf) {
+                    etfCount++;
+                }
+
+                String sector = holding.getSector();
+                if (sector != null && !sector.isEmpty()) {
+                    Integer index = sectors.get(sector);
+                    if (index == null) {
+                        index = sectors.size();
+                        sectors.put(sector, index);
+                        etfOnly[index] = isEtf;
+                    } else {
+                        etfOnly[index] &= isEtf;
+                    }
+                    sectorValues[index] = Math.addExact(sectorValues[index], value);
+                }
+                if (sector != null) {
+                    String lower = sector.toLowerCase();
+                    if (lower.contains("international") || lower.contains("global")) {
+                        internationalSector = true;
+                    }
+                }
+
+                String ticker = holding.getTicker();
+                if (ticker != null) {
+                    String upper = ticker.toUpperCase();
+                    tickerAdjustment += tickerRiskAdjustment(upper);
+                    if (upper.contains("VXUS") || upper.contains("EFA") || upper.contains("EEM")) {
+                        internationalTicker = true;
+                    }
+                }
+
+                if (holding.getBeta() != null) {
+                    long beta = BigDecimal.valueOf(holding.getBeta()).movePointRight(4).longValueExact();
+                    weightedBeta = Math.addExact(weightedBeta, Math.multiplyExact(value, beta));
+                    betaWeight = Math.addExact(betaWeight, value);
+                }
+                dividendRate[i] = holding.getDividendYield() != null ? holding.getDividendYield() / 100 : Double.NaN;
+            }
+
+            boolean[] etfOnlySector = new boolean[sectors.size()];
+            System.arraycopy(etfOnly, 0, etfOnlySector, 0, etfOnlySector.length);
+            long[] sectorCents = new long[sectors.size()];
+            System.arraycopy(sectorValues, 0, sectorCents, 0, sectorCents.length);
+            // Weights multiply holding and sector values by 10,000; make sure that cannot overflow later
+            Math.multiplyExact(absoluteTotal, 10_000L);
+
+            // Value-weighted beta in hundredths, rounded HALF_UP; 1.00 when no holding has a beta
+            long betaHundredths = betaWeight > 0
+                    ? divideHalfUp(weightedBeta, Math.multiplyExact(betaWeight, BETA_UNITS / 100))
+                    : DEFAULT_BETA_HUNDREDTHS;
+
+            return new PortfolioVector(n, valueCents, total, etf, sectorCents, etfOnlySector, assetClasses.size(),
+                    etfCount, tickerAdjustment, internationalSector, internationalTicker,
+                    betaHundredths, dividendRate, null);
+        }
+
+        private static PortfolioVector build(PortfolioAggregate aggregate, List<Holding> holdings) {
+            long total = cents(aggregate.getTotalValue());
+            Math.multiplyExact(Math.abs(total), 10_000L);
+
+            long[] valueCents = new long[holdings.size()];
+            boolean[] etf = new boolean[holdings.size()];
+            int heavy = 0;
+            for (Holding holding : holdings) {
+                long value = Math.multiplyExact(cents(holding.getPricePerShare()), (long) holding.getShares());
+                if (total == 0 || divideHalfUp(Math.multiplyExact(value, 10_000L), total) <= CONCENTRATION_FLOOR_BASIS_POINTS) {
+                    continue;
+                }
+                String assetType = holding.getAssetType() != null ? holding.getAssetType().toLowerCase() : "";
+                valueCents[heavy] = value;
+                etf[heavy] = assetType.contains("etf") || assetType.contains("fund");
+                heavy++;
+            }
+
+            List<PortfolioAggregate.Group> sectors = List.copyOf(aggregate.getSectors().values());
+            long[] sectorCents = new long[sectors.size()];
+            boolean[] etfOnlySector = new boolean[sectors.size()];
+            for (int s = 0; s < sectors.size(); s++) {
+                sectorCents[s] = cents(sectors.get(s).getValue());
+                etfOnlySector[s] = sectors.get(s).getEtfCount() == sectors.get(s).getHoldingCount();
+            }
+
+            BigDecimal betaWeight = aggregate.getBetaWeight();
+            long betaHundredths = betaWeight.signum() > 0
+                    ? aggregate.getBetaWeightedValue().divide(betaWeight, 2, RoundingMode.HALF_UP).movePointRight(2).longValueExact()
+                    : DEFAULT_BETA_HUNDREDTHS;
+
+            return new PortfolioVector(heavy, Arrays.copyOf(valueCents, heavy), total, Arrays.copyOf(etf, heavy), sectorCents, etfOnlySector,
+                    aggregate.getAssetTypes().size(), aggregate.getEtfCount(), aggregate.getTickerRiskAdjustment(),
+                    aggregate.getInternationalSectorCount() > 0, aggregate.getInternationalTickerCount() > 0,
+                    betaHundredths, null, aggregate.getAnnualDividendIncome());
+        }
+
+        private static long cents(BigDecimal value) {
+            return value.movePointRight(2).longValueExact();
+        }
+
+        /**
+         * Risk adjustment in twentieths for a well-known (upper-cased) ticker; the portfolio
+         * aggregate keeps the running sum of these
+         */
+        public static int tickerRiskAdjustment(String ticker) {
+            int adjustment = 0;
+            if (ticker.equals("MSFT") || ticker.equals("AAPL") || ticker.equals("KO") ||
+                ticker.equals("GOOGL") || ticker.equals("AMZN") || ticker.equals("TSLA")) {
+                adjustment -= 5; // Blue-chip discount
+            }
+            if (ticker.equals("BND") || ticker.equals("AGG") || ticker.equals("TLT")) {
+                adjustment -= 10; // Investment-grade bond discount
+            }
+            if (ticker.equals("SPY") || ticker.equals("VTI") || ticker.equals("QQQ")) {
+                adjustment -= 5; // Broad market ETF discount
+            }
+            return adjustment;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Holding weight in basis points of total value, rounded HALF_UP
+         */
+        int weightBasisPoints(int index) {
+            return basisPoints(valueCents[index]);
+        }
+
+        /**
+         * Sector weights in basis points, indexed by sector
+         */
+        int[] sectorWeightsBasisPoints() {
+            int[] weights = new int[sectorCount];
+            for (int s = 0; s < sectorCount; s++) {
+                weights[s] = basisPoints(sectorCents[s]);
+            }
+            return weights;
+        }
+
+        private int basisPoints(long cents) {
+            if (totalCents == 0) {
+                return 0;
+            }
+            return (int) divideHalfUp(cents * 10_000, totalCents);
+        }
+
+        /**
+         * Value-weighted beta in hundredths, rounded HALF_UP; 1.00 when no holding has a beta
+         */
+        long betaHundredths() {
+            return betaHundredths;
+        }
+
+        /**
+         * Annual dividend income as the BigDecimal scorers compute it, then converted to double
+         */
+        double exactDividendIncome() {
+            if (dividendIncome != null) {
+                return dividendIncome.doubleValue();
+            }
+            BigDecimal income = BigDecimal.ZERO;
+            for (int i = 0; i < size; i++) {
+                if (!Double.isNaN(dividendRate[i])) {
+                    income = income.add(BigDecimal.valueOf(valueCents[i], 2).multiply(BigDecimal.valueOf(dividendRate[i])));
+                }
+            }
+            return income.doubleValue();
+        }
+
+        double approximateDividendIncome() {
+            if (dividendIncome != null) {
+                return dividendIncome.doubleValue();
+            }
+            double income = 0;
+            for (int i = 0; i < size; i++) {
+                if (!Double.isNaN(dividendRate[i])) {
+                    income += valueCents[i] * dividendRate[i];
+                }
+            }
+            return income / 100;
+        }
+    }
+
+    /**
+     * Integer division rounding half away from zero, like RoundingMode.HALF_UP
+     */
+    static long divideHalfUp(long numerator, long denominator) {
+        long quotient = numerator / denominator;
+        long remainder = numerator % denominator;
+        if (remainder != 0 && 2 * Math.abs(remainder) >= Math.abs(denominator)) {
+            quotient += Long.signum(numerator) * Long.signum(denominator);
+        }
+        return quotient;
+    }
+
+    public static int riskScore(PortfolioVector v, String riskTolerance) {
+        // Base risk score based on risk tolerance, in twentieths
+        int riskScore;
+        switch (riskTolerance.toLowerCase()) {
+            case "conservative":
+                riskScore = 60;
+                break;
+            case "aggressive":
+                riskScore = 140;
+                break;
+            default: // moderate
+                riskScore = 100;
+                break;
+        }
+
+        // Concentration adjustments
+        for (int i = 0; i < v.size; i++) {
+            int weight = v.weightBasisPoints(i);
+            if (v.etf[i]) {
+                if (weight > 5000) riskScore += 30;
+                else if (weight > 4000) riskScore += 20;
+                else if (weight > 3000) riskScore += 15;
+                else if (weight > 2000) riskScore += 10;
+                else if (weight > 1500) riskScore += 5;
+            } else {
+                if (weight > 5000) riskScore += 60;
+                else if (weight > 4000) riskScore += 40;
+                else if (weight > 3000) riskScore += 30;
+                else if (weight > 2000) riskScore += 20;
+                else if (weight > 1500) riskScore += 10;
+            }
+        }
+
+        // Sector concentration adjustments
+        int[] sectorWeights = v.sectorWeightsBasisPoints();
+        for (int s = 0; s < sectorWeights.length; s++) {
+            int weight = sectorWeights[s];
+            if (v.etfOnlySector[s]) {
+                if (weight > 7000) riskScore += 20;
+                else if (weight > 6000) riskScore += 15;
+                else if (weight > 5000) riskScore += 10;
+                else if (weight > 4000) riskScore += 5;
+                else if (weight > 3000) riskScore += 2;
+            } else {
+                if (weight > 7000) riskScore += 40;
+                else if (weight > 6000) riskScore += 30;
+                else if (weight > 5000) riskScore += 20;
+                else if (weight > 4000) riskScore += 10;
+                else if (weight > 3000) riskScore += 5;
+            }
+        }
+
+        // Beta adjustments
+        long beta = v.betaHundredths();
+        if (beta > 150) riskScore += 20;
+        else if (beta > 130) riskScore += 10;
+        else if (beta > 110) riskScore += 5;
+        else if (beta < 90) riskScore -= 5;
+
+        // Asset class diversification
+        if (v.assetClassCount >= 3) riskScore -= 10;
+        else if (v.assetClassCount == 1) riskScore += 20;
+        else if (v.assetClassCount == 2) riskScore += 10;
+
+        // ETF risk reduction
+        if (v.etfCount >= 3) riskScore -= 20;
+        else if (v.etfCount >= 2) riskScore -= 10;
+        else if (v.etfCount >= 1) riskScore -= 5;
+
+        riskScore += v.tickerRiskAdjustment;
+
+        // Ensure score is within 1-10 range
+        return Math.max(1, Math.min(10, (int) Math.round(riskScore / 20.0)));
+    }
+
+    public static int diversificationScore(PortfolioVector v) {
+        int diversificationScore;
+        if (v.sectorCount >= 5) diversificationScore = 80;
+        else if (v.sectorCount >= 4) diversificationScore = 65;
+        else if (v.sectorCount >= 3) diversificationScore = 50;
+        else if (v.sectorCount >= 2) diversificationScore = 35;
+        else diversificationScore = 20;
+
+        if (v.assetClassCount >= 4) diversificationScore += 30;
+        else if (v.assetClassCount >= 3) diversificationScore += 20;
+        else if (v.assetClassCount >= 2) diversificationScore += 10;
+
+        if (v.etfCount >= 3) diversificationScore += 15;
+        else if (v.etfCount >= 2) diversificationScore += 10;
+        else if (v.etfCount >= 1) diversificationScore += 5;
+
+        // Single holding concentration penalties
+        for (int i = 0; i < v.size; i++) {
+            int weight = v.weightBasisPoints(i);
+            if (v.etf[i]) {
+                if (weight > 5000) diversificationScore -= 15;
+                else if (weight > 4000) diversificationScore -= 12;
+                else if (weight > 3000) diversificationScore -= 8;
+                else if (weight > 2000) diversificationScore -= 5;
+                else if (weight > 1500) diversificationScore -= 2;
+            } else {
+                if (weight > 5000) diversificationScore -= 25;
+                else if (weight > 4000) diversificationScore -= 20;
+                else if (weight > 3000) diversificationScore -= 15;
+                else if (weight > 2000) diversificationScore -= 10;
+                else if (weight > 1500) diversificationScore -= 5;
+            }
+        }
+
+        // Sector concentration penalties
+        int[] sectorWeights = v.sectorWeightsBasisPoints();
+        for (int s = 0; s < sectorWeights.length; s++) {
+            int weight = sectorWeights[s];
+            if (v.etfOnlySector[s]) {
+                if (weight > 6000) diversificationScore -= 12;
+                else if (weight > 5000) diversificationScore -= 8;
+                else if (weight > 4000) diversificationScore -= 5;
+                else if (weight > 3000) diversificationScore -= 3;
+                else if (weight > 2000) diversificationScore -= 1;
+            } else {
+                if (weight > 6000) diversificationScore -= 20;
+                else if (weight > 5000) diversificationScore -= 15;
+                else if (weight > 4000) diversificationScore -= 10;
+                else if (weight > 3000) diversificationScore -= 5;
+                else if (weight > 2000) diversificationScore -= 2;
+            }
+        }
+
+        // Geographic diversification bonus
+        if (v.internationalSector || v.internationalTicker) {
+            diversificationScore += 10;
+        }
+
+        return Math.max(1, Math.min(100, diversificationScore));
+    }
+
+    public static int goalAlignmentScore(PortfolioVector v, String riskTolerance, BigDecimal annualIncomeGoal) {
+        int goalAlignmentScore = 50;
+
+        // Income goal alignment
+        if (annualIncomeGoal != null) {
+            double incomeGoal = annualIncomeGoal.doubleValue();
+            double incomeRatio = v.approximateDividendIncome() / incomeGoal;
+            if (nearIncomeThreshold(incomeRatio)) {
+                // Too close to call in floating point; redo the sum the way the BigDecimal scorer does
+                incomeRatio = v.exactDividendIncome() / incomeGoal;
+            }
+
+            if (incomeRatio >= 0.8) goalAlignmentScore += 30;
+            else if (incomeRatio >= 0.5) goalAlignmentScore += 20;
+            else if (incomeRatio >= 0.25) goalAlignmentScore += 10;
+        }
+
+        // Risk tolerance alignment
+        String tolerance = riskTolerance.toLowerCase();
+        long beta = v.betaHundredths();
+
+        if (tolerance.equals("conservative") && beta < 80) goalAlignmentScore += 20;
+        else if (tolerance.equals("moderate") && beta >= 80 && beta <= 120) goalAlignmentScore += 20;
+        else if (tolerance.equals("aggressive") && beta > 120) goalAlignmentScore += 20;
+        else if (tolerance.equals("conservative") && beta < 100) goalAlignmentScore += 10;
+        else if (tolerance.equals("aggressive") && beta > 100) goalAlignmentScore += 10;
+
+        return Math.max(1, Math.min(100, goalAlignmentScore));
+    }
+
+    private static boolean nearIncomeThreshold(double ratio) {
+        for (double threshold : INCOME_RATIO_THRESHOLDS) {
+            if (Math.abs(ratio - threshold) <= INCOME_RATIO_GUARD) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
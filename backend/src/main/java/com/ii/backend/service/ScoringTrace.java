@@ -0,0 +1,89 @@
+package com.ii.backend.service;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Structured record of one scoring run: base scores, each AI adjustment and every
+ * recommendation priority the validator changed, with the inputs behind each step.
+ * Built by a single thread, then published through {@link ScoringTraceBuffer}.
+ */
+public class ScoringTrace {
+
+    // Shared no-op trace for runs that were not sampled
+    private static final ScoringTrace DISABLED = new ScoringTrace(false);
+
+    private final boolean enabled;
+    private final List<Step> steps;
+    private Long insightId;
+    private LocalDateTime recordedAt;
+
+    private ScoringTrace(boolean enabled) {
+        this.enabled = enabled;
+        this.steps = enabled ? new ArrayList<>() : Collections.emptyList();
+    }
+
+    public static ScoringTrace disabled() {
+        return DISABLED;
+    }
+
+    static ScoringTrace enabled() {
+        return new ScoringTrace(true);
+    }
+
+    /**
+     * Adds a step. {@code inputs} are alternating names and values; nothing is built when the
+     * trace is disabled.
+     */
+    public void record(String rule, Object delta, Object... inputs) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Object> inputMap = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < inputs.length; i += 2) {
+            inputMap.put(String.valueOf(inputs[i]), inputs[i + 1]);
+        }
+        steps.add(new Step(rule, delta, inputMap));
+    }
+
+    void complete(Long insightId) {
+        this.insightId = insightId;
+        this.recordedAt = LocalDateTime.now();
+    }
+
+    @JsonIgnore
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Long getInsightId() { return insightId; }
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    public LocalDateTime getRecordedAt() { return recordedAt; }
+
+    public List<Step> getSteps() { return steps; }
+
+    // One rule that fired: its name, the change it made and what it was decided on
+    public static class Step {
+        private final String rule;
+        private final Object delta;
+        private final Map<String, Object> inputs;
+
+        Step(String rule, Object delta, Map<String, Object> inputs) {
+            this.rule = rule;
+            this.delta = delta;
+            this.inputs = inputs;
+        }
+
+        public String getRule() { return rule; }
+        public Object getDelta() { return delta; }
+        public Map<String, Object> getInputs() { return inputs; }
+    }
+}
@@ -0,0 +1,63 @@
+package com.ii.backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free ring of recent scoring traces. Writers claim a slot with one atomic
+ * increment and overwrite the oldest trace; lookups by insight id scan newest first.
+ * Only a sampled fraction of scoring runs records a trace at all.
+ */
+@Component
+public class ScoringTraceBuffer {
+
+    private final AtomicReferenceArray<ScoringTrace> slots;
+    private final int mask;
+    private final AtomicLong written = new AtomicLong();
+    private final double sampleRate;
+
+    @Autowired
+    public ScoringTraceBuffer(@Value("${insights.scoring-trace.capacity:1024}") int capacity,
+                              @Value("${insights.scoring-trace.sample-rate:1.0}") double sampleRate) {
+        // Round up to a power of two so the slot index is a mask
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.sampleRate = sampleRate;
+    }
+
+    // A recording trace for sampled runs, the shared no-op trace otherwise
+    public ScoringTrace start() {
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            return ScoringTrace.enabled();
+        }
+        return ScoringTrace.disabled();
+    }
+
+    public void add(Long insightId, ScoringTrace trace) {
+        if (insightId == null || !trace.isEnabled()) {
+            return;
+        }
+        trace.complete(insightId);
+        slots.set((int) (written.getAndIncrement() & mask), trace);
+    }
+
+    // Latest trace for the insight, if it is still in the buffer
+    public Optional<ScoringTrace> find(Long insightId) {
+        long end = written.get();
+        long start = Math.max(0, end - slots.length());
+        for (long i = end - 1; i >= start; i--) {
+            ScoringTrace trace = slots.get((int) (i & mask));
+            if (trace != null && insightId.equals(trace.getInsightId())) {
+                return Optional.of(trace);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,146 @@
+package com.ii.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stateless advisor session tokens: {@code payload.signature}, where the payload is
+ * advisorId:expiresAtEpochSeconds:tokenId and the signature is its HMAC-SHA256. Verification
+ * needs only the key, so the request filter never touches the database. Logged-out tokens sit
+ * in an in-memory revocation set until they would have expired anyway. Only the dev profile
+ * may run without auth.token.secret, on a random per-instance key.
+ */
+@Service
+public class SessionTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionTokenService.class);
+    private static final String DEV_PROFILE = "dev";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+    // Mac instances are not thread-safe
+    private final ThreadLocal<Mac> macs;
+    // Revoked token ids with the time their token expires
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SessionTokenService(@Value("${auth.token.secret:}") String secret,
+                               @Value("${auth.token.ttl-minutes:480}") long ttlMinutes,
+                               Environment environment) {
+        this(secret, ttlMinutes, environment.matchesProfiles(DEV_PROFILE));
+    }
+
+    SessionTokenService(String secret, long ttlMinutes, boolean randomKeyAllowed) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            // A random key does not survive a restart or span instances, so sessions would silently break
+            if (!randomKeyAllowed) {
+                throw new IllegalStateException("auth.token.secret (AUTH_TOKEN_SECRET) must be set outside the dev profile");
+            }
+            keyBytes = new byte[32];
+            random.nextBytes(keyBytes);
+            logger.warn("auth.token.secret is not set; using a random signing key for this instance");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 is not available", e);
+            }
+        });
+    }
+
+    public String issue(Long advisorId) {
+        byte[] id = new byte[16];
+        random.nextBytes(id);
+        long expiresAt = Instant.now().plus(ttl).getEpochSecond();
+        String payload = advisorId + ":" + expiresAt + ":" + ENCODER.encodeToString(id);
+        String encodedPayload = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return encodedPayload + "." + ENCODER.encodeToString(sign(encodedPayload));
+    }
+
+    /**
+     * The session behind a token, or empty if it is malformed, forged, expired or revoked
+     */
+    public Optional<Session> verify(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return Optional.empty();
+        }
+        try {
+            String encodedPayload = token.substring(0, dot);
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(encodedPayload))) {
+                return Optional.empty();
+            }
+            String[] parts = new String(DECODER.decode(encodedPayload), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3) {
+                return Optional.empty();
+            }
+            Session session = new Session(Long.parseLong(parts[0]), Long.parseLong(parts[1]), parts[2]);
+            if (session.expiresAt <= Instant.now().getEpochSecond() || revoked.containsKey(session.tokenId)) {
+                return Optional.empty();
+            }
+            return Optional.of(session);
+        } catch (IllegalArgumentException e) {
+            // Bad base64 or number
+            return Optional.empty();
+        }
+    }
+
+    // Logout: the token stays invalid until it expires
+    public void revoke(String token) {
+        verify(token).ifPresent(session -> revoked.put(session.tokenId, session.expiresAt));
+        long now = Instant.now().getEpochSecond();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    private byte[] sign(String encodedPayload) {
+        return macs.get().doFinal(encodedPayload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static class Session {
+        private final Long advisorId;
+        private final long expiresAt;
+        private final String tokenId;
+
+        Session(Long advisorId, long expiresAt, String tokenId) {
+            this.advisorId = advisorId;
+            this.expiresAt = expiresAt;
+            this.tokenId = tokenId;
+        }
+
+        public Long getAdvisorId() { return advisorId; }
+        public long getExpiresAt() { return expiresAt; }
+    }
+}
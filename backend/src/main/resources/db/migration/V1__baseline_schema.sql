@@ -0,0 +1,147 @@
+-- Baseline schema, matching the JPA entities (Hibernate validates it at startup).
+-- Statements are idempotent so databases created earlier by database/schema.sql or
+-- ddl-auto=update can be adopted; V2 brings their columns in line with this file.
+
+CREATE TABLE IF NOT EXISTS advisor (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) UNIQUE NOT NULL,
+    username VARCHAR(255) UNIQUE NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    last_login TIMESTAMP
+);
+
+-- Clients can be created before they are assigned an advisor
+CREATE TABLE IF NOT EXISTS client (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) UNIQUE NOT NULL,
+    risk_tolerance VARCHAR(50) NOT NULL,
+    investment_goals VARCHAR(255),
+    years_until_goal INTEGER,
+    annual_income_goal NUMERIC(38,2),
+    advisor_id BIGINT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (advisor_id) REFERENCES advisor(id)
+);
+
+CREATE TABLE IF NOT EXISTS portfolio (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description TEXT,
+    client_id BIGINT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    account_type VARCHAR(255),
+    total_value NUMERIC(38,2),
+    FOREIGN KEY (client_id) REFERENCES client(id)
+);
+
+CREATE TABLE IF NOT EXISTS holding (
+    id BIGSERIAL PRIMARY KEY,
+    ticker VARCHAR(20) NOT NULL,
+    shares INTEGER NOT NULL,
+    price_per_share NUMERIC(38,2) NOT NULL,
+    sector VARCHAR(100),
+    asset_type VARCHAR(50),
+    beta DOUBLE PRECISION,
+    dividend_yield DOUBLE PRECISION,
+    portfolio_id BIGINT NOT NULL,
+    FOREIGN KEY (portfolio_id) REFERENCES portfolio(id)
+);
+
+CREATE TABLE IF NOT EXISTS investment_insight (
+    id BIGSERIAL PRIMARY KEY,
+    summary VARCHAR(500),
+    ai_generated_text TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    client_id BIGINT,
+    portfolio_id BIGINT,
+    portfolio_name VARCHAR(255),
+    risk_score INTEGER,
+    diversification_score INTEGER,
+    goal_alignment INTEGER,
+    structured_data JSONB,
+    debug_info JSONB,
+    ai_pending BOOLEAN,
+    FOREIGN KEY (client_id) REFERENCES client(id),
+    FOREIGN KEY (portfolio_id) REFERENCES portfolio(id)
+);
+
+-- Optional persistent store for cached AI responses (insights.cache.persistent=true)
+CREATE TABLE IF NOT EXISTS insight_response_cache (
+    cache_key VARCHAR(64) PRIMARY KEY,
+    response_json TEXT,
+    created_at TIMESTAMP
+);
+
+-- Checkpoints for offline insight rescoring jobs
+CREATE TABLE IF NOT EXISTS insight_rescore_checkpoint (
+    job_id VARCHAR(36) PRIMARY KEY,
+    status VARCHAR(20),
+    last_insight_id BIGINT,
+    chunk_size INTEGER,
+    processed BIGINT NOT NULL DEFAULT 0,
+    updated BIGINT NOT NULL DEFAULT 0,
+    skipped BIGINT NOT NULL DEFAULT 0,
+    failed BIGINT NOT NULL DEFAULT 0,
+    error TEXT,
+    started_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    completed_at TIMESTAMP
+);
+
+-- Running holding totals per portfolio, maintained on every holding write and read by the
+-- scoring engine. The beta and dividend sums are unconstrained NUMERIC so they stay exact.
+CREATE TABLE IF NOT EXISTS portfolio_aggregate (
+    portfolio_id BIGINT PRIMARY KEY,
+    total_value NUMERIC(38,2),
+    beta_weighted_value NUMERIC,
+    beta_weight NUMERIC(38,2),
+    annual_dividend_income NUMERIC,
+    etf_count INTEGER NOT NULL DEFAULT 0,
+    holding_count INTEGER NOT NULL DEFAULT 0,
+    ticker_risk_adjustment INTEGER NOT NULL DEFAULT 0,
+    international_sector_count INTEGER NOT NULL DEFAULT 0,
+    international_ticker_count INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP,
+    holdings_changed_at TIMESTAMP, -- Last holding write, in the insight time zone; rescoring skips older insights
+    FOREIGN KEY (portfolio_id) REFERENCES portfolio(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS portfolio_aggregate_sector (
+    portfolio_id BIGINT NOT NULL,
+    sector VARCHAR(255) NOT NULL,
+    sector_value NUMERIC(38,2),
+    holding_count INTEGER NOT NULL DEFAULT 0,
+    etf_count INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (portfolio_id, sector),
+    FOREIGN KEY (portfolio_id) REFERENCES portfolio_aggregate(portfolio_id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS portfolio_aggregate_asset_type (
+    portfolio_id BIGINT NOT NULL,
+    asset_type VARCHAR(255) NOT NULL,
+    asset_type_value NUMERIC(38,2),
+    holding_count INTEGER NOT NULL DEFAULT 0,
+    etf_count INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (portfolio_id, asset_type),
+    FOREIGN KEY (portfolio_id) REFERENCES portfolio_aggregate(portfolio_id) ON DELETE CASCADE
+);
+
+-- Advisor dashboard: one precomputed row per client, upserted on portfolio, holding and insight writes
+CREATE TABLE IF NOT EXISTS client_dashboard_summary (
+    client_id BIGINT PRIMARY KEY,
+    advisor_id BIGINT,
+    client_name VARCHAR(255),
+    risk_tolerance VARCHAR(255),
+    portfolio_count INTEGER NOT NULL DEFAULT 0,
+    total_market_value NUMERIC(38,2),
+    holdings_changed_at TIMESTAMP,
+    latest_insight_id BIGINT,
+    latest_risk_score INTEGER,
+    latest_diversification_score INTEGER,
+    latest_goal_alignment INTEGER,
+    latest_insight_at TIMESTAMP,
+    refreshed_at TIMESTAMP
+);
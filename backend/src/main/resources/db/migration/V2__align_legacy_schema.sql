@@ -0,0 +1,76 @@
+-- Brings databases created before the migrations in line with V1. Every step checks the
+-- current shape first, so on a database created by V1 this migration changes nothing.
+-- Replaces the one-off scripts database/migrate-insight-jsonb.sql and migrate-insight-portfolio.sql.
+
+-- Move a legacy column's values into the entity's column. If ddl-auto=update already added the
+-- entity's column alongside it, values are merged and the legacy column is dropped
+CREATE OR REPLACE FUNCTION pg_temp.adopt_column(tbl TEXT, legacy_col TEXT, entity_col TEXT) RETURNS VOID AS $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = tbl AND column_name = legacy_col) THEN
+        RETURN;
+    END IF;
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = tbl AND column_name = entity_col) THEN
+        EXECUTE format('UPDATE %I SET %I = coalesce(%I, %I)', tbl, entity_col, entity_col, legacy_col);
+        EXECUTE format('ALTER TABLE %I DROP COLUMN %I', tbl, legacy_col);
+    ELSE
+        EXECUTE format('ALTER TABLE %I RENAME COLUMN %I TO %I', tbl, legacy_col, entity_col);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN %I DROP NOT NULL', tbl, entity_col);
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Change a column's type unless it already has it
+CREATE OR REPLACE FUNCTION pg_temp.retype_column(tbl TEXT, col TEXT, target_type TEXT, using_expr TEXT) RETURNS VOID AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = tbl AND column_name = col
+                 AND data_type <> target_type) THEN
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN %I TYPE %s USING %s', tbl, col, target_type, using_expr);
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Older rows may hold the AI's raw text instead of JSON; keep it under rawResponse
+CREATE OR REPLACE FUNCTION pg_temp.to_jsonb_or_raw(value TEXT) RETURNS JSONB AS $$
+BEGIN
+    RETURN value::jsonb;
+EXCEPTION WHEN others THEN
+    RETURN jsonb_build_object('rawResponse', value);
+END;
+$$ LANGUAGE plpgsql;
+
+-- client: database/schema.sql named these investment_goal/time_horizon, which the entity never mapped
+SELECT pg_temp.adopt_column('client', 'investment_goal', 'investment_goals');
+SELECT pg_temp.adopt_column('client', 'time_horizon', 'years_until_goal');
+ALTER TABLE client ADD COLUMN IF NOT EXISTS investment_goals VARCHAR(255);
+ALTER TABLE client ADD COLUMN IF NOT EXISTS years_until_goal INTEGER;
+ALTER TABLE client ADD COLUMN IF NOT EXISTS annual_income_goal NUMERIC(38,2);
+ALTER TABLE client ALTER COLUMN advisor_id DROP NOT NULL;
+
+-- holding: shares is a whole number in the entity; beta and yield are doubles
+SELECT pg_temp.retype_column('holding', 'shares', 'integer', 'round(shares)::integer');
+SELECT pg_temp.retype_column('holding', 'beta', 'double precision', 'beta::double precision');
+SELECT pg_temp.retype_column('holding', 'dividend_yield', 'double precision', 'dividend_yield::double precision');
+
+-- investment_insight: structured_data and debug_info were TEXT before they became JSONB
+SELECT pg_temp.retype_column('investment_insight', 'structured_data', 'jsonb', 'pg_temp.to_jsonb_or_raw(structured_data)');
+SELECT pg_temp.retype_column('investment_insight', 'debug_info', 'jsonb', 'pg_temp.to_jsonb_or_raw(debug_info)');
+ALTER TABLE investment_insight ADD COLUMN IF NOT EXISTS ai_pending BOOLEAN;
+
+-- investment_insight.portfolio_id: older insights only recorded the portfolio's name, so match it
+-- within the client's portfolios. Renamed or deleted portfolios stay client-level (NULL)
+ALTER TABLE investment_insight ADD COLUMN IF NOT EXISTS portfolio_id BIGINT REFERENCES portfolio(id);
+UPDATE investment_insight i
+SET portfolio_id = (SELECT min(p.id) FROM portfolio p WHERE p.client_id = i.client_id AND p.name = i.portfolio_name)
+WHERE i.portfolio_id IS NULL AND i.portfolio_name IS NOT NULL;
+
+ALTER TABLE portfolio ADD COLUMN IF NOT EXISTS account_type VARCHAR(255);
+ALTER TABLE portfolio ADD COLUMN IF NOT EXISTS total_value NUMERIC(38,2);
+
+-- Indexes superseded by V3: leading columns of composite indexes, or already unique constraints
+DROP INDEX IF EXISTS idx_insight_client_id;
+DROP INDEX IF EXISTS idx_holding_portfolio_id;
+DROP INDEX IF EXISTS idx_advisor_username;
+DROP INDEX IF EXISTS idx_client_email;
@@ -0,0 +1,26 @@
+-- Indexes for the application's access paths. Foreign keys get an index where a list is
+-- read through them; composite indexes also serve lookups on their leading column.
+
+-- Login looks advisors up by username. Same names as V1's unique constraints, so these
+-- only build anything on databases that ddl-auto=update created
+CREATE UNIQUE INDEX IF NOT EXISTS advisor_username_key ON advisor(username);
+CREATE UNIQUE INDEX IF NOT EXISTS advisor_email_key ON advisor(email);
+
+-- Clients per advisor, portfolios per client
+CREATE INDEX IF NOT EXISTS idx_client_advisor_id ON client(advisor_id);
+CREATE INDEX IF NOT EXISTS idx_portfolio_client_id ON portfolio(client_id);
+
+-- Holdings by portfolio, and by ticker within a portfolio
+CREATE INDEX IF NOT EXISTS idx_holding_portfolio_ticker ON holding(portfolio_id, ticker);
+
+-- Newest-first insight lists per portfolio and per client
+CREATE INDEX IF NOT EXISTS idx_insight_portfolio_created ON investment_insight(portfolio_id, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_insight_client_created ON investment_insight(client_id, created_at DESC);
+-- Date-range filters on the insight listing
+CREATE INDEX IF NOT EXISTS idx_insight_created_at ON investment_insight(created_at);
+-- Containment (@>) searches on recommended tickers and priorities
+CREATE INDEX IF NOT EXISTS idx_insight_structured_data ON investment_insight USING GIN (structured_data jsonb_path_ops);
+
+CREATE INDEX IF NOT EXISTS idx_dashboard_advisor_id ON client_dashboard_summary(advisor_id);
+
+ANALYZE advisor, client, portfolio, holding, investment_insight;
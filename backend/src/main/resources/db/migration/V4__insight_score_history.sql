@@ -0,0 +1,52 @@
+-- Score trend charts. Every saved insight appends one narrow row to insight_score_history, and
+-- the same statement adds it to the day/week/month buckets of its client, portfolio and advisor
+-- in insight_score_rollup. Sums and counts are stored so buckets can be added to in place; the
+-- chart reads averages from the rollups, about 53 weekly rows for a year.
+
+CREATE TABLE IF NOT EXISTS insight_score_history (
+    id BIGSERIAL PRIMARY KEY,
+    insight_id BIGINT NOT NULL,
+    client_id BIGINT NOT NULL,
+    portfolio_id BIGINT,
+    advisor_id BIGINT,
+    risk_score INTEGER NOT NULL,
+    diversification_score INTEGER NOT NULL,
+    goal_alignment INTEGER NOT NULL,
+    recorded_at TIMESTAMP NOT NULL
+);
+
+-- scope is CLIENT, PORTFOLIO or ADVISOR; granularity is DAY, WEEK (starting Monday) or MONTH
+CREATE TABLE IF NOT EXISTS insight_score_rollup (
+    scope VARCHAR(10) NOT NULL,
+    scope_id BIGINT NOT NULL,
+    granularity VARCHAR(5) NOT NULL,
+    bucket_start DATE NOT NULL,
+    sample_count INTEGER NOT NULL,
+    risk_score_sum BIGINT NOT NULL,
+    diversification_score_sum BIGINT NOT NULL,
+    goal_alignment_sum BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (scope, scope_id, granularity, bucket_start)
+);
+
+-- Seed the history from insights saved before it existed, then rebuild the rollups from it
+INSERT INTO insight_score_history (insight_id, client_id, portfolio_id, advisor_id, risk_score,
+                                   diversification_score, goal_alignment, recorded_at)
+SELECT i.id, i.client_id, i.portfolio_id, c.advisor_id, i.risk_score, i.diversification_score,
+       i.goal_alignment, coalesce(i.created_at, CURRENT_TIMESTAMP)
+FROM investment_insight i
+JOIN client c ON c.id = i.client_id
+WHERE i.risk_score IS NOT NULL AND i.diversification_score IS NOT NULL AND i.goal_alignment IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM insight_score_history h WHERE h.insight_id = i.id)
+ORDER BY i.id;
+
+DELETE FROM insight_score_rollup;
+INSERT INTO insight_score_rollup (scope, scope_id, granularity, bucket_start, sample_count, risk_score_sum,
+                                  diversification_score_sum, goal_alignment_sum, updated_at)
+SELECT s.scope, s.scope_id, g.granularity, CAST(date_trunc(g.unit, h.recorded_at) AS DATE), count(*),
+       sum(h.risk_score), sum(h.diversification_score), sum(h.goal_alignment), CURRENT_TIMESTAMP
+FROM insight_score_history h
+CROSS JOIN LATERAL (VALUES ('CLIENT', h.client_id), ('PORTFOLIO', h.portfolio_id), ('ADVISOR', h.advisor_id)) AS s(scope, scope_id)
+CROSS JOIN (VALUES ('DAY', 'day'), ('WEEK', 'week'), ('MONTH', 'month')) AS g(granularity, unit)
+WHERE s.scope_id IS NOT NULL
+GROUP BY s.scope, s.scope_id, g.granularity, CAST(date_trunc(g.unit, h.recorded_at) AS DATE);
@@ -3,7 +3,7 @@ package com.ii.backend;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "auth.token.secret=test-signing-secret")
 class BackendApplicationTests {
 
 	@Test
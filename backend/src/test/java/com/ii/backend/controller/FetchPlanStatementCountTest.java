@@ -0,0 +1,204 @@
+package com.ii.backend.controller;
+
+import com.ii.backend.model.Advisor;
+import com.ii.backend.model.AssetRecommendation;
+import com.ii.backend.model.Client;
+import com.ii.backend.model.Holding;
+import com.ii.backend.model.InvestmentInsight;
+import com.ii.backend.model.Portfolio;
+import com.ii.backend.model.StructuredInsight;
+import com.ii.backend.service.SessionTokenService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each read endpoint issues, including lazy loads made while
+ * the response is serialized. Several clients, portfolios and holdings are seeded so an N+1
+ * regression shows up as a higher count rather than passing by coincidence. The container's
+ * schema is built by the Flyway migrations, so this also checks that they validate against the entities.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "auth.token.secret=test-signing-secret"})
+@AutoConfigureMockMvc
+@Testcontainers
+@Transactional
+class FetchPlanStatementCountTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    private static final int CLIENTS = 3;
+    private static final int PORTFOLIOS_PER_CLIENT = 2;
+    private static final int HOLDINGS_PER_PORTFOLIO = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SessionTokenService tokenService;
+
+    private Statistics statistics;
+    private Advisor advisor;
+    private Client client;
+    private Portfolio portfolio;
+    private InvestmentInsight insight;
+
+    @BeforeEach
+    void seed() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        advisor = new Advisor();
+        advisor.setName("Statement Count");
+        advisor.setUsername("statement-count");
+        advisor.setEmail("statement-count@example.com");
+        advisor.setPasswordHash("unused");
+        entityManager.persist(advisor);
+
+        for (int c = 0; c < CLIENTS; c++) {
+            Client owner = new Client();
+            owner.setName("Client " + c);
+            owner.setEmail("client" + c + "@example.com");
+            owner.setRiskTolerance("Moderate");
+            owner.setInvestmentGoals("Retirement");
+            owner.setYearsUntilGoal(20);
+            owner.setAdvisor(advisor);
+            entityManager.persist(owner);
+
+            Portfolio firstAccount = null;
+            for (int p = 0; p < PORTFOLIOS_PER_CLIENT; p++) {
+                Portfolio account = new Portfolio("Portfolio " + c + "-" + p, new BigDecimal("10000.00"), "Brokerage", owner);
+                entityManager.persist(account);
+                for (int h = 0; h < HOLDINGS_PER_PORTFOLIO; h++) {
+                    entityManager.persist(new Holding(h == 0 ? "AAPL" : "SPY" + h, 10, new BigDecimal("100.00"),
+                            "Technology", "Stock", 1.1, 0.5, account));
+                }
+                if (firstAccount == null) {
+                    firstAccount = account;
+                }
+                if (portfolio == null) {
+                    portfolio = account;
+                }
+            }
+
+            InvestmentInsight stored = new InvestmentInsight();
+            stored.setSummary("Summary " + c);
+            stored.setAiGeneratedText("Full analysis " + c);
+            stored.setCreatedAt(LocalDateTime.now().minusMinutes(c));
+            stored.setPortfolio(firstAccount);
+            stored.setPortfolioName(firstAccount.getName());
+            stored.setClient(owner);
+            stored.setStructuredData(structuredInsightRecommending("AAPL"));
+            entityManager.persist(stored);
+
+            if (client == null) {
+                client = owner;
+                insight = stored;
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void holdingListsLoadPortfolioChainInOneStatement() throws Exception {
+        assertStatements(1, "/api/holdings/portfolio/" + portfolio.getId());
+        assertStatements(1, "/api/portfolios/" + portfolio.getId() + "/holdings");
+        assertStatements(1, "/api/cleanup/holdings?portfolioId=" + portfolio.getId());
+    }
+
+    @Test
+    void portfolioReadsLoadClientAndAdvisorInOneStatement() throws Exception {
+        assertStatements(1, "/api/portfolios/" + portfolio.getId());
+        assertStatements(1, "/api/portfolios/client/" + client.getId());
+        assertStatements(1, "/api/portfolios/advisor/" + advisor.getId());
+        assertStatements(1, "/api/portfolios?advisorId=" + advisor.getId());
+    }
+
+    @Test
+    void clientReadsLoadAdvisorInOneStatement() throws Exception {
+        assertStatements(1, "/api/clients/" + client.getId());
+        assertStatements(1, "/api/clients?advisorId=" + advisor.getId());
+        // Advisor existence check plus the client list
+        assertStatements(2, "/api/auth/advisor/" + advisor.getId() + "/clients");
+    }
+
+    @Test
+    void insightReadsUseFixedStatementCounts() throws Exception {
+        assertStatements(1, "/api/insights/" + insight.getId());
+        assertStatements(1, "/api/insights?advisorId=" + advisor.getId());
+        // Existence or owner lookup plus the summary query
+        assertStatements(2, "/api/insights/client/" + client.getId());
+        assertStatements(2, "/api/insights/portfolio/" + portfolio.getId());
+        assertStatements(2, "/api/insights/client/" + client.getId() + "/latest-by-portfolio");
+        // Native JSONB id search plus the entity-graph load
+        assertStatements(2, "/api/insights/search?ticker=AAPL");
+    }
+
+    @Test
+    void latestByPortfolioBreaksTimestampTiesOnId() throws Exception {
+        InvestmentInsight first = entityManager.find(InvestmentInsight.class, insight.getId());
+        InvestmentInsight sameInstant = new InvestmentInsight();
+        sameInstant.setSummary("Same instant");
+        sameInstant.setCreatedAt(first.getCreatedAt());
+        sameInstant.setPortfolio(first.getPortfolio());
+        sameInstant.setPortfolioName(first.getPortfolioName());
+        sameInstant.setClient(first.getClient());
+        entityManager.persist(sameInstant);
+        entityManager.flush();
+
+        mockMvc.perform(get("/api/insights/client/" + client.getId() + "/latest-by-portfolio")
+                        .header("Authorization", "Bearer " + tokenService.issue(advisor.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(sameInstant.getId()));
+    }
+
+    private void assertStatements(long expected, String url) throws Exception {
+        entityManager.clear();
+        statistics.clear();
+        // Token checks never touch the database
+        mockMvc.perform(get(url).header("Authorization", "Bearer " + tokenService.issue(advisor.getId())))
+                .andExpect(status().isOk());
+        assertEquals(expected, statistics.getPrepareStatementCount(), "SQL statements for GET " + url);
+    }
+
+    private static StructuredInsight structuredInsightRecommending(String ticker) {
+        AssetRecommendation recommendation = new AssetRecommendation();
+        recommendation.ticker = ticker;
+        recommendation.priority = "HIGH";
+        StructuredInsight structured = new StructuredInsight();
+        structured.assetRecommendations = List.of(recommendation);
+        return structured;
+    }
+}
@@ -0,0 +1,133 @@
+package com.ii.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Circuit breaker state transitions, and the difference between an open breaker (degrade)
+ * and a full bulkhead (retry later) as callers of the client see it.
+ */
+class AiInsightClientTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+    private final AtomicLong now = new AtomicLong();
+    private final AiInsightClient.CircuitBreaker breaker = new AiInsightClient.CircuitBreaker(3, OPEN_DURATION, now::get);
+
+    @Test
+    void opensAfterThresholdConsecutiveFailures() {
+        for (int i = 0; i < 2; i++) {
+            assertTrue(breaker.tryAcquirePermission());
+            breaker.recordFailure();
+        }
+        assertEquals(AiInsightClient.CircuitBreaker.State.CLOSED, breaker.getState());
+
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.recordFailure();
+        assertEquals(AiInsightClient.CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+
+        assertEquals(AiInsightClient.CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(1, breaker.getConsecutiveFailures());
+    }
+
+    @Test
+    void letsOneTrialCallThroughOnceTheOpenPeriodEnds() {
+        open();
+        now.addAndGet(OPEN_DURATION.toNanos() - 1);
+        assertFalse(breaker.tryAcquirePermission());
+
+        now.addAndGet(1);
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(AiInsightClient.CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission(), "only one trial call at a time");
+    }
+
+    @Test
+    void successfulTrialClosesTheBreaker() {
+        open();
+        now.addAndGet(OPEN_DURATION.toNanos());
+        assertTrue(breaker.tryAcquirePermission());
+
+        breaker.recordSuccess();
+        assertEquals(AiInsightClient.CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getConsecutiveFailures());
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void failedTrialReopensForAnotherFullPeriod() {
+        open();
+        now.addAndGet(OPEN_DURATION.toNanos());
+        assertTrue(breaker.tryAcquirePermission());
+
+        breaker.recordFailure();
+        assertEquals(AiInsightClient.CircuitBreaker.State.OPEN, breaker.getState());
+        now.addAndGet(OPEN_DURATION.toNanos() - 1);
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void cancelledTrialFreesTheTrialSlot() {
+        open();
+        now.addAndGet(OPEN_DURATION.toNanos());
+        assertTrue(breaker.tryAcquirePermission());
+
+        breaker.releasePermission();
+        assertEquals(AiInsightClient.CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void fullBulkheadIsBusyAfterTheWaitRatherThanUnavailable() {
+        AiInsightClient client = client(0, 200, 5);
+
+        long start = System.nanoTime();
+        assertThrows(AiInsightClient.AiServiceBusyException.class,
+                () -> client.generateInsight(List.of("SPY"), "Balanced").block());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 150, "waited for a free slot");
+        assertEquals("CLOSED", client.getStatus().get("circuitState"));
+    }
+
+    @Test
+    void openBreakerIsUnavailable() {
+        // Nothing listens on port 1, so the first call trips a breaker with a threshold of one
+        AiInsightClient client = client(1, 0, 1);
+
+        assertThrows(WebClientRequestException.class, () -> client.generateInsight(List.of("SPY"), "Balanced").block());
+        assertThrows(AiInsightClient.AiServiceUnavailableException.class,
+                () -> client.generateInsight(List.of("SPY"), "Balanced").block());
+        assertEquals(1, client.getStatus().get("availablePermits"));
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+    }
+
+    private static AiInsightClient client(int maxConcurrentCalls, long bulkheadWaitMs, int failureThreshold) {
+        return new AiInsightClient(new ObjectMapper(), new InsightMetrics(new SimpleMeterRegistry()),
+                "http://localhost:1", 500, 5, 5, maxConcurrentCalls, bulkheadWaitMs, 0, 10, failureThreshold, 30);
+    }
+}
@@ -0,0 +1,119 @@
+package com.ii.backend.service;
+
+import com.ii.backend.model.Advisor;
+import com.ii.backend.model.Client;
+import com.ii.backend.model.Holding;
+import com.ii.backend.model.InvestmentInsight;
+import com.ii.backend.model.Portfolio;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the set-based purges against a real PostgreSQL, whose foreign key checks (e.g. TRUNCATE
+ * refusing a referenced table) an in-memory database would not reproduce. Each test rolls back.
+ */
+@SpringBootTest(properties = "auth.token.secret=test-signing-secret")
+@Testcontainers
+@Transactional
+class DataPurgeServiceTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private DataPurgeService purgeService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        Advisor advisor = new Advisor();
+        advisor.setName("Purge");
+        advisor.setUsername("purge");
+        advisor.setEmail("purge@example.com");
+        advisor.setPasswordHash("unused");
+        entityManager.persist(advisor);
+
+        Client client = new Client();
+        client.setName("Purge Client");
+        client.setEmail("purge-client@example.com");
+        client.setRiskTolerance("Moderate");
+        client.setAdvisor(advisor);
+        entityManager.persist(client);
+
+        Portfolio portfolio = new Portfolio("Retirement", new BigDecimal("10000.00"), "IRA", client);
+        entityManager.persist(portfolio);
+        entityManager.persist(new Holding("SPY", 10, new BigDecimal("100.00"), "Diversified", "ETF", 1.0, 1.3, portfolio));
+        entityManager.persist(new Holding("AAPL", 5, new BigDecimal("200.00"), "Technology", "Stock", 1.2, 0.5, portfolio));
+
+        InvestmentInsight insight = new InvestmentInsight();
+        insight.setSummary("Summary");
+        insight.setCreatedAt(LocalDateTime.now());
+        insight.setClient(client);
+        insight.setPortfolio(portfolio);
+        insight.setPortfolioName(portfolio.getName());
+        entityManager.persist(insight);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void truncatingPortfoliosKeepsTheirInsightsDetached() {
+        Map<String, Long> before = purgeService.truncate(DataPurgeService.Target.PORTFOLIOS);
+
+        assertEquals(1L, before.get("portfolios"));
+        assertEquals(2L, before.get("holdings"));
+        assertEquals(0L, count("portfolio"));
+        assertEquals(0L, count("holding"));
+        assertEquals(1L, count("client"));
+        assertEquals(1L, count("investment_insight"));
+        assertEquals(0L, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM investment_insight WHERE portfolio_id IS NOT NULL", Long.class));
+        assertEquals("Retirement", jdbcTemplate.queryForObject(
+                "SELECT portfolio_name FROM investment_insight", String.class));
+    }
+
+    @Test
+    void truncatingHoldingsLeavesPortfolios() {
+        purgeService.truncate(DataPurgeService.Target.HOLDINGS);
+
+        assertEquals(0L, count("holding"));
+        assertEquals(1L, count("portfolio"));
+        assertEquals(1L, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM investment_insight WHERE portfolio_id IS NOT NULL", Long.class));
+    }
+
+    @Test
+    void truncatingEverythingEmptiesAllTables() {
+        purgeService.truncate(DataPurgeService.Target.EVERYTHING);
+
+        for (long rows : purgeService.countRows().values()) {
+            assertEquals(0L, rows);
+        }
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class);
+    }
+}
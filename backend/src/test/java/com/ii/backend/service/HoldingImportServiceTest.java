@@ -0,0 +1,172 @@
+package com.ii.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * CSV field parsing and per-row validation of the bulk holdings import. The database is
+ * mocked: portfolio 5 exists, and accepted rows are captured from the batch insert.
+ */
+class HoldingImportServiceTest {
+
+    private static final String HEADER = "ticker,shares,pricePerShare,sector,assetType,beta,dividendYield,portfolioId\n";
+
+    private JdbcTemplate jdbcTemplate;
+    private HoldingImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        NamedParameterJdbcTemplate namedJdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        when(namedJdbcTemplate.queryForList(anyString(), anyMap(), eq(Long.class))).thenReturn(List.of(5L));
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+
+        importService = new HoldingImportService(jdbcTemplate, namedJdbcTemplate, transactionManager,
+                mock(PortfolioAggregateService.class), mock(AdvisorDashboardService.class), new ObjectMapper(), 1000, 1000);
+    }
+
+    @Test
+    void parsesPlainAndQuotedFields() {
+        assertArrayEquals(new String[] {"SPY", "10", "485.20"}, HoldingImportService.parseCsvLine("SPY,10,485.20"));
+        assertArrayEquals(new String[] {"BRK.B", "Financials, Insurance", "ETF"},
+                HoldingImportService.parseCsvLine("BRK.B,\"Financials, Insurance\",ETF"));
+        assertArrayEquals(new String[] {"", "", ""}, HoldingImportService.parseCsvLine(",,"));
+        assertArrayEquals(new String[] {"SPY", ""}, HoldingImportService.parseCsvLine("SPY,\"\""));
+    }
+
+    @Test
+    void doubledQuoteInsideQuotedFieldIsALiteralQuote() {
+        assertArrayEquals(new String[] {"Fund \"Growth\" Class", "1"},
+                HoldingImportService.parseCsvLine("\"Fund \"\"Growth\"\" Class\",1"));
+        assertArrayEquals(new String[] {"\""}, HoldingImportService.parseCsvLine("\"\"\"\""));
+    }
+
+    @Test
+    void unterminatedQuotedFieldIsRejected() {
+        assertThrows(RuntimeException.class, () -> HoldingImportService.parseCsvLine("SPY,\"Diversified,ETF"));
+        assertThrows(RuntimeException.class, () -> HoldingImportService.parseCsvLine("\"Fund \"\"Growth\"\""));
+    }
+
+    @Test
+    void validRowsAreInsertedAndInvalidRowsReportedByLine() {
+        String csv = HEADER
+                + "spy,10,485.20,Diversified,ETF,1.0,1.45,5\n"    // line 2: valid, ticker upper-cased
+                + ",10,485.20,,,,,5\n"                             // 3
+                + "ABCDEFGHIJKLMNOPQRSTU,10,1,,,,,5\n"            // 4
+                + "SPY,1.5,485.20,,,,,5\n"                         // 5
+                + "SPY,0,485.20,,,,,5\n"                           // 6
+                + "SPY,10,,,,,,5\n"                                // 7
+                + "SPY,10,-1,,,,,5\n"                              // 8
+                + "SPY,10,485.20,,,high,,5\n"                      // 9
+                + "SPY,10,485.20,,,,-0.5,5\n"                      // 10
+                + "SPY,10,485.20,,,,,five\n"                       // 11
+                + "SPY,10,485.20,,,,,\n"                           // 12: no portfolio and no default
+                + "SPY,10,485.20,,,,,5,extra\n"                    // 13
+                + "SPY,10,485.20,\"Diversified,ETF\n"              // 14
+                + "\n"                                             // 15: blank lines are skipped
+                + "VXUS,\"2,000\",60.10,\"International, Developed\",ETF,,,5\n"; // 16: quoted thousands separator
+
+        HoldingImportService.ImportResult result = importService.importHoldings(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), HoldingImportService.Format.CSV, null);
+
+        assertEquals(14, result.totalRows);
+        assertEquals(1, result.imported);
+        assertEquals(13, result.failed);
+        Map<Integer, String> errors = result.errors.stream().collect(Collectors.toMap(error -> error.line, error -> error.message));
+        assertEquals("ticker is required", errors.get(3));
+        assertEquals("ticker is longer than 20 characters", errors.get(4));
+        assertEquals("shares must be a whole number: 1.5", errors.get(5));
+        assertEquals("shares must be positive", errors.get(6));
+        assertEquals("pricePerShare is required", errors.get(7));
+        assertEquals("pricePerShare must be positive", errors.get(8));
+        assertEquals("beta is not a number: high", errors.get(9));
+        assertEquals("dividendYield cannot be negative", errors.get(10));
+        assertEquals("portfolioId must be a number: five", errors.get(11));
+        assertEquals("portfolioId is required", errors.get(12));
+        assertEquals("Expected at most 8 columns but found 9", errors.get(13));
+        assertEquals("Unterminated quoted field", errors.get(14));
+        assertEquals("shares must be a whole number: 2,000", errors.get(16));
+
+        List<Object[]> inserts = insertedRows();
+        assertEquals(1, inserts.size());
+        assertArrayEquals(new Object[] {"SPY", 10, new BigDecimal("485.20"), "Diversified", "ETF", 1.0, 1.45, 5L}, inserts.get(0));
+    }
+
+    @Test
+    void rowsWithoutPortfolioUseTheDefaultAndUnknownPortfoliosAreRejected() {
+        String csv = "\uFEFFTicker,Shares,PricePerShare,PortfolioId\n"
+                + "AAPL,5,190.00,\n"
+                + "MSFT,3,410.00,9\n";
+
+        HoldingImportService.ImportResult result = importService.importHoldings(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), HoldingImportService.Format.CSV, 5L);
+
+        assertEquals(1, result.imported);
+        assertEquals(1, result.errors.size());
+        assertEquals(3, result.errors.get(0).line);
+        assertEquals("Portfolio not found: 9", result.errors.get(0).message);
+        assertEquals(5L, insertedRows().get(0)[7]);
+    }
+
+    @Test
+    void jsonLinesAcceptNestedPortfolioAndReportInvalidJson() {
+        String jsonLines = "{\"ticker\":\"BND\",\"shares\":20,\"pricePerShare\":72.5,\"portfolio\":{\"id\":5}}\n"
+                + "{\"ticker\":\"BND\",\"shares\":20\n"
+                + "[1,2,3]\n";
+
+        HoldingImportService.ImportResult result = importService.importHoldings(
+                new ByteArrayInputStream(jsonLines.getBytes(StandardCharsets.UTF_8)), HoldingImportService.Format.JSON_LINES, null);
+
+        assertEquals(1, result.imported);
+        assertEquals(2, result.failed);
+        assertTrue(result.errors.get(0).message.startsWith("Invalid JSON"));
+        assertEquals("Expected a JSON object", result.errors.get(1).message);
+        assertEquals(5L, insertedRows().get(0)[7]);
+    }
+
+    @Test
+    void maxReportedErrorsBoundsTheErrorList() {
+        HoldingImportService bounded = new HoldingImportService(null, null, null, null, null, new ObjectMapper(), 1000, 2);
+        String csv = HEADER + ",1,1,,,,,5\n,1,1,,,,,5\n,1,1,,,,,5\n";
+
+        HoldingImportService.ImportResult result = bounded.importHoldings(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), HoldingImportService.Format.CSV, null);
+
+        assertEquals(3, result.failed);
+        assertEquals(2, result.errors.size());
+        assertTrue(result.errorsTruncated);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> insertedRows() {
+        ArgumentCaptor<List<Object[]>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), inserts.capture());
+        return inserts.getValue();
+    }
+}
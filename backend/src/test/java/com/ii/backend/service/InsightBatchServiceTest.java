@@ -0,0 +1,79 @@
+package com.ii.backend.service;
+
+import com.ii.backend.model.Client;
+import com.ii.backend.model.InvestmentInsight;
+import com.ii.backend.model.Portfolio;
+import com.ii.backend.repository.PortfolioRepository;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Batch items rejected by a full AI bulkhead wait their turn instead of failing.
+ */
+class InsightBatchServiceTest {
+
+    private final PortfolioRepository portfolioRepository = mock(PortfolioRepository.class);
+    private final InvestmentInsightService insightService = mock(InvestmentInsightService.class);
+    private final InsightBatchService batchService =
+            new InsightBatchService(portfolioRepository, insightService, 4, 8, 8, 60, 3, 1);
+
+    @Test
+    void busyRejectionsAreRetriedUntilASlotFrees() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        when(insightService.generateInsightForPortfolioAsync(any(), any(), any())).thenReturn(Mono.defer(() ->
+                attempts.incrementAndGet() <= 2
+                        ? Mono.error(new AiInsightClient.AiServiceBusyException())
+                        : Mono.just(new InvestmentInsight())));
+
+        InsightBatchService.InsightBatch batch = runBatch();
+
+        assertEquals(1, batch.getSucceeded());
+        assertEquals(0, batch.getFailed());
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void otherErrorsAndExhaustedRetriesFailTheItem() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        when(insightService.generateInsightForPortfolioAsync(any(), any(), any())).thenReturn(Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(new RuntimeException("AI service returned 500"));
+        }));
+        assertEquals(1, runBatch().getFailed());
+        assertEquals(1, attempts.get());
+
+        attempts.set(0);
+        when(insightService.generateInsightForPortfolioAsync(any(), any(), any())).thenReturn(Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(new AiInsightClient.AiServiceBusyException());
+        }));
+        InsightBatchService.InsightBatch batch = runBatch();
+        assertEquals(1, batch.getFailed());
+        assertTrue(batch.getItems().get(0).getError().contains("concurrent call limit"), batch.getItems().get(0).getError());
+        assertEquals(4, attempts.get());
+    }
+
+    private InsightBatchService.InsightBatch runBatch() throws InterruptedException {
+        Client client = new Client();
+        client.setId(7L);
+        when(portfolioRepository.findByClientAdvisorId(1L))
+                .thenReturn(List.of(new Portfolio("Growth", BigDecimal.ZERO, "Taxable", client)));
+
+        InsightBatchService.InsightBatch batch = batchService.submitAdvisorBatch(1L, null, null);
+        for (int i = 0; i < 500 && batch.getStatus() != InsightBatchService.BatchStatus.COMPLETED; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(InsightBatchService.BatchStatus.COMPLETED, batch.getStatus());
+        return batch;
+    }
+}
@@ -0,0 +1,102 @@
+package com.ii.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * In-memory behaviour of the AI response cache: hits are restamped with the insight clock,
+ * entries expire after the TTL, and the least recently used entry is evicted at capacity.
+ */
+class InsightResponseCacheTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 9, 30, 0);
+
+    private final AtomicReference<LocalDateTime> now = new AtomicReference<>(START);
+
+    private InsightResponseCache cache(boolean enabled, int maxEntries) {
+        return new InsightResponseCache(null, null, enabled, false, maxEntries, 60, now::get);
+    }
+
+    @Test
+    void hitReturnsACopyStampedWithTheInsightClock() {
+        InsightResponseCache cache = cache(true, 10);
+        InvestmentInsightService.AIResponse stored = response("Balanced growth");
+        cache.put("k", stored);
+
+        now.set(START.plusMinutes(5));
+        InvestmentInsightService.AIResponse hit = cache.get("k");
+
+        assertNotNull(hit);
+        assertEquals("Balanced growth", hit.summary);
+        assertEquals("2024-03-01T09:35:00", hit.createdAt);
+        assertEquals("2024-01-01T00:00:00", stored.createdAt, "the cached response itself is not restamped");
+        assertNull(cache.get("missing"));
+        assertEquals(1L, cache.getStats().get("hits"));
+        assertEquals(1L, cache.getStats().get("misses"));
+    }
+
+    @Test
+    void entriesExpireAfterTheTtl() {
+        InsightResponseCache cache = cache(true, 10);
+        cache.put("k", response("Income focus"));
+
+        now.set(START.plusMinutes(60));
+        assertNotNull(cache.get("k"));
+
+        now.set(START.plusMinutes(60).plusSeconds(1));
+        assertNull(cache.get("k"));
+        assertEquals(0, cache.getStats().get("size"));
+        assertEquals(1L, cache.getStats().get("evictions"));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntryAtCapacity() {
+        InsightResponseCache cache = cache(true, 2);
+        cache.put("a", response("A"));
+        cache.put("b", response("B"));
+        cache.get("a");
+        cache.put("c", response("C"));
+
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertEquals(2, cache.getStats().get("size"));
+        assertEquals(1L, cache.getStats().get("evictions"));
+    }
+
+    @Test
+    void disabledCacheStoresNothing() {
+        InsightResponseCache cache = cache(false, 10);
+        cache.put("k", response("Ignored"));
+
+        assertNull(cache.get("k"));
+        assertEquals(0, cache.getStats().get("size"));
+    }
+
+    @Test
+    void keysDependOnTickerOrderAndPrompt() {
+        InsightResponseCache cache = cache(true, 10);
+        String key = cache.keyFor(List.of("AAPL", "SPY"), "prompt");
+
+        assertEquals(key, cache.keyFor(List.of("AAPL", "SPY"), "prompt"));
+        assertNotEquals(key, cache.keyFor(List.of("SPY", "AAPL"), "prompt"));
+        assertNotEquals(key, cache.keyFor(List.of("AAPL", "SPY"), "other prompt"));
+        // The separator keeps a ticker from running into the prompt
+        assertNotEquals(cache.keyFor(List.of("AB"), "C"), cache.keyFor(List.of("A"), "BC"));
+    }
+
+    private static InvestmentInsightService.AIResponse response(String summary) {
+        InvestmentInsightService.AIResponse response = new InvestmentInsightService.AIResponse();
+        response.summary = summary;
+        response.createdAt = "2024-01-01T00:00:00";
+        return response;
+    }
+}
@@ -0,0 +1,152 @@
+package com.ii.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ii.backend.model.Holding;
+import com.ii.backend.model.PortfolioAggregate;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Checks the fixed-point scoring engine against golden scores recorded from the original
+ * BigDecimal scorers, over the dummy holdings in data/ and the demo portfolios in
+ * database/init-demo-data.sql, both for vectors built from the holdings and for vectors
+ * built from a maintained portfolio aggregate.
+ */
+class ScoringEngineGoldenTest {
+
+    private static final Path REPO_ROOT = Path.of("..");
+    private static final String GOLDEN_FILE = "/scoring/golden-scores.csv";
+
+    // ('SPY', 200, 485.20, 'Diversified', 'ETF', 1.00, 1.45, (SELECT id FROM portfolio WHERE name = 'Balanced Retirement' ...
+    private static final Pattern DEMO_HOLDING = Pattern.compile(
+            "\\('([^']*)',\\s*(\\d+),\\s*([\\d.]+),\\s*'([^']*)',\\s*'([^']*)',\\s*([\\d.]+|NULL),\\s*([\\d.]+|NULL),\\s*" +
+            "\\(SELECT id FROM portfolio WHERE name = '([^']*)'");
+
+    @Test
+    void engineMatchesGoldenScores() throws IOException {
+        Map<String, List<Holding>> portfolios = loadPortfolios();
+        List<String[]> rows = loadGoldenRows();
+        assertFalse(rows.isEmpty(), "golden file has no rows");
+
+        for (String[] row : rows) {
+            List<Holding> holdings = portfolios.get(row[0]);
+            assertNotNull(holdings, "no holdings loaded for " + row[0]);
+            assertGoldenScores(row, ScoringEngine.PortfolioVector.of(holdings));
+        }
+    }
+
+    @Test
+    void aggregateBackedVectorMatchesGoldenScores() throws IOException {
+        Map<String, List<Holding>> portfolios = loadPortfolios();
+        Holding removed = new Holding("NVDA", 400, new BigDecimal("875.30"), "Technology", "Stock", 1.7, 0.03, null);
+
+        for (String[] row : loadGoldenRows()) {
+            List<Holding> holdings = portfolios.get(row[0]);
+            PortfolioAggregate aggregate = new PortfolioAggregate(1L);
+            holdings.forEach(aggregate::addHolding);
+            // A holding written and deleted again must leave no trace in the running totals
+            aggregate.addHolding(removed);
+            aggregate.removeHolding(removed);
+
+            assertGoldenScores(row, ScoringEngine.PortfolioVector.of(aggregate, holdings));
+        }
+    }
+
+    @Test
+    void goldenFileCoversEveryPortfolio() throws IOException {
+        Map<String, List<Holding>> portfolios = loadPortfolios();
+        List<String> covered = loadGoldenRows().stream().map(row -> row[0]).distinct().toList();
+        assertEquals(11, portfolios.size());
+        assertEquals(portfolios.keySet().stream().sorted().toList(), covered.stream().sorted().toList());
+    }
+
+    @Test
+    void divideHalfUpMatchesBigDecimalRounding() {
+        long[][] cases = {{5, 2}, {-5, 2}, {7, 3}, {-7, 3}, {1, 3}, {2, 3}, {15, 10}, {-15, 10}, {14, 10}, {5, -2}};
+        for (long[] c : cases) {
+            long expected = BigDecimal.valueOf(c[0]).divide(BigDecimal.valueOf(c[1]), 0, java.math.RoundingMode.HALF_UP).longValueExact();
+            assertEquals(expected, ScoringEngine.divideHalfUp(c[0], c[1]), c[0] + " / " + c[1]);
+        }
+    }
+
+    private static void assertGoldenScores(String[] row, ScoringEngine.PortfolioVector vector) {
+        String riskTolerance = row[1];
+        BigDecimal incomeGoal = row[2].isEmpty() ? null : new BigDecimal(row[2]);
+        String label = row[0] + " / " + riskTolerance + " / " + (incomeGoal != null ? incomeGoal : "no income goal");
+        assertNotNull(vector, "fixed-point layout rejected " + row[0]);
+
+        assertEquals(Integer.parseInt(row[3]), ScoringEngine.riskScore(vector, riskTolerance), "risk score for " + label);
+        assertEquals(Integer.parseInt(row[4]), ScoringEngine.diversificationScore(vector), "diversification score for " + label);
+        assertEquals(Integer.parseInt(row[5]), ScoringEngine.goalAlignmentScore(vector, riskTolerance, incomeGoal), "goal alignment score for " + label);
+    }
+
+    private static Map<String, List<Holding>> loadPortfolios() throws IOException {
+        Map<String, List<Holding>> portfolios = new LinkedHashMap<>();
+
+        JsonNode dummy = new ObjectMapper().readTree(REPO_ROOT.resolve("data/dummy_holdings_data.json").toFile());
+        List<Holding> dummyHoldings = new ArrayList<>();
+        for (JsonNode node : dummy.get("holdings")) {
+            dummyHoldings.add(new Holding(
+                    node.get("ticker").asText(),
+                    node.get("shares").asInt(),
+                    new BigDecimal(node.get("pricePerShare").asText()),
+                    node.get("sector").asText(),
+                    node.get("assetType").asText(),
+                    node.hasNonNull("beta") ? node.get("beta").asDouble() : null,
+                    node.hasNonNull("dividendYield") ? node.get("dividendYield").asDouble() : null,
+                    null));
+        }
+        portfolios.put("dummy_holdings_data", dummyHoldings);
+
+        String sql = Files.readString(REPO_ROOT.resolve("database/init-demo-data.sql"), StandardCharsets.UTF_8);
+        Matcher matcher = DEMO_HOLDING.matcher(sql);
+        while (matcher.find()) {
+            portfolios.computeIfAbsent(matcher.group(8), name -> new ArrayList<>()).add(new Holding(
+                    matcher.group(1),
+                    Integer.parseInt(matcher.group(2)),
+                    new BigDecimal(matcher.group(3)),
+                    matcher.group(4),
+                    matcher.group(5),
+                    parseNullableDouble(matcher.group(6)),
+                    parseNullableDouble(matcher.group(7)),
+                    null));
+        }
+        return portfolios;
+    }
+
+    private static Double parseNullableDouble(String value) {
+        return "NULL".equals(value) ? null : Double.valueOf(value);
+    }
+
+    // portfolio,riskTolerance,annualIncomeGoal,riskScore,diversificationScore,goalAlignmentScore
+    private static List<String[]> loadGoldenRows() throws IOException {
+        try (InputStream in = ScoringEngineGoldenTest.class.getResourceAsStream(GOLDEN_FILE)) {
+            assertNotNull(in, "missing " + GOLDEN_FILE);
+            List<String[]> rows = new ArrayList<>();
+            for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                rows.add(line.trim().split(",", -1));
+            }
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.ii.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Session tokens are only accepted when well-formed, signed with this instance's key,
+ * unexpired and not revoked.
+ */
+class SessionTokenServiceTest {
+
+    private static final String SECRET = "test-signing-secret";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final SessionTokenService tokenService = new SessionTokenService(SECRET, 60, false);
+
+    @Test
+    void issuedTokenVerifiesToItsAdvisor() {
+        String token = tokenService.issue(42L);
+
+        SessionTokenService.Session session = tokenService.verify(token).orElseThrow();
+        assertEquals(42L, session.getAdvisorId());
+        assertTrue(session.getExpiresAt() > Instant.now().getEpochSecond());
+        assertNotEquals(token, tokenService.issue(42L), "each token has its own id");
+    }
+
+    @Test
+    void tokenFromAnotherInstanceKeyIsRejected() {
+        String token = new SessionTokenService("another-secret", 60, false).issue(42L);
+
+        assertTrue(tokenService.verify(token).isEmpty());
+        // Without a configured secret each dev instance signs with its own random key
+        assertTrue(new SessionTokenService("", 60, true).verify(tokenService.issue(42L)).isEmpty());
+    }
+
+    @Test
+    void missingSecretFailsStartupOutsideDev() {
+        assertThrows(IllegalStateException.class, () -> new SessionTokenService("", 60, false));
+        assertThrows(IllegalStateException.class, () -> new SessionTokenService(null, 60, false));
+    }
+
+    @Test
+    void tamperedPayloadOrSignatureIsRejected() {
+        String token = tokenService.issue(42L);
+        String signature = token.substring(token.indexOf('.') + 1);
+        long expiresAt = tokenService.verify(token).orElseThrow().getExpiresAt();
+
+        // Another advisor's id under the original signature
+        String otherAdvisor = encode("7:" + expiresAt + ":abc") + "." + signature;
+        assertTrue(tokenService.verify(otherAdvisor).isEmpty());
+
+        // Flip the first character of the signature; the last one also carries unused padding bits
+        char first = signature.charAt(0);
+        String flipped = token.substring(0, token.indexOf('.') + 1) + (first == 'A' ? 'B' : 'A') + signature.substring(1);
+        assertTrue(tokenService.verify(flipped).isEmpty());
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        assertTrue(tokenService.verify(signed("42:" + (Instant.now().getEpochSecond() - 1) + ":abc")).isEmpty());
+        assertTrue(tokenService.verify(signed("42:" + Instant.now().getEpochSecond() + ":abc")).isEmpty());
+        assertTrue(tokenService.verify(new SessionTokenService(SECRET, 0, false).issue(42L)).isEmpty());
+
+        assertTrue(tokenService.verify(signed("42:" + (Instant.now().getEpochSecond() + 60) + ":abc")).isPresent());
+    }
+
+    @Test
+    void revokedTokenIsRejectedAndOthersStayValid() {
+        String loggedOut = tokenService.issue(42L);
+        String stillActive = tokenService.issue(42L);
+
+        tokenService.revoke(loggedOut);
+
+        assertTrue(tokenService.verify(loggedOut).isEmpty());
+        assertTrue(tokenService.verify(stillActive).isPresent());
+        // Revoking garbage or an already revoked token is harmless
+        tokenService.revoke("not-a-token");
+        tokenService.revoke(loggedOut);
+        tokenService.revoke(null);
+        assertTrue(tokenService.verify(stillActive).isPresent());
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        String valid = tokenService.issue(42L);
+        long expiresAt = Instant.now().getEpochSecond() + 60;
+        List<String> malformed = List.of(
+                "",
+                "no-dot",
+                ".",
+                "payload.",
+                ".signature",
+                "!!!.???",
+                valid + "x.y",
+                valid.replace('.', ':'),
+                // Correctly signed payloads with the wrong shape
+                signed("42:" + expiresAt),
+                signed("42:" + expiresAt + ":abc:extra"),
+                signed("advisor:" + expiresAt + ":abc"),
+                signed("42:tomorrow:abc"));
+        for (String token : malformed) {
+            assertTrue(tokenService.verify(token).isEmpty(), token);
+        }
+        assertTrue(tokenService.verify(null).isEmpty());
+    }
+
+    // Signs an arbitrary payload the way the service does, with the test secret
+    private static String signed(String payload) {
+        String encodedPayload = encode(payload);
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return encodedPayload + "." + ENCODER.encodeToString(mac.doFinal(encodedPayload.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(String payload) {
+        return ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
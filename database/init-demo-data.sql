@@ -10,7 +10,7 @@ VALUES ('Admin User', 'admin@investinsights.com', 'ii-Admin', '$2a$10$CUbulPsoTx
 ON CONFLICT (username) DO NOTHING;
 
 -- Insert demo clients (use subquery to get advisor ID)
-INSERT INTO client (name, email, risk_tolerance, investment_goal, time_horizon, advisor_id, created_at) VALUES
+INSERT INTO client (name, email, risk_tolerance, investment_goals, years_until_goal, advisor_id, created_at) VALUES
 ('Sashank Pandem', 'sashank.pandem@email.com', 'Moderate', 'Retirement savings', 25, 
  (SELECT id FROM advisor WHERE username = 'ii-Admin'), CURRENT_TIMESTAMP),
 ('Jack Siegel', 'jack.siegel@email.com', 'Aggressive', 'Wealth building', 15, 
@@ -56,6 +56,7 @@ export class MainAppComponent implements OnDestroy {
   currentInsight: InvestmentInsight | null = null;
   analysisPreferences: string = '';
   isGeneratingInsight: boolean = false;
+  streamingInsightText: string = '';
   
   // Market data
   marketNews: any[] = [];
@@ -481,6 +482,9 @@ export class MainAppComponent implements OnDestroy {
   }
   
   logout(): void {
+    // Revoke the session token on the server; the request picks it up before it is cleared below
+    this.http.post('http://localhost:8080/api/auth/logout', {}).subscribe({ error: () => {} });
+
     // Clear all authentication data from localStorage
     localStorage.removeItem('advisorToken');
     localStorage.removeItem('advisorId');
@@ -608,12 +612,18 @@ export class MainAppComponent implements OnDestroy {
     // Start the loading step animation
     this.startLoadingStepAnimation();
     
-    this.insightsService.generateInsight(
-      this.selectedPortfolioId, 
-      this.analysisPreferences || 'Provide a comprehensive portfolio analysis',
+    this.streamingInsightText = '';
+    this.insightsService.streamInsight(
+      this.selectedPortfolioId,
       this.selectedClientId
     ).subscribe({
-      next: (insight) => {
+      next: (event) => {
+        if (event.type === 'token') {
+          this.streamingInsightText += event.text;
+          return;
+        }
+        const insight = event.insight!;
+
         // Debug: Log the insight data received
         console.log('=== INSIGHT RECEIVED DEBUG ===');
         console.log('Insight ID:', insight.id);
@@ -729,6 +739,14 @@ export class MainAppComponent implements OnDestroy {
   }
   
   viewInsight(insight: InvestmentInsight): void {
+    // List entries are summaries; fetch the full insight before showing it
+    this.insightsService.loadFullInsight(insight).subscribe({
+      next: (full) => this.showInsight(full),
+      error: (error) => console.error('Error loading insight:', error)
+    });
+  }
+
+  private showInsight(insight: InvestmentInsight): void {
     // Debug: Log insight data
     console.log('=== VIEW INSIGHT DEBUG ===');
     console.log('Insight ID:', insight.id);
@@ -761,7 +779,7 @@ export class MainAppComponent implements OnDestroy {
     this.setActiveTab('insights');
     
     // Set the current insight after a brief delay to ensure tab switch completes
-    setTimeout(() => {
+    setTimeout(() => this.insightsService.loadFullInsight(insight).subscribe(insight => {
       // Parse structured data if not already present
       if (!insight.structuredInsight) {
         const parsed = this.insightsService.parseStructuredData(insight);
@@ -778,7 +796,7 @@ export class MainAppComponent implements OnDestroy {
       this.currentInsight = insight;
       this.activeSectionTab = '';
       this.showDebugInfo = false;
-    }, 100);
+    }), 100);
   }
   
   formatInsightText(text: string): string {
@@ -817,7 +835,9 @@ export class MainAppComponent implements OnDestroy {
     }
     
     try {
-      const structuredData = JSON.parse(this.currentInsight.structuredData);
+      const structuredData: any = typeof this.currentInsight.structuredData === 'string'
+        ? JSON.parse(this.currentInsight.structuredData)
+        : this.currentInsight.structuredData;
       const adjustments = structuredData.scoreAdjustments;
       
       if (!adjustments) {
@@ -863,7 +883,8 @@ export class MainAppComponent implements OnDestroy {
     }
     
     try {
-      return JSON.parse(this.currentInsight.debugInfo);
+      const debugInfo = this.currentInsight.debugInfo;
+      return typeof debugInfo === 'string' ? JSON.parse(debugInfo) : debugInfo;
     } catch (error) {
       console.error('Error parsing debug info:', error);
       return null;
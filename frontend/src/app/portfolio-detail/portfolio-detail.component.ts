@@ -249,7 +249,7 @@ export class PortfolioDetailComponent implements OnInit {
         
         // Set the most recent insight as current if available
         if (this.recentInsights.length > 0) {
-          this.currentInsight = this.recentInsights[0];
+          this.insightsService.loadFullInsight(this.recentInsights[0]).subscribe(full => this.currentInsight = full);
         }
         
         // Store original date strings to prevent timezone conversion issues
@@ -339,6 +339,14 @@ export class PortfolioDetailComponent implements OnInit {
   }
 
   viewInsight(insight: InvestmentInsight): void {
+    // List entries are summaries; fetch the full insight before showing it
+    this.insightsService.loadFullInsight(insight).subscribe({
+      next: (full) => this.showInsight(full),
+      error: (error) => console.error('Error loading insight:', error)
+    });
+  }
+
+  private showInsight(insight: InvestmentInsight): void {
     // Debug: Log the raw insight data
     console.log('=== VIEW INSIGHT DEBUG ===');
     console.log('Original createdAt:', insight.createdAt);
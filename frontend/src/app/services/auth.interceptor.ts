@@ -0,0 +1,29 @@
+import { Injectable } from '@angular/core';
+import { HttpErrorResponse, HttpEvent, HttpHandler, HttpInterceptor, HttpRequest } from '@angular/common/http';
+import { Router } from '@angular/router';
+import { Observable, throwError } from 'rxjs';
+import { catchError } from 'rxjs/operators';
+
+// Sends the session token with every backend call and returns to login once it is rejected
+@Injectable()
+export class AuthInterceptor implements HttpInterceptor {
+
+  constructor(private router: Router) { }
+
+  intercept(request: HttpRequest<unknown>, next: HttpHandler): Observable<HttpEvent<unknown>> {
+    const token = localStorage.getItem('advisorToken');
+    const isBackendCall = request.url.startsWith('http://localhost:8080/api/');
+    if (token && isBackendCall) {
+      request = request.clone({ setHeaders: { Authorization: `Bearer ${token}` } });
+    }
+    return next.handle(request).pipe(
+      catchError((error: HttpErrorResponse) => {
+        if (error.status === 401 && isBackendCall && !request.url.includes('/api/auth/')) {
+          localStorage.removeItem('advisorToken');
+          this.router.navigate(['/login']);
+        }
+        return throwError(() => error);
+      })
+    );
+  }
+}
@@ -1,6 +1,6 @@
 import { Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
-import { Observable } from 'rxjs';
+import { Observable, of } from 'rxjs';
 
 export interface InsightSection {
   title: string;
@@ -37,13 +37,24 @@ export interface InvestmentInsight {
   summary: string;
   aiGeneratedText: string;
   createdAt: string;
+  portfolioId?: number;
   portfolioName?: string;
   structuredInsight?: StructuredInsight;
   riskScore?: number;
   diversificationScore?: number;
   goalAlignment?: number;
-  structuredData?: string;
-  debugInfo?: string;
+  // JSON objects from the backend; older responses sent them as JSON strings
+  structuredData?: StructuredInsight | string;
+  debugInfo?: any;
+  aiPending?: boolean;
+  // List endpoints send only a preview of aiGeneratedText; load the full insight by id
+  preview?: string;
+}
+
+export interface InsightStreamEvent {
+  type: 'token' | 'insight';
+  text?: string;
+  insight?: InvestmentInsight;
 }
 
 @Injectable({
@@ -59,6 +70,31 @@ export class InsightsService {
     });
   }
 
+  // Streams the AI text as it is generated, then emits the persisted insight.
+  // EventSource cannot send headers, so the session token goes in the query string.
+  streamInsight(portfolioId: string, clientId: string): Observable<InsightStreamEvent> {
+    return new Observable<InsightStreamEvent>(observer => {
+      const token = encodeURIComponent(localStorage.getItem('advisorToken') || '');
+      const source = new EventSource(`http://localhost:8080/api/insights/generate-portfolio/${portfolioId}/stream?clientId=${clientId}&access_token=${token}`);
+
+      source.addEventListener('token', (event: MessageEvent) => {
+        observer.next({ type: 'token', text: JSON.parse(event.data).text });
+      });
+      source.addEventListener('insight', (event: MessageEvent) => {
+        observer.next({ type: 'insight', insight: JSON.parse(event.data) });
+        observer.complete();
+        source.close();
+      });
+      source.addEventListener('error', (event: Event) => {
+        const data = (event as MessageEvent).data;
+        observer.error(data ? JSON.parse(data) : event);
+        source.close();
+      });
+
+      return () => source.close();
+    });
+  }
+
   getInsightsByPortfolio(portfolioId: string): Observable<InvestmentInsight[]> {
     // Add cache-busting parameter to ensure fresh data
     const timestamp = new Date().getTime();
@@ -69,15 +105,27 @@ export class InsightsService {
     return this.http.get<InvestmentInsight[]>(`http://localhost:8080/api/insights/client/${clientId}`);
   }
 
+  getInsightById(insightId: number): Observable<InvestmentInsight> {
+    return this.http.get<InvestmentInsight>(`http://localhost:8080/api/insights/${insightId}`);
+  }
+
+  // List summaries lack the AI text and structured data; fetch them before displaying an insight
+  loadFullInsight(insight: InvestmentInsight): Observable<InvestmentInsight> {
+    if (insight.id === undefined || insight.aiGeneratedText !== undefined || insight.structuredData !== undefined) {
+      return of(insight);
+    }
+    return this.getInsightById(insight.id);
+  }
+
   deleteInsight(insightId: number): Observable<void> {
     return this.http.delete<void>(`http://localhost:8080/api/insights/${insightId}`);
   }
 
   parseStructuredData(insight: InvestmentInsight): StructuredInsight | null {
     try {
-      // First, try to parse from structuredData JSON string
+      // First, use structuredData (an object, or a JSON string from older responses)
       if (insight.structuredData) {
-        const parsed = JSON.parse(insight.structuredData);
+        const parsed = typeof insight.structuredData === 'string' ? JSON.parse(insight.structuredData) : insight.structuredData;
         return parsed as StructuredInsight;
       }
       
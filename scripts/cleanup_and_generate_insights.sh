@@ -13,8 +13,8 @@ NC='\033[0m' # No Color
 BASE_URL="http://localhost:8080"
 
 echo -e "${BLUE}1. Checking current insights...${NC}"
-CURRENT_INSIGHTS=$(curl -s "$BASE_URL/api/insights")
-echo "Current insights count: $(echo $CURRENT_INSIGHTS | jq '. | length')"
+CURRENT_INSIGHTS=$(curl -s "$BASE_URL/api/insights?limit=1&includeTotal=true")
+echo "Current insights count: $(echo $CURRENT_INSIGHTS | jq '.total')"
 
 echo -e "${YELLOW}2. Deleting all insights...${NC}"
 DELETE_RESPONSE=$(curl -s -X DELETE "$BASE_URL/api/insights/all")
@@ -26,8 +26,8 @@ else
 fi
 
 echo -e "${BLUE}3. Verifying deletion...${NC}"
-VERIFY_INSIGHTS=$(curl -s "$BASE_URL/api/insights")
-INSIGHT_COUNT=$(echo $VERIFY_INSIGHTS | jq '. | length')
+VERIFY_INSIGHTS=$(curl -s "$BASE_URL/api/insights?limit=1&includeTotal=true")
+INSIGHT_COUNT=$(echo $VERIFY_INSIGHTS | jq '.total')
 if [ "$INSIGHT_COUNT" -eq 0 ]; then
     echo -e "${GREEN}✓ Verification successful - no insights remaining${NC}"
 else
@@ -56,8 +56,8 @@ curl -s -X POST "$BASE_URL/api/insights/generate-portfolio/3?clientId=1" \
   -d '{"preferences": "Provide a balanced portfolio analysis considering both growth and income objectives. Focus on diversification and moderate risk management."}'
 
 echo -e "${BLUE}5. Verifying new insights...${NC}"
-FINAL_INSIGHTS=$(curl -s "$BASE_URL/api/insights")
-FINAL_COUNT=$(echo $FINAL_INSIGHTS | jq '. | length')
+FINAL_INSIGHTS=$(curl -s "$BASE_URL/api/insights?limit=1&includeTotal=true")
+FINAL_COUNT=$(echo $FINAL_INSIGHTS | jq '.total')
 echo -e "${GREEN}✓ Generated $FINAL_COUNT new insights${NC}"
 
 echo -e "${GREEN}🎉 Cleanup and test data generation complete!${NC}"
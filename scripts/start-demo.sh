@@ -55,7 +55,7 @@ echo "✅ Database is ready"
 # Start backend
 echo "🔧 Starting Spring Boot backend..."
 cd backend
-./mvnw spring-boot:run > ../backend.log 2>&1 &
+./mvnw spring-boot:run -Dspring-boot.run.profiles=dev > ../backend.log 2>&1 &
 BACKEND_PID=$!
 cd ..
 